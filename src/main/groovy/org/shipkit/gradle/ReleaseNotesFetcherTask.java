@@ -1,16 +1,25 @@
 package org.shipkit.gradle;
 
 import org.gradle.api.DefaultTask;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.shipkit.gradle.notes.FetchContributorsTask;
 import org.shipkit.internal.gradle.util.ReleaseNotesSerializer;
+import org.shipkit.internal.notes.contributors.AllContributorsSerializer;
+import org.shipkit.internal.notes.contributors.Contributors;
+import org.shipkit.internal.notes.contributors.ProjectContributorsSet;
 import org.shipkit.internal.notes.generator.ReleaseNotesGenerator;
 import org.shipkit.internal.notes.generator.ReleaseNotesGenerators;
+import org.shipkit.internal.notes.model.ContributionSet;
 import org.shipkit.internal.notes.model.ReleaseNotesData;
 import org.shipkit.internal.notes.util.IOUtil;
 import org.shipkit.internal.notes.vcs.IgnoredCommit;
+import org.shipkit.internal.util.GitHubClient;
+import org.shipkit.internal.util.GitHubResponseCache;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -25,6 +34,8 @@ import static java.util.Collections.singletonList;
  */
 public class ReleaseNotesFetcherTask extends DefaultTask {
 
+    private static final Logger LOG = Logging.getLogger(ReleaseNotesFetcherTask.class);
+
     @Input @Optional private String previousVersion;
     @Input private String version = getProject().getVersion().toString();
     @Input private String gitHubApiUrl;
@@ -36,6 +47,9 @@ public class ReleaseNotesFetcherTask extends DefaultTask {
     @Input private Collection<String> gitHubLabels = Collections.emptyList();
     @Input private Collection<String> ignoreCommitsContaining;
     @OutputFile private File outputFile;
+    @OutputFile @Optional private File contributorsOutputFile;
+    private File gitHubCacheDir;
+    private File gitCacheDir;
 
     /**
      * See {@link ReleaseConfiguration.GitHub#getUrl()}
@@ -108,6 +122,23 @@ public class ReleaseNotesFetcherTask extends DefaultTask {
         this.outputFile = outputFile;
     }
 
+    /**
+     * The file GitHub users of the authors of released commits will be saved to.
+     * Only the authors of versions we generate release notes for are resolved, which is much cheaper
+     * than fetching all contributors of the project (see {@link FetchContributorsTask}).
+     * If null, the authors are not resolved.
+     */
+    public File getContributorsOutputFile() {
+        return contributorsOutputFile;
+    }
+
+    /**
+     * See {@link #getContributorsOutputFile()}
+     */
+    public void setContributorsOutputFile(File contributorsOutputFile) {
+        this.contributorsOutputFile = contributorsOutputFile;
+    }
+
     /**
      * Version we generate release notes data for
      */
@@ -194,10 +225,45 @@ public class ReleaseNotesFetcherTask extends DefaultTask {
         this.ignoreCommitsContaining = ignoreCommitsContaining;
     }
 
+    /**
+     * See {@link FetchContributorsTask#getGitHubCacheDir()}
+     */
+    public File getGitHubCacheDir() {
+        return gitHubCacheDir;
+    }
+
+    /**
+     * See {@link #getGitHubCacheDir()}
+     */
+    public void setGitHubCacheDir(File gitHubCacheDir) {
+        this.gitHubCacheDir = gitHubCacheDir;
+    }
+
+    /**
+     * Directory where commits read from the git repository are kept between builds,
+     * so that the next build only reads the commits made since then. Null means no caching.
+     */
+    public File getGitCacheDir() {
+        return gitCacheDir;
+    }
+
+    /**
+     * See {@link #getGitCacheDir()}
+     */
+    public void setGitCacheDir(File gitCacheDir) {
+        this.gitCacheDir = gitCacheDir;
+    }
+
     @TaskAction
     public void generateReleaseNotes() {
+        GitHubResponseCache cache = gitHubCacheDir == null ? null : GitHubResponseCache.forDirectory(gitHubCacheDir);
+        //the cache is used only by this task, other GitHub calls in the build are not affected
+        GitHubClient client = GitHubClient.getDefault().withResponseCache(cache);
+        GitHubResponseCache.Stats cacheStats = cache == null ? null : cache.getStats();
+
         ReleaseNotesGenerator generator = ReleaseNotesGenerators.releaseNotesGenerator(
-                gitWorkDir, gitHubApiUrl, gitHubRepository, gitHubReadOnlyAuthToken, new IgnoredCommit(ignoreCommitsContaining));
+                gitWorkDir, gitHubApiUrl, gitHubRepository, gitHubReadOnlyAuthToken, new IgnoredCommit(ignoreCommitsContaining),
+                gitHubCacheDir, gitCacheDir, client);
 
         List<String> targetVersions = previousVersion == null ? new ArrayList<String>() : singletonList(previousVersion);
         Collection<ReleaseNotesData> releaseNotes = generator.generateReleaseNotesData(
@@ -206,5 +272,19 @@ public class ReleaseNotesFetcherTask extends DefaultTask {
         ReleaseNotesSerializer releaseNotesSerializer = new ReleaseNotesSerializer();
         final String serializedData = releaseNotesSerializer.serialize(releaseNotes);
         IOUtil.writeFile(getOutputFile(), serializedData);
+
+        if (contributorsOutputFile != null) {
+            List<ContributionSet> contributions = new ArrayList<ContributionSet>();
+            for (ReleaseNotesData data : releaseNotes) {
+                contributions.add(data.getContributions());
+            }
+            ProjectContributorsSet contributors = Contributors.getReleaseContributorsProvider(
+                    gitHubApiUrl, gitHubRepository, gitHubReadOnlyAuthToken, gitHubCacheDir, client).getContributors(contributions);
+            IOUtil.writeFile(contributorsOutputFile, new AllContributorsSerializer().serialize(contributors));
+        }
+
+        if (cache != null) {
+            LOG.lifecycle("  GitHub response cache: {}", cache.getStats().since(cacheStats));
+        }
     }
 }
@@ -6,6 +6,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.TaskAction;
 import org.shipkit.internal.exec.Exec;
+import org.shipkit.internal.notes.vcs.GitDirectory;
 
 import java.io.File;
 import java.util.List;
@@ -19,11 +20,18 @@ public class IdentifyGitBranchTask extends DefaultTask {
 
     private final Logger LOG = Logging.getLogger(IdentifyGitBranchTask.class);
 
-    private List<String> commandLine = asList("git", "rev-parse", "--abbrev-ref", "HEAD");
+    private static final List<String> DEFAULT_COMMAND_LINE = asList("git", "rev-parse", "--abbrev-ref", "HEAD");
+
+    private List<String> commandLine = DEFAULT_COMMAND_LINE;
     private File workDir = getProject().getRootDir();
     private String branch;
 
     @TaskAction public void identifyBranch() {
+        if (branch == null && commandLine.equals(DEFAULT_COMMAND_LINE)) {
+            //no need to start git process in a typical repository
+            GitDirectory gitDirectory = GitDirectory.find(workDir);
+            this.branch = gitDirectory == null ? null : gitDirectory.getCurrentBranch();
+        }
         if (branch == null) {
             this.branch = Exec.getProcessRunner(workDir)
                     .run(commandLine)
@@ -53,7 +61,8 @@ public class IdentifyGitBranchTask extends DefaultTask {
     }
 
     /**
-     * The git command line used to identify the branch
+     * The git command line used to identify the branch.
+     * With the default command line the branch is read from the '.git' directory if possible, without running git.
      */
     public List<String> getCommandLine() {
         return commandLine;
@@ -2,10 +2,13 @@ package org.shipkit.gradle.notes;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 import org.shipkit.gradle.ReleaseConfiguration;
+import org.shipkit.internal.exec.Exec;
 import org.shipkit.internal.gradle.notes.tasks.FetchContributors;
+import org.shipkit.internal.notes.vcs.GitDirectory;
 
 import java.io.File;
 
@@ -17,6 +20,8 @@ import java.io.File;
  * Therefore, we also fetch recent contributors from GitHub using the "commit" end point:
  * https://developer.github.com/v3/repos/commits/
  * This way, we can also fetch the most recent contributors, necessary for correct release notes information.
+ * <p>
+ * Alternatively, contributions can be counted using the local git history, see {@link #isUseLocalGitHistory()}.
  */
 public class FetchContributorsTask extends DefaultTask {
 
@@ -24,6 +29,10 @@ public class FetchContributorsTask extends DefaultTask {
     @Input private String repository;
     @Input private String readOnlyAuthToken;
     @OutputFile private File outputFile;
+    private File gitHubCacheDir;
+    @Input private boolean useLocalGitHistory;
+    //not an input, the location does not change the result, see getGitHeadCommit()
+    private File gitWorkDir = getProject().getRootDir();
 
     @TaskAction
     public void fetchContributors() {
@@ -85,4 +94,69 @@ public class FetchContributorsTask extends DefaultTask {
     public void setOutputFile(File outputFile) {
         this.outputFile = outputFile;
     }
+
+    /**
+     * Directory where GitHub API responses are cached between builds.
+     * Cached responses are validated with conditional requests that don't count against the rate limit.
+     * Null means no caching.
+     */
+    public File getGitHubCacheDir() {
+        return gitHubCacheDir;
+    }
+
+    /**
+     * See {@link #getGitHubCacheDir()}
+     */
+    public void setGitHubCacheDir(File gitHubCacheDir) {
+        this.gitHubCacheDir = gitHubCacheDir;
+    }
+
+    /**
+     * If true, contributions are counted using the local git history (like 'git shortlog -sne')
+     * and GitHub is only asked about commit author emails that were not seen before.
+     * This needs far fewer GitHub API calls but requires full history, shallow clones fall back to GitHub API.
+     * False by default.
+     */
+    public boolean isUseLocalGitHistory() {
+        return useLocalGitHistory;
+    }
+
+    /**
+     * See {@link #isUseLocalGitHistory()}
+     */
+    public void setUseLocalGitHistory(boolean useLocalGitHistory) {
+        this.useLocalGitHistory = useLocalGitHistory;
+    }
+
+    /**
+     * Working directory where 'git' operations are executed, see {@link #isUseLocalGitHistory()}
+     */
+    public File getGitWorkDir() {
+        return gitWorkDir;
+    }
+
+    /**
+     * See {@link #getGitWorkDir()}
+     */
+    public void setGitWorkDir(File gitWorkDir) {
+        this.gitWorkDir = gitWorkDir;
+    }
+
+    /**
+     * The commit at 'HEAD' of {@link #getGitWorkDir()}, the end of the history that is read when contributions
+     * are counted from the local git history. New commits make the task out of date.
+     * Null when the local git history is not used.
+     */
+    @Input @Optional
+    public String getGitHeadCommit() {
+        if (!useLocalGitHistory) {
+            return null;
+        }
+        GitDirectory gitDirectory = GitDirectory.find(gitWorkDir);
+        String commit = gitDirectory == null ? null : gitDirectory.getCommit("HEAD");
+        if (commit == null) {
+            commit = Exec.getProcessRunner(gitWorkDir).run("git", "rev-parse", "HEAD").trim();
+        }
+        return commit;
+    }
 }
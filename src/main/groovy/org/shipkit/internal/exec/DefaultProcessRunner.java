@@ -3,13 +3,20 @@ package org.shipkit.internal.exec;
 import org.gradle.api.GradleException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.shipkit.internal.notes.util.Function;
 import org.shipkit.internal.notes.util.IOUtil;
 import org.shipkit.internal.notes.util.ReleaseNotesException;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.List;
 
@@ -19,9 +26,13 @@ import static org.shipkit.internal.gradle.util.StringUtil.join;
 public class DefaultProcessRunner implements ProcessRunner {
 
     private static final Logger LOG = Logging.getLogger(DefaultProcessRunner.class);
+    //characters of the output kept in memory when the output is written to the log file
+    private static final int TAIL_SIZE = 64 * 1024;
+
     private final File workDir;
     private final File outputLogFile;
     private List<String> secretValues = Collections.emptyList();
+    private boolean fullOutput;
 
     /**
      * Calls {@link #DefaultProcessRunner(File, File)}
@@ -33,7 +44,8 @@ public class DefaultProcessRunner implements ProcessRunner {
     /**
      * Create Process runner
      * @param workDir Work directory where to start a process
-     * @param outputLogFile If process create a long output it's better to save it in file
+     * @param outputLogFile If process create a long output it's better to save it in file.
+     *                      The output is written to the file as it comes and only its end is kept in memory, see {@link #setFullOutput(boolean)}
      */
     public DefaultProcessRunner(File workDir, File outputLogFile) {
         this.workDir = workDir;
@@ -62,19 +74,78 @@ public class DefaultProcessRunner implements ProcessRunner {
         }
     }
 
+    public <T> T run(Function<InputStream, T> outputReader, List<String> commandLine) {
+        // WARNING!!! ensure that masked command line is used for all logging!!!
+        String maskedCommandLine = mask(join(commandLine, " "));
+        LOG.lifecycle("  Executing:\n    " + maskedCommandLine);
+
+        T result;
+        int exitValue;
+        ErrorOutputReader errors;
+        Process process = null;
+        try {
+            process = new ProcessBuilder(commandLine).directory(workDir).start();
+            //error output is consumed concurrently so that the process does not block when the pipe buffer is full
+            errors = new ErrorOutputReader(process.getErrorStream());
+            errors.start();
+            InputStream output = process.getInputStream();
+            try {
+                result = outputReader.apply(output);
+                skipRemaining(output);
+            } finally {
+                output.close();
+            }
+            exitValue = process.waitFor();
+            errors.join();
+        } catch (Exception e) {
+            throw new ReleaseNotesException("Problems executing command:\n  " + maskedCommandLine, e);
+        } finally {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+
+        if (exitValue != 0) {
+            throw new GradleException("Execution of command failed (exit code " + exitValue + "):\n" +
+                    "  " + maskedCommandLine + "\n" +
+                    "  Captured error output:\n" + mask(errors.getOutput()));
+        }
+        return result;
+    }
+
+    /**
+     * The reader does not need to read everything, the process should not block writing the rest
+     */
+    private static void skipRemaining(InputStream output) {
+        byte[] buffer = new byte[4096];
+        try {
+            while (output.read(buffer) != -1) {
+                //discarding
+            }
+        } catch (IOException e) {
+            //the reader has closed the stream
+        }
+    }
+
     private ProcessResult executeProcess(List<String> commandLine, String maskedCommandLine) {
         ProcessResult result;
         try {
             Process process = new ProcessBuilder(commandLine).directory(workDir).redirectErrorStream(true).start();
-            String output = mask(readFully(new BufferedReader(new InputStreamReader(process.getInputStream()))));
-            storeOutputToFile(output);
+            //with the log file only the tail is kept in memory, unless full output was requested
+            OutputCapture capture = new OutputCapture(openOutputLogFile(), outputLogFile == null || fullOutput ? -1 : TAIL_SIZE);
+            Writer output = new SecretMaskingWriter(capture, secretValues);
+            try {
+                copyLines(new InputStreamReader(process.getInputStream()), output);
+            } finally {
+                output.close();
+            }
 
             //TODO add sanity timeout when we move to Java 1.7
             // 1. we can do something like process.waitFor(15, TimeUnit.MINUTES)
             // 2. first, we need to change the compatibility, push to Gradle 3.0, stop building with Java 1.6.
             process.waitFor();
 
-            result = new ProcessResult(output, process);
+            result = new ProcessResult(capture.getOutput(), process);
         } catch (Exception e) {
             throw new ReleaseNotesException("Problems executing command:\n  " + maskedCommandLine, e);
         }
@@ -85,45 +156,63 @@ public class DefaultProcessRunner implements ProcessRunner {
         if (secretValues.isEmpty()) {
             return text;
         }
-        for (String s : secretValues) {
-            if (s != null) {
-                text = text.replace(s, "[SECRET]");
-            }
-        }
-        return text;
+        return SecretMaskingWriter.mask(text, secretValues);
     }
 
-    private static String readFully(BufferedReader reader) throws IOException {
+    /**
+     * Copies the output chunk by chunk. Line separators are normalized to '\n' and the output ends with one,
+     * the same as reading it line by line.
+     */
+    private static void copyLines(Reader reader, Writer output) throws IOException {
         try {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
+            char[] buffer = new char[8192];
+            char[] normalized = new char[buffer.length];
+            boolean afterCarriageReturn = false;
+            boolean lineStarted = false;
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                int length = 0;
+                for (int i = 0; i < n; i++) {
+                    char c = buffer[i];
+                    if (c == '\n' && afterCarriageReturn) {
+                        //the second half of "\r\n", the line was already ended
+                        afterCarriageReturn = false;
+                        continue;
+                    }
+                    afterCarriageReturn = c == '\r';
+                    normalized[length++] = afterCarriageReturn ? '\n' : c;
+                    lineStarted = normalized[length - 1] != '\n';
+                }
+                output.write(normalized, 0, length);
+            }
+            if (lineStarted) {
+                output.write('\n');
             }
-            return sb.toString();
         } finally {
             reader.close();
         }
     }
 
-    private void storeOutputToFile(String content) {
-        if(outputLogFile != null) {
-            //TODO ms - can we make sure that the output does not have sensitive secret values
-            //should we mask secret values in the output stored in file, too?
-            //TODO SF - good question. Currently secret values are masked (see invocation of this method)
-            //On Travis CI you can't see files in workspace, but maybe it would be good to publish this outputs somewhere
-            //for example gist.github.com (?), then we should mask secrets
-            IOUtil.writeFile(outputLogFile, content);
+    /**
+     * The output is written to the file as it comes, secret values are masked before they get to the file.
+     * On Travis CI you can't see files in workspace, but maybe it would be good to publish this outputs somewhere,
+     * for example gist.github.com (?), so the file should never contain secrets.
+     */
+    private Writer openOutputLogFile() throws IOException {
+        if (outputLogFile == null) {
+            return null;
         }
+        IOUtil.createParentDirectory(outputLogFile);
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputLogFile), "UTF-8"));
     }
 
     private String executionOfCommandFailed(String maskedCommandLine, ProcessResult result) {
         String message = "Execution of command failed (exit code " + result.getExitValue() + "):\n" +
                 "  " + maskedCommandLine + "\n";
-        if(outputLogFile == null) {
+        if(outputLogFile == null || fullOutput) {
             message = message + "  Captured command output:\n" + result.getOutput();
         } else {
-            message = message + "  Captured command output stored in " + outputLogFile;
+            message = message + "  Captured command output stored in " + outputLogFile + ", the end of the output:\n" + result.getOutput();
         }
         throw new GradleException(message);
     }
@@ -144,6 +233,129 @@ public class DefaultProcessRunner implements ProcessRunner {
         return this;
     }
 
+    /**
+     * By default, when the output is written to the log file, only the end of the output is kept in memory.
+     * It is returned by {@link #run(List)} and reported when the command fails.
+     *
+     * @param fullOutput if the whole output should be kept in memory and returned, even if it is written to the log file
+     * @return this runner
+     */
+    public DefaultProcessRunner setFullOutput(boolean fullOutput) {
+        this.fullOutput = fullOutput;
+        return this;
+    }
+
+    /**
+     * Writes the masked output to the log file, if there is one, and keeps either the whole output or only the tail
+     */
+    private static class OutputCapture extends Writer {
+        private final Writer file;
+        private final StringBuilder full;
+        //ring buffer, 'tailEnd' is the position of the next character
+        private final char[] tail;
+        private int tailEnd;
+        private boolean tailFull;
+
+        /**
+         * @param file nullable
+         * @param tailSize -1 keeps the whole output
+         */
+        OutputCapture(Writer file, int tailSize) {
+            this.file = file;
+            this.full = tailSize == -1 ? new StringBuilder() : null;
+            this.tail = tailSize == -1 ? null : new char[tailSize];
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            if (file != null) {
+                file.write(chars, offset, length);
+            }
+            if (full != null) {
+                full.append(chars, offset, length);
+                return;
+            }
+            if (length >= tail.length) {
+                System.arraycopy(chars, offset + length - tail.length, tail, 0, tail.length);
+                tailEnd = 0;
+                tailFull = true;
+                return;
+            }
+            int first = Math.min(length, tail.length - tailEnd);
+            System.arraycopy(chars, offset, tail, tailEnd, first);
+            System.arraycopy(chars, offset + first, tail, 0, length - first);
+            if (tailEnd + length >= tail.length) {
+                tailFull = true;
+            }
+            tailEnd = (tailEnd + length) % tail.length;
+        }
+
+        String getOutput() {
+            if (full != null) {
+                return full.toString();
+            }
+            if (!tailFull) {
+                return new String(tail, 0, tailEnd);
+            }
+            String output = new String(tail, tailEnd, tail.length - tailEnd) + new String(tail, 0, tailEnd);
+            //the first line is most likely cut, drop it unless it is the only line
+            int firstLineEnd = output.indexOf('\n');
+            if (firstLineEnd == -1 || firstLineEnd == output.length() - 1) {
+                return "[...]" + output;
+            }
+            return "[...]\n" + output.substring(firstLineEnd + 1);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (file != null) {
+                file.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Collects error output of the process, up to a limit, in a separate thread
+     */
+    private static class ErrorOutputReader extends Thread {
+        private static final int MAX_SIZE = 64 * 1024;
+        private final InputStream input;
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ErrorOutputReader(InputStream input) {
+            this.input = input;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[4096];
+            try {
+                int n;
+                while ((n = input.read(buffer)) != -1) {
+                    if (output.size() < MAX_SIZE) {
+                        output.write(buffer, 0, Math.min(n, MAX_SIZE - output.size()));
+                    }
+                }
+            } catch (IOException e) {
+                //process was terminated, we keep what we have read so far
+            } finally {
+                IOUtil.close(input);
+            }
+        }
+
+        String getOutput() {
+            return output.toString();
+        }
+    }
+
     private static class ProcessResult {
         private final String output;
         private final Process process;
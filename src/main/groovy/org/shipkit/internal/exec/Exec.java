@@ -20,4 +20,12 @@ public class Exec {
     public static ProcessRunner getProcessRunner(File workDir, File outputLogFile) {
         return new DefaultProcessRunner(workDir, outputLogFile);
     }
+
+    /**
+     * Same as {@link #getProcessRunner(File, File)}, but the whole output is returned when fullOutput is true,
+     * not only its end, see {@link DefaultProcessRunner#setFullOutput(boolean)}
+     */
+    public static ProcessRunner getProcessRunner(File workDir, File outputLogFile, boolean fullOutput) {
+        return new DefaultProcessRunner(workDir, outputLogFile).setFullOutput(fullOutput);
+    }
 }
@@ -1,5 +1,8 @@
 package org.shipkit.internal.exec;
 
+import org.shipkit.internal.notes.util.Function;
+
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -22,4 +25,15 @@ public interface ProcessRunner {
      * @return combined error and standard output.
      */
     String run(List<String> commandLine);
+
+    /**
+     * Executes given command line and hands the standard output to the reader while the process is running.
+     * Useful for large output that we don't want to hold in memory.
+     * Error output is not passed to the reader, it is only reported when the command fails.
+     *
+     * @param outputReader reads the standard output of the process, does not need to read it fully
+     * @param commandLine the full command line to execute
+     * @return the value returned by the reader
+     */
+    <T> T run(Function<InputStream, T> outputReader, List<String> commandLine);
 }
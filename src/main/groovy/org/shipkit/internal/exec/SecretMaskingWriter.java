@@ -0,0 +1,160 @@
+package org.shipkit.internal.exec;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces secret values with "[SECRET]" in text that is written in chunks, for example output of a process,
+ * and passes the masked text to the delegate writer.
+ * <p>
+ * All secrets are looked for in one pass over the text: at every position only the secrets
+ * that start with the character at this position are compared. Text that could be the beginning of a secret
+ * is held back until the next chunk arrives, so the window never exceeds the length of the longest secret.
+ * When secrets overlap, the one that starts first wins, then the longest one.
+ */
+class SecretMaskingWriter extends Writer {
+
+    static final String MASK = "[SECRET]";
+
+    private final Writer delegate;
+    //first character -> secrets starting with it, longest first
+    private final Map<Character, String[]> secrets = new HashMap<Character, String[]>();
+    //written but not yet passed to the delegate
+    private final StringBuilder window = new StringBuilder();
+
+    /**
+     * @param secrets values to mask, null and empty values are ignored
+     */
+    SecretMaskingWriter(Writer delegate, List<String> secrets) {
+        this.delegate = delegate;
+        Map<Character, List<String>> byFirstChar = new HashMap<Character, List<String>>();
+        for (String s : secrets) {
+            if (s == null || s.length() == 0) {
+                continue;
+            }
+            List<String> list = byFirstChar.get(s.charAt(0));
+            if (list == null) {
+                list = new ArrayList<String>();
+                byFirstChar.put(s.charAt(0), list);
+            }
+            list.add(s);
+        }
+        for (Map.Entry<Character, List<String>> e : byFirstChar.entrySet()) {
+            List<String> list = e.getValue();
+            Collections.sort(list, new Comparator<String>() {
+                public int compare(String a, String b) {
+                    return b.length() - a.length();
+                }
+            });
+            this.secrets.put(e.getKey(), list.toArray(new String[list.size()]));
+        }
+    }
+
+    /**
+     * Masks the whole text at once, for example the command line
+     */
+    static String mask(String text, List<String> secrets) {
+        if (text == null) {
+            return null;
+        }
+        StringWriter result = new StringWriter(text.length());
+        SecretMaskingWriter writer = new SecretMaskingWriter(result, secrets);
+        try {
+            writer.write(text);
+            writer.close();
+        } catch (IOException e) {
+            //StringWriter does not throw
+            throw new RuntimeException(e);
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        if (secrets.isEmpty()) {
+            delegate.write(chars, offset, length);
+            return;
+        }
+        window.append(chars, offset, length);
+        drain(false);
+    }
+
+    /**
+     * Passes everything that cannot be a part of a secret to the delegate.
+     * At the end of the text there is nothing to wait for.
+     */
+    private void drain(boolean end) throws IOException {
+        int start = 0;
+        int i = 0;
+        while (i < window.length()) {
+            String[] candidates = secrets.get(window.charAt(i));
+            if (candidates == null) {
+                i++;
+                continue;
+            }
+            String match = null;
+            boolean undecided = false;
+            for (String secret : candidates) {
+                if (window.length() - i >= secret.length()) {
+                    if (regionMatches(i, secret)) {
+                        match = secret;
+                        break;
+                    }
+                } else if (!end && regionMatches(i, secret.substring(0, window.length() - i))) {
+                    //longer secret may still match, we need to see more text
+                    undecided = true;
+                    break;
+                }
+            }
+            if (undecided) {
+                break;
+            }
+            if (match != null) {
+                writeWindow(start, i);
+                delegate.write(MASK);
+                i += match.length();
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        writeWindow(start, i);
+        window.delete(0, i);
+    }
+
+    private boolean regionMatches(int offset, String value) {
+        for (int j = 0; j < value.length(); j++) {
+            if (window.charAt(offset + j) != value.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeWindow(int start, int end) throws IOException {
+        if (end > start) {
+            delegate.write(window.substring(start, end));
+        }
+    }
+
+    /**
+     * Flushes only the text that cannot be a part of a secret, the rest is written by {@link #close()}
+     */
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        drain(true);
+        delegate.close();
+    }
+}
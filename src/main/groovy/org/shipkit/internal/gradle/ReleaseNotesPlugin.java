@@ -7,9 +7,9 @@ import org.shipkit.gradle.ReleaseConfiguration;
 import org.shipkit.gradle.ReleaseNotesFetcherTask;
 import org.shipkit.gradle.UpdateReleaseNotesTask;
 import org.shipkit.internal.gradle.configuration.ReleaseConfigurationPlugin;
-import org.shipkit.gradle.notes.FetchContributorsTask;
 import org.shipkit.internal.gradle.contributors.ContributorsPlugin;
 import org.shipkit.internal.gradle.git.GitPlugin;
+import org.shipkit.internal.gradle.util.BuildConventions;
 import org.shipkit.internal.gradle.util.TaskMaker;
 import org.shipkit.internal.version.VersionInfo;
 
@@ -46,21 +46,22 @@ public class ReleaseNotesPlugin implements Plugin<Project> {
             public void execute(final ReleaseNotesFetcherTask t) {
                 t.setDescription("Fetches release notes data from Git and GitHub and serializes them to a file");
                 t.setOutputFile(new File(project.getBuildDir(), "detailed-release-notes.ser"));
+                t.setContributorsOutputFile(new File(project.getBuildDir(), "release-contributors.json"));
                 t.setGitHubApiUrl(conf.getGitHub().getApiUrl());
                 t.setGitHubReadOnlyAuthToken(conf.getGitHub().getReadOnlyAuthToken());
                 t.setGitHubRepository(conf.getGitHub().getRepository());
                 t.setPreviousVersion(conf.getPreviousReleaseVersion());
                 t.setIgnoreCommitsContaining(conf.getReleaseNotes().getIgnoreCommitsContaining());
+                t.setGitHubCacheDir(BuildConventions.gitHubCacheDir(project));
+                t.setGitCacheDir(BuildConventions.gitCacheDir(project));
             }
         });
 
-        final FetchContributorsTask contributorsFetcher = (FetchContributorsTask) project.getTasks().getByName(ContributorsPlugin.FETCH_ALL_CONTRIBUTORS_TASK);
-
         TaskMaker.task(project, UPDATE_NOTES_TASK, UpdateReleaseNotesTask.class, new Action<UpdateReleaseNotesTask>() {
             public void execute(final UpdateReleaseNotesTask t) {
                 t.setDescription("Updates release notes file. Run with '-Ppreview' if you only want to see the preview.");
 
-                configureDetailedNotes(t, releaseNotesFetcher, project, conf, contributorsFetcher);
+                configureDetailedNotes(t, releaseNotesFetcher, project, conf);
 
                 boolean previewMode = project.hasProperty(PREVIEW_PROJECT_PROPERTY);
                 t.setPreviewMode(previewMode);
@@ -78,10 +79,8 @@ public class ReleaseNotesPlugin implements Plugin<Project> {
     private static void configureDetailedNotes(final UpdateReleaseNotesTask task,
                                                final ReleaseNotesFetcherTask releaseNotesFetcher,
                                                final Project project,
-                                               final ReleaseConfiguration conf,
-                                               final FetchContributorsTask contributorsFetcher) {
+                                               final ReleaseConfiguration conf) {
         task.dependsOn(releaseNotesFetcher);
-        task.dependsOn(contributorsFetcher);
 
         task.setVersion(project.getVersion().toString());
         task.setTagPrefix(conf.getGit().getTagPrefix());
@@ -95,6 +94,7 @@ public class ReleaseNotesPlugin implements Plugin<Project> {
         task.setPreviousVersion(project.getExtensions().getByType(VersionInfo.class).getPreviousVersion());
 
         task.setReleaseNotesData(releaseNotesFetcher.getOutputFile());
-        task.setContributorsDataFile(contributorsFetcher.getOutputFile());
+        //only authors of released versions are linked in release notes, all-time contributors are not needed
+        task.setContributorsDataFile(releaseNotesFetcher.getContributorsOutputFile());
     }
 }
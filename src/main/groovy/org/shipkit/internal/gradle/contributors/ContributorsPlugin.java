@@ -1,5 +1,7 @@
 package org.shipkit.internal.gradle.contributors;
 
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
 import org.gradle.api.Action;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -7,8 +9,10 @@ import org.shipkit.gradle.ReleaseConfiguration;
 import org.shipkit.gradle.notes.FetchContributorsTask;
 import org.shipkit.internal.gradle.configuration.ReleaseConfigurationPlugin;
 import org.shipkit.internal.gradle.util.TaskMaker;
+import org.shipkit.internal.util.SharedExecutor;
 
 import static org.shipkit.internal.gradle.util.BuildConventions.contributorsFile;
+import static org.shipkit.internal.gradle.util.BuildConventions.gitHubCacheDir;
 
 /**
  * Adds and configures tasks for getting contributor information from GitHub.
@@ -31,6 +35,14 @@ public class ContributorsPlugin implements Plugin<Project> {
     public void apply(final Project project) {
         final ReleaseConfiguration conf = project.getPlugins().apply(ReleaseConfigurationPlugin.class).getConfiguration();
         fetchAllTask(project, conf);
+
+        //GitHub requests are executed by threads shared by the build, release them when the build is done
+        project.getGradle().addBuildListener(new BuildAdapter() {
+            @Override
+            public void buildFinished(BuildResult result) {
+                SharedExecutor.shutdown();
+            }
+        });
     }
 
     private void fetchAllTask(final Project project, final ReleaseConfiguration conf) {
@@ -42,6 +54,7 @@ public class ContributorsPlugin implements Plugin<Project> {
                 task.setApiUrl(conf.getGitHub().getApiUrl());
                 task.setReadOnlyAuthToken(conf.getGitHub().getReadOnlyAuthToken());
                 task.setRepository(conf.getGitHub().getRepository());
+                task.setGitHubCacheDir(gitHubCacheDir(project));
                 task.setEnabled(conf.getTeam().getContributors().isEmpty());
             }
         });
@@ -6,6 +6,7 @@ import org.shipkit.gradle.init.InitShipkitFileTask;
 import org.shipkit.internal.exec.DefaultProcessRunner;
 import org.shipkit.internal.exec.ProcessRunner;
 import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.notes.vcs.GitDirectory;
 import org.shipkit.internal.notes.vcs.GitOriginRepoProvider;
 import org.shipkit.internal.util.TemplateResolver;
 
@@ -28,7 +29,7 @@ public class InitShipkitFile {
             LOG.lifecycle("  Shipkit file already exists, nothing to do: {}", shipkitFile.getPath());
         } else {
             ProcessRunner runner = new DefaultProcessRunner(projectDir);
-            createShipkitFile(shipkitFile, new GitOriginRepoProvider(runner));
+            createShipkitFile(shipkitFile, new GitOriginRepoProvider(runner, GitDirectory.find(projectDir)));
             LOG.lifecycle("  Shipkit configuration created at {}!\n" +
                 "  You can modify it manually. Remember to check it into VCS!", shipkitFile.getPath());
         }
@@ -5,9 +5,11 @@ import org.gradle.api.logging.Logging;
 import org.shipkit.gradle.notes.FetchContributorsTask;
 import org.shipkit.internal.notes.contributors.AllContributorsSerializer;
 import org.shipkit.internal.notes.contributors.Contributors;
-import org.shipkit.internal.notes.contributors.GitHubContributorsProvider;
+import org.shipkit.internal.notes.contributors.ContributorsProvider;
 import org.shipkit.internal.notes.contributors.ProjectContributorsSet;
 import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.util.GitHubClient;
+import org.shipkit.internal.util.GitHubResponseCache;
 
 public class FetchContributors {
 
@@ -16,8 +18,15 @@ public class FetchContributors {
     public void fetchContributors(FetchContributorsTask task) {
         LOG.lifecycle("  Fetching all contributors for project");
 
-        GitHubContributorsProvider contributorsProvider = Contributors.getGitHubContributorsProvider(
-            task.getApiUrl(), task.getRepository(), task.getReadOnlyAuthToken());
+        GitHubResponseCache cache = task.getGitHubCacheDir() == null ? null : GitHubResponseCache.forDirectory(task.getGitHubCacheDir());
+        GitHubClient client = GitHubClient.getDefault().withResponseCache(cache);
+        GitHubResponseCache.Stats cacheStats = cache == null ? null : cache.getStats();
+
+        ContributorsProvider contributorsProvider = task.isUseLocalGitHistory() ?
+            Contributors.getLocalContributorsProvider(
+                task.getGitWorkDir(), task.getApiUrl(), task.getRepository(), task.getReadOnlyAuthToken(), task.getGitHubCacheDir(), client) :
+            Contributors.getGitHubContributorsProvider(
+                task.getApiUrl(), task.getRepository(), task.getReadOnlyAuthToken(), task.getGitHubCacheDir(), client);
         ProjectContributorsSet contributors = contributorsProvider.getAllContributorsForProject();
 
         AllContributorsSerializer serializer = new AllContributorsSerializer();
@@ -25,5 +34,9 @@ public class FetchContributors {
         IOUtil.writeFile(task.getOutputFile(), json);
 
         LOG.lifecycle("  Serialized contributors information: {}", task.getProject().relativePath(task.getOutputFile()));
+
+        if (cache != null) {
+            LOG.lifecycle("  GitHub response cache: {}", cache.getStats().since(cacheStats));
+        }
     }
 }
@@ -16,6 +16,21 @@ public class BuildConventions {
         return outputFile(project.getRootProject(), "all-contributors.json");
     }
 
+    /**
+     * Returns directory where responses of GitHub API are cached between builds.
+     * It lives in Gradle user home so that it survives 'clean' and can be cached by CI servers.
+     */
+    public static File gitHubCacheDir(Project project) {
+        return new File(project.getGradle().getGradleUserHomeDir(), "caches/shipkit/github");
+    }
+
+    /**
+     * Returns directory where commits read from the git repository are kept between builds, see {@link #gitHubCacheDir(Project)}
+     */
+    public static File gitCacheDir(Project project) {
+        return new File(project.getGradle().getGradleUserHomeDir(), "caches/shipkit/git");
+    }
+
     /**
      * Returns file object in a standard location where we put other output files generated during the build.
      */
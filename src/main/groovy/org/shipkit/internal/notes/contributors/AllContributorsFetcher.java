@@ -2,16 +2,15 @@ package org.shipkit.internal.notes.contributors;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.json.simple.DeserializationException;
 import org.json.simple.JsonObject;
 import org.shipkit.internal.notes.model.ProjectContributor;
 import org.shipkit.internal.notes.util.Function;
 import org.shipkit.internal.notes.util.GitHubListFetcher;
 import org.shipkit.internal.notes.util.GitHubObjectFetcher;
+import org.shipkit.internal.util.GitHubClient;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Gets all contributors from the repository
@@ -21,54 +20,77 @@ class AllContributorsFetcher {
 
     private static final Logger LOG = Logging.getLogger(AllContributorsFetcher.class);
 
+    private final GitHubClient client;
+    private final GitHubUserCache userCache;
+
+    AllContributorsFetcher() {
+        this(GitHubClient.getDefault(), null);
+    }
+
+    /**
+     * @param userCache cache of user profiles, null means that every contributor is fetched from GitHub
+     */
+    AllContributorsFetcher(GitHubClient client, GitHubUserCache userCache) {
+        this.client = client;
+        this.userCache = userCache;
+    }
+
     ProjectContributorsSet fetchAllContributorsForProject(String apiUrl, String repository, String readOnlyAuthToken) {
         LOG.lifecycle("  Querying GitHub API for all contributors for project");
         ProjectContributorsSet result = new DefaultProjectContributorsSet();
 
-        try {
-            GitHubProjectContributors contributors =
-                    GitHubProjectContributors.authenticatingWith(apiUrl, repository, readOnlyAuthToken).build();
+        //Since returned contributor does not have 'name' element, we need to fetch the user data to get his name,
+        // unless the user profile is cached. Users are resolved while next pages of contributors are being fetched.
+        GitHubObjectFetcher objectFetcher = new GitHubObjectFetcher(client, readOnlyAuthToken);
+        Function<JsonObject, ProjectContributor> projectContributorFetcherFunction = new ProjectContributorFetcherFunction(objectFetcher, userCache);
+        ConcurrentPipeline<JsonObject, ProjectContributor> pipeline = new ConcurrentPipeline<JsonObject, ProjectContributor>(projectContributorFetcherFunction);
 
+        GitHubProjectContributors contributors =
+                GitHubProjectContributors.authenticatingWith(apiUrl, repository, readOnlyAuthToken).build(client);
+        try {
             while(contributors.hasNextPage()) {
-                List<JsonObject> page = contributors.nextPage();
-                result.addAllContributors(extractContributors(page, readOnlyAuthToken));
+                for (JsonObject contributor : contributors.nextPage()) {
+                    pipeline.submit(contributor);
+                }
             }
+            result.addAllContributors(pipeline.finish());
         } catch (Exception e) {
             throw new RuntimeException("Problems fetching and parsing contributors from GitHub repo: '" + repository
                     + "', using read only token: '" + readOnlyAuthToken + "'", e);
+        } finally {
+            pipeline.cancel();
+            contributors.close();
+            if (userCache != null) {
+                userCache.save();
+            }
         }
         return result;
     }
 
-    private Set<ProjectContributor> extractContributors(List<JsonObject> page, final String readOnlyAuthToken) throws IOException, DeserializationException {
-        //Since returned contributor does not have 'name' element, we need to fetch the user data to get his name
-        //TODO (maybe) add static caching of this. Names don't change that often, let's just cache this forever in build cache.
-        GitHubObjectFetcher objectFetcher = new GitHubObjectFetcher(readOnlyAuthToken);
-        Function<JsonObject, ProjectContributor> projectContributorFetcherFunction = new ProjectContributorFetcherFunction(objectFetcher);
-
-        return new ConcurrentDispatcher().dispatch(projectContributorFetcherFunction, page);
-    }
-
     private static class GitHubProjectContributors {
-        private final GitHubListFetcher fetcher;
+        private final GitHubListFetcher<JsonObject> fetcher;
         private List<JsonObject> lastFetchedPage;
 
         static GitHubProjectContributorsBuilder authenticatingWith(String apiUrl, String repository, String readOnlyAuthToken) {
             return new GitHubProjectContributorsBuilder(apiUrl, repository, readOnlyAuthToken);
         }
 
-        private GitHubProjectContributors(String nextPageUrl) {
-            fetcher = new GitHubListFetcher(nextPageUrl);
+        private GitHubProjectContributors(GitHubClient client, String nextPageUrl) {
+            fetcher = new GitHubListFetcher<JsonObject>(client, nextPageUrl, GitHubAllContributorsJson.CONTRIBUTOR_MAPPER);
         }
 
         public boolean hasNextPage() {
             return fetcher.hasNextPage();
         }
 
-        public List<JsonObject> nextPage() throws IOException, DeserializationException {
+        public List<JsonObject> nextPage() throws IOException {
             lastFetchedPage = fetcher.nextPage();
             return lastFetchedPage;
         }
+
+        public void close() {
+            fetcher.close();
+        }
     }
 
     private static class GitHubProjectContributorsBuilder {
@@ -83,12 +105,12 @@ class AllContributorsFetcher {
             this.readOnlyAuthToken = readOnlyAuthToken;
         }
 
-        GitHubProjectContributors build() {
+        GitHubProjectContributors build(GitHubClient client) {
             // see API doc: https://developer.github.com/v3/repos/#list-contributors
             String nextPageUrl = apiUrl + "/repos/" + repository + "/contributors" +
                     "?access_token=" + readOnlyAuthToken +
                     "&per_page=100";
-            return new GitHubProjectContributors(nextPageUrl);
+            return new GitHubProjectContributors(client, nextPageUrl);
         }
     }
 }
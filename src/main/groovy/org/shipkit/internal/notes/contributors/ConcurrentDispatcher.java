@@ -1,39 +1,60 @@
 package org.shipkit.internal.notes.contributors;
 
 import org.shipkit.internal.notes.util.Function;
+import org.shipkit.internal.util.SharedExecutor;
 
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 
+/**
+ * Applies the function to all items concurrently, using the executor shared by the build (see {@link SharedExecutor}).
+ * Workers take items from a lock-free queue. If any item fails, outstanding work is cancelled.
+ */
 public class ConcurrentDispatcher {
 
-    private static final int N_THREADS = 4;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public ConcurrentDispatcher() {
+        this(SharedExecutor.getDefault(), SharedExecutor.getParallelism());
+    }
+
+    ConcurrentDispatcher(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
 
     public <R,T> Set<R> dispatch(Function<T, R> function, List<T> page) {
         Set<R> result = new HashSet<R>();
-        ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
-        List<T> synchronizedPageList = Collections.synchronizedList(page);
+        if (page.isEmpty()) {
+            return result;
+        }
+        Queue<T> queue = new ConcurrentLinkedQueue<T>(page);
+        CompletionService<Set<R>> completionService = new ExecutorCompletionService<Set<R>>(executor);
 
         List<Future<Set<R>>> futures = new ArrayList<Future<Set<R>>>();
-        if (page.size() > 0) {
-            for (int i = 0; i < N_THREADS; i++) {
-                Callable<Set<R>> callable = new FetcherCallable<T, R>(synchronizedPageList, function);
-
-                futures.add(executor.submit(callable));
-            }
+        int workers = Math.min(parallelism, page.size());
+        for (int i = 0; i < workers; i++) {
+            futures.add(completionService.submit(new FetcherCallable<T, R>(queue, function)));
         }
 
-        for (Future<Set<R>> future: futures) {
-            try {
-                result.addAll(future.get());
-            } catch (Exception e) {
-                throw new RuntimeException("Error occurred while dispatching!", e);
+        try {
+            //in order of completion, so that the first failure is reported right away
+            for (int i = 0; i < workers; i++) {
+                result.addAll(completionService.take().get());
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error occurred while dispatching!", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while dispatching!", e);
+        } finally {
+            //no-op when all workers completed
+            queue.clear();
+            for (Future<Set<R>> f : futures) {
+                f.cancel(true);
             }
         }
         return result;
     }
-
 }
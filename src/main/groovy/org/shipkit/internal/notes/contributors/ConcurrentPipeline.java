@@ -0,0 +1,126 @@
+package org.shipkit.internal.notes.contributors;
+
+import org.shipkit.internal.notes.util.Function;
+import org.shipkit.internal.util.SharedExecutor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies the function to items as they are produced, concurrently, using the executor shared by the build.
+ * Unlike {@link ConcurrentDispatcher}, the producer does not need to have all items up front
+ * and does not wait until a batch of items is processed before producing more.
+ * <p>
+ * The number of pending items is bounded: {@link #submit(Object)} blocks when the consumers fall behind.
+ * Items are not bound to long running worker threads, so the executor stays available for the producer
+ * (for example, fetching the next page of data ahead, see {@link org.shipkit.internal.notes.util.GitHubListFetcher}).
+ * If any item fails, outstanding work is cancelled and the failure is reported by the next {@link #submit(Object)}
+ * or by {@link #finish()}.
+ */
+class ConcurrentPipeline<T, R> {
+
+    static final int DEFAULT_MAX_PENDING = 200;
+
+    private final Function<T, R> function;
+    private final ExecutorService executor;
+    private final Semaphore pending;
+    private final List<Future<R>> futures = new ArrayList<Future<R>>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    ConcurrentPipeline(Function<T, R> function) {
+        this(function, SharedExecutor.getDefault(), DEFAULT_MAX_PENDING);
+    }
+
+    ConcurrentPipeline(Function<T, R> function, ExecutorService executor, int maxPending) {
+        this.function = function;
+        this.executor = executor;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    /**
+     * Schedules the item, blocks if there are too many pending items
+     */
+    void submit(final T item) {
+        checkFailure();
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while dispatching!", e);
+        }
+        checkFailure();
+        FutureTask<R> task = new FutureTask<R>(new Callable<R>() {
+            public R call() {
+                try {
+                    if (failure.get() != null) {
+                        //no point doing the work, the result will be discarded
+                        return null;
+                    }
+                    return function.apply(item);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+            }
+        }) {
+            @Override
+            protected void done() {
+                //called once the item is processed, failed or cancelled, even if it was cancelled before it started
+                pending.release();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            //the task will never run
+            pending.release();
+            throw e;
+        }
+        futures.add(task);
+    }
+
+    /**
+     * Waits for all submitted items and returns the results
+     */
+    Set<R> finish() {
+        Set<R> result = new HashSet<R>();
+        try {
+            for (Future<R> f : futures) {
+                checkFailure();
+                R r = f.get();
+                if (r != null) {
+                    result.add(r);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error occurred while dispatching!", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while dispatching!", e);
+        } finally {
+            cancel();
+        }
+        return result;
+    }
+
+    /**
+     * Cancels outstanding work, no-op for completed items
+     */
+    void cancel() {
+        for (Future<R> f : futures) {
+            f.cancel(true);
+        }
+    }
+
+    private void checkFailure() {
+        Throwable t = failure.get();
+        if (t != null) {
+            cancel();
+            throw new RuntimeException("Error occurred while dispatching!", t);
+        }
+    }
+}
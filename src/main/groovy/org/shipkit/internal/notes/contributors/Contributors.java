@@ -1,5 +1,8 @@
 package org.shipkit.internal.notes.contributors;
 
+import org.shipkit.internal.exec.Exec;
+import org.shipkit.internal.util.GitHubClient;
+
 import java.io.File;
 
 /**
@@ -18,6 +21,48 @@ public class Contributors {
         return new GitHubContributorsProvider(apiUrl, repository, readOnlyAuthToken);
     }
 
+    /**
+     * Same as {@link #getGitHubContributorsProvider(String, String, String)} but user profiles
+     * (needed for contributor names) are cached between builds.
+     *
+     * @param cacheDir directory where user profiles are cached, null means no caching
+     * @param client client used for all GitHub requests, for example with the response cache of the task
+     */
+    public static GitHubContributorsProvider getGitHubContributorsProvider(String apiUrl, String repository, String readOnlyAuthToken, File cacheDir,
+                                                                           GitHubClient client) {
+        GitHubUserCache userCache = cacheDir == null ? null : GitHubUserCache.forDirectory(cacheDir, apiUrl);
+        return new GitHubContributorsProvider(apiUrl, repository, readOnlyAuthToken, userCache, client);
+    }
+
+    /**
+     * Counts contributions using local git history and asks GitHub only about commit author emails not seen before.
+     * Falls back to {@link #getGitHubContributorsProvider(String, String, String, File, GitHubClient)} when the history is not complete.
+     *
+     * @param workDir the working directory where 'git' operations will be executed
+     * @param cacheDir directory where GitHub users of commit author emails are cached, null means no caching
+     * @param client client used for all GitHub requests
+     */
+    public static ContributorsProvider getLocalContributorsProvider(File workDir, String apiUrl, String repository,
+                                                                    String readOnlyAuthToken, File cacheDir, GitHubClient client) {
+        GitHubEmailCache emailCache = cacheDir == null ? new GitHubEmailCache(null, GitHubEmailCache.DEFAULT_MAX_ENTRIES)
+                : GitHubEmailCache.forDirectory(cacheDir, apiUrl);
+        return new LocalContributorsProvider(workDir, Exec.getProcessRunner(workDir), apiUrl, repository, readOnlyAuthToken, emailCache, client,
+                getGitHubContributorsProvider(apiUrl, repository, readOnlyAuthToken, cacheDir, client));
+    }
+
+    /**
+     * Resolves GitHub users of authors of given contributions only, see {@link ReleaseContributorsProvider}.
+     *
+     * @param cacheDir directory where GitHub users of commit author emails are cached, null means no caching
+     * @param client client used for all GitHub requests
+     */
+    public static ReleaseContributorsProvider getReleaseContributorsProvider(String apiUrl, String repository,
+                                                                             String readOnlyAuthToken, File cacheDir, GitHubClient client) {
+        GitHubEmailCache emailCache = cacheDir == null ? new GitHubEmailCache(null, GitHubEmailCache.DEFAULT_MAX_ENTRIES)
+                : GitHubEmailCache.forDirectory(cacheDir, apiUrl);
+        return new ReleaseContributorsProvider(new GitHubAuthorResolver(apiUrl, repository, readOnlyAuthToken, emailCache, client));
+    }
+
     /**
      * Return Json serializer for last last contributions
      * @param contributorsFile file where last contributions are stored
@@ -3,42 +3,32 @@ package org.shipkit.internal.notes.contributors;
 import org.shipkit.internal.notes.util.Function;
 
 import java.util.HashSet;
-import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
- * Basic function which applies values from a {@link List} of {@link V} to a given {@link Function}.
+ * Basic function which applies values from a {@link Queue} of {@link V} to a given {@link Function}.
+ * The queue is shared by many workers, each worker stops when the queue is empty or the worker is cancelled.
  */
 class FetcherCallable<V, R> implements Callable<Set<R>> {
 
-    private final List<V> list;
+    private final Queue<V> queue;
     private final Function<V, R> function;
 
-    public FetcherCallable(List<V> list, Function<V, R> function) {
-        this.list = list;
+    public FetcherCallable(Queue<V> queue, Function<V, R> function) {
+        this.queue = queue;
         this.function = function;
     }
 
     @Override
     public Set<R> call() throws Exception {
         Set<R> result = new HashSet<R>();
-        V v = getFromList();
-        while (v != null) {
+        V v = queue.poll();
+        while (v != null && !Thread.currentThread().isInterrupted()) {
             result.add(function.apply(v));
-            v = getFromList();
+            v = queue.poll();
         }
         return result;
     }
-
-    private V getFromList() {
-        V v = null;
-        synchronized (list) {
-            int size = list.size();
-            if (size > 0) {
-                v = list.remove(size - 1);
-            }
-        }
-        return v;
-    }
 }
@@ -2,12 +2,24 @@ package org.shipkit.internal.notes.contributors;
 
 import org.json.simple.JsonObject;
 import org.shipkit.internal.notes.model.ProjectContributor;
+import org.shipkit.internal.notes.util.JsonMapper;
+import org.shipkit.internal.notes.util.ProjectingJsonMapper;
 
 /**
  * Provides means to parse JsonObjects returned from calling GitHub API.
  */
 public class GitHubAllContributorsJson {
 
+    /**
+     * Reads only the fields of project contribution that we use
+     */
+    static final JsonMapper<JsonObject> CONTRIBUTOR_MAPPER = new ProjectingJsonMapper("login", "url", "html_url", "contributions");
+
+    /**
+     * Reads only the fields of user that we use
+     */
+    static final JsonMapper<JsonObject> USER_MAPPER = new ProjectingJsonMapper("name", "login");
+
     /**
      * Parses GitHub JsonObject in accordance to the API
      * @param contributor Represent project contribution: https://developer.github.com/v3/repos/#list-contributors and
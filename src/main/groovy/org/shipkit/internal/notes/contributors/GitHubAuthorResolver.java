@@ -0,0 +1,84 @@
+package org.shipkit.internal.notes.contributors;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.notes.model.Contributor;
+import org.shipkit.internal.notes.util.Function;
+import org.shipkit.internal.notes.util.GitHubObjectFetcher;
+import org.shipkit.internal.util.GitHubApiException;
+import org.shipkit.internal.util.GitHubClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps commit author emails to GitHub users.
+ * For every email not seen before we look up one commit of the author: https://developer.github.com/v3/repos/commits/#get-a-single-commit
+ * Known emails are kept in {@link GitHubEmailCache}.
+ */
+class GitHubAuthorResolver {
+
+    private static final Logger LOG = Logging.getLogger(GitHubAuthorResolver.class);
+
+    private final String apiUrl;
+    private final String repository;
+    private final String readOnlyAuthToken;
+    private final GitHubEmailCache emailCache;
+    private final GitHubClient client;
+
+    GitHubAuthorResolver(String apiUrl, String repository, String readOnlyAuthToken, GitHubEmailCache emailCache, GitHubClient client) {
+        this.apiUrl = apiUrl;
+        this.repository = repository;
+        this.readOnlyAuthToken = readOnlyAuthToken;
+        this.emailCache = emailCache;
+        this.client = client;
+    }
+
+    /**
+     * Asks GitHub about emails that are not cached yet, concurrently, and saves the cache.
+     *
+     * @param commits author email -> some commit of the author, the commit needs to be pushed to GitHub
+     */
+    void resolve(final Map<String, String> commits) {
+        final Map<String, String> unknown = new HashMap<String, String>();
+        for (Map.Entry<String, String> e : commits.entrySet()) {
+            if (!emailCache.contains(e.getKey())) {
+                unknown.put(e.getKey(), e.getValue());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        LOG.lifecycle("  Querying GitHub API for {} unknown author email(s)", unknown.size());
+        final GitHubObjectFetcher objectFetcher = new GitHubObjectFetcher(client, readOnlyAuthToken);
+        try {
+            new ConcurrentDispatcher().dispatch(new Function<String, String>() {
+                public String apply(String email) {
+                    String url = apiUrl + "/repos/" + repository + "/commits/" + unknown.get(email);
+                    try {
+                        emailCache.put(email, objectFetcher.getObject(url, GitHubCommitsJSON.CONTRIBUTOR_MAPPER));
+                    } catch (GitHubApiException e) {
+                        if (e.getStatusCode() != 404 && e.getStatusCode() != 422) {
+                            throw new RuntimeException("Problems fetching commit from GitHub: " + url, e);
+                        }
+                        //commit not pushed to GitHub, we cannot tell who the author is, let's try next time
+                        LOG.info("Commit {} of {} not found in GitHub repository {}", unknown.get(email), email, repository);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Problems fetching commit from GitHub: " + url, e);
+                    }
+                    return email;
+                }
+            }, new ArrayList<String>(unknown.keySet()));
+        } finally {
+            emailCache.save();
+        }
+    }
+
+    /**
+     * GitHub user of given email, null if unknown or the email does not belong to GitHub user, see {@link #resolve(Map)}
+     */
+    Contributor get(String email) {
+        return emailCache.get(email);
+    }
+}
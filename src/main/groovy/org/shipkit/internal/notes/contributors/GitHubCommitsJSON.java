@@ -2,7 +2,10 @@ package org.shipkit.internal.notes.contributors;
 
 import org.json.simple.JsonObject;
 import org.shipkit.internal.notes.model.Contributor;
+import org.shipkit.internal.notes.util.JsonMapper;
+import org.shipkit.internal.notes.util.JsonReader;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -10,6 +13,16 @@ import java.util.Map;
  */
 public class GitHubCommitsJSON {
 
+    /**
+     * Reads commits straight from the stream, keeping only the fields used by {@link #toContributor(JsonObject)}.
+     * Returns null for commits without GitHub author.
+     */
+    static final JsonMapper<Contributor> CONTRIBUTOR_MAPPER = new JsonMapper<Contributor>() {
+        public Contributor read(JsonReader reader) throws IOException {
+            return readContributor(reader);
+        }
+    };
+
     /**
      * Parses GitHub JsonObject in accordance to the API (https://developer.github.com/v3/repos/commits)
      */
@@ -24,4 +37,60 @@ public class GitHubCommitsJSON {
             return null;
         }
     }
+
+    static Contributor readContributor(JsonReader reader) throws IOException {
+        String name = null;
+        String login = null;
+        String profileUrl = null;
+        boolean hasCommitAuthor = false;
+        boolean hasAuthor = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("commit".equals(field) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("author".equals(reader.nextName()) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                        hasCommitAuthor = true;
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if ("name".equals(reader.nextName())) {
+                                name = reader.nextStringOrNull();
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if ("author".equals(field) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                //author is null when the GitHub account does not exist anymore
+                hasAuthor = true;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String authorField = reader.nextName();
+                    if ("login".equals(authorField)) {
+                        login = reader.nextStringOrNull();
+                    } else if ("html_url".equals(authorField)) {
+                        profileUrl = reader.nextStringOrNull();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasCommitAuthor || !hasAuthor) {
+            return null;
+        }
+        return new DefaultContributor(name, login, profileUrl);
+    }
 }
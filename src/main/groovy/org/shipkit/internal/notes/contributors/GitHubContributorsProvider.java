@@ -1,6 +1,7 @@
 package org.shipkit.internal.notes.contributors;
 
 import org.shipkit.internal.notes.model.Contributor;
+import org.shipkit.internal.util.GitHubClient;
 
 import java.util.Collection;
 
@@ -9,17 +10,25 @@ public class GitHubContributorsProvider implements ContributorsProvider {
     private final String apiUrl;
     private final String repository;
     private final String readOnlyAuthToken;
+    private final GitHubUserCache userCache;
+    private final GitHubClient client;
 
     GitHubContributorsProvider(String apiUrl, String repository, String readOnlyAuthToken) {
+        this(apiUrl, repository, readOnlyAuthToken, null, GitHubClient.getDefault());
+    }
+
+    GitHubContributorsProvider(String apiUrl, String repository, String readOnlyAuthToken, GitHubUserCache userCache, GitHubClient client) {
         this.apiUrl = apiUrl;
         this.repository = repository;
         this.readOnlyAuthToken = readOnlyAuthToken;
+        this.userCache = userCache;
+        this.client = client;
     }
 
     @Override
     public ProjectContributorsSet getAllContributorsForProject() {
-        ProjectContributorsSet contributors = new AllContributorsFetcher().fetchAllContributorsForProject(apiUrl, repository, readOnlyAuthToken);
-        Collection<Contributor> recent = new RecentContributorsFetcher().fetchContributorsSinceYesterday(apiUrl, repository, readOnlyAuthToken);
+        ProjectContributorsSet contributors = new AllContributorsFetcher(client, userCache).fetchAllContributorsForProject(apiUrl, repository, readOnlyAuthToken);
+        Collection<Contributor> recent = new RecentContributorsFetcher(client).fetchContributorsSinceYesterday(apiUrl, repository, readOnlyAuthToken);
         return mergeContributors(contributors, recent);
     }
 
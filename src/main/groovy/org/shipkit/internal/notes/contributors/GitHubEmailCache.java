@@ -0,0 +1,198 @@
+package org.shipkit.internal.notes.contributors;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.json.simple.Jsoner;
+import org.shipkit.internal.notes.model.Contributor;
+import org.shipkit.internal.notes.util.FileRegistry;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.notes.util.JsonReader;
+import org.shipkit.internal.notes.util.LruMap;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent cache that maps commit author emails to GitHub users (login, profile url), see {@link GitHubAuthorResolver}.
+ * <p>
+ * Emails that don't belong to any GitHub user are cached too, so that we don't ask about them on every build.
+ * Such entries expire after some time because the user may add the email to GitHub account later.
+ * The number of entries is bounded, least recently used entries are dropped first.
+ * Without the file (null) the cache is only kept in memory.
+ */
+class GitHubEmailCache {
+
+    private static final Logger LOG = Logging.getLogger(GitHubEmailCache.class);
+
+    static final long UNKNOWN_EMAIL_TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+    static final int DEFAULT_MAX_ENTRIES = 20000;
+
+    private static final FileRegistry<GitHubEmailCache> INSTANCES = new FileRegistry<GitHubEmailCache>() {
+        protected GitHubEmailCache create(File file) {
+            return new GitHubEmailCache(file, DEFAULT_MAX_ENTRIES);
+        }
+    };
+
+    private final File file;
+    //email -> user
+    private final Map<String, User> users;
+    private boolean loaded;
+    private boolean modified;
+
+    GitHubEmailCache(File file, int maxEntries) {
+        this.file = file;
+        this.users = new LruMap<String, User>(maxEntries);
+    }
+
+    /**
+     * Returns the cache of given GitHub instance, kept in given cache directory.
+     * The instances are shared so that all tasks in the build operate on the same cache.
+     */
+    static GitHubEmailCache forDirectory(File cacheDir, String apiUrl) {
+        return INSTANCES.get(new File(cacheDir, "emails/" + IOUtil.toFileName(apiUrl) + ".json"));
+    }
+
+    /**
+     * True if we know whether the email belongs to GitHub user, see {@link #get(String)}
+     */
+    synchronized boolean contains(String email) {
+        load();
+        User u = users.get(email);
+        return u != null && (u.login != null || now() - u.checkedAt <= UNKNOWN_EMAIL_TTL_MILLIS);
+    }
+
+    /**
+     * GitHub user of given email, null if the email is not cached or does not belong to GitHub user.
+     * Returned contributor has no name, names come from commits.
+     */
+    synchronized Contributor get(String email) {
+        load();
+        User u = users.get(email);
+        if (u == null || u.login == null) {
+            return null;
+        }
+        return new DefaultContributor(null, u.login, u.profileUrl);
+    }
+
+    /**
+     * Caches GitHub user of given email. Null user means that the email does not belong to any GitHub user.
+     */
+    synchronized void put(String email, Contributor user) {
+        load();
+        users.put(email, user == null ? new User(null, null, now()) : new User(user.getLogin(), user.getProfileUrl(), now()));
+        modified = true;
+    }
+
+    /**
+     * Writes the cache to disk if it was modified
+     */
+    synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        modified = false;
+        if (file == null) {
+            return;
+        }
+        StringBuilder json = new StringBuilder("{\"emails\": [");
+        String separator = "\n";
+        for (Map.Entry<String, User> e : users.entrySet()) {
+            User u = e.getValue();
+            json.append(separator).append("{\"email\": \"").append(Jsoner.escape(e.getKey())).append("\"");
+            if (u.login != null) {
+                json.append(", \"login\": \"").append(Jsoner.escape(u.login)).append("\"");
+            }
+            if (u.profileUrl != null) {
+                json.append(", \"profileUrl\": \"").append(Jsoner.escape(u.profileUrl)).append("\"");
+            }
+            json.append(", \"checkedAt\": ").append(u.checkedAt).append("}");
+            separator = ",\n";
+        }
+        json.append("\n]}\n");
+
+        try {
+            IOUtil.writeAtomically(file, json.toString());
+        } catch (IOException e) {
+            LOG.info("Unable to write GitHub email cache to " + file, e);
+        }
+    }
+
+    /**
+     * Current time, can be overridden in tests
+     */
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new BufferedInputStream(new FileInputStream(file)));
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("emails".equals(reader.nextName())) {
+                    readUsers(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException e) {
+            //we will ask GitHub again and rewrite the cache
+            LOG.info("Unable to read GitHub email cache from " + file + ", problem: " + e.getMessage(), e);
+            users.clear();
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    private void readUsers(JsonReader reader) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String email = null;
+            String login = null;
+            String profileUrl = null;
+            long checkedAt = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if ("email".equals(field)) {
+                    email = reader.nextStringOrNull();
+                } else if ("login".equals(field)) {
+                    login = reader.nextStringOrNull();
+                } else if ("profileUrl".equals(field)) {
+                    profileUrl = reader.nextStringOrNull();
+                } else if ("checkedAt".equals(field)) {
+                    checkedAt = reader.nextLong();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (email != null) {
+                users.put(email, new User(login, profileUrl, checkedAt));
+            }
+        }
+        reader.endArray();
+    }
+
+    private static class User {
+        private final String login;
+        private final String profileUrl;
+        private final long checkedAt;
+
+        User(String login, String profileUrl, long checkedAt) {
+            this.login = login;
+            this.profileUrl = profileUrl;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
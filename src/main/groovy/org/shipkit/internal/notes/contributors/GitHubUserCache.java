@@ -0,0 +1,191 @@
+package org.shipkit.internal.notes.contributors;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.json.simple.JsonObject;
+import org.json.simple.Jsoner;
+import org.shipkit.internal.notes.util.FileRegistry;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.notes.util.JsonReader;
+import org.shipkit.internal.notes.util.LruMap;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent cache of GitHub user profiles (login -> name), so that we don't need to ask GitHub about every contributor on every build.
+ * <p>
+ * Names don't change often but they do change, hence entries expire after some time.
+ * Each entry expires a bit later than the time to live, depending on the login,
+ * so that profiles cached at the same time are not all refreshed by the same build.
+ * The number of entries is bounded, least recently used entries are dropped first.
+ */
+class GitHubUserCache {
+
+    private static final Logger LOG = Logging.getLogger(GitHubUserCache.class);
+
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.DAYS.toMillis(14);
+    static final int DEFAULT_MAX_ENTRIES = 5000;
+
+    private static final FileRegistry<GitHubUserCache> INSTANCES = new FileRegistry<GitHubUserCache>() {
+        protected GitHubUserCache create(File file) {
+            return new GitHubUserCache(file, DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+        }
+    };
+
+    private final File file;
+    private final long ttlMillis;
+    //login -> profile
+    private final Map<String, Profile> profiles;
+    private boolean loaded;
+    private boolean modified;
+
+    GitHubUserCache(File file, long ttlMillis, int maxEntries) {
+        this.file = file;
+        this.ttlMillis = ttlMillis;
+        this.profiles = new LruMap<String, Profile>(maxEntries);
+    }
+
+    /**
+     * Returns the cache of user profiles of given GitHub instance, kept in given cache directory.
+     * The instances are shared so that all tasks in the build operate on the same cache.
+     */
+    static GitHubUserCache forDirectory(File cacheDir, String apiUrl) {
+        return INSTANCES.get(new File(cacheDir, "users/" + IOUtil.toFileName(apiUrl) + ".json"));
+    }
+
+    /**
+     * Returns cached user with "login" and "name" fields, same as {@link GitHubAllContributorsJson#USER_MAPPER} reads.
+     * Returns null if the user is not cached or the entry has expired.
+     */
+    synchronized JsonObject get(String login) {
+        load();
+        Profile p = profiles.get(login);
+        if (p == null || isExpired(login, p)) {
+            return null;
+        }
+        JsonObject user = new JsonObject();
+        user.put("login", login);
+        user.put("name", p.name);
+        return user;
+    }
+
+    /**
+     * Caches the user fetched from GitHub, see {@link #get(String)}
+     */
+    synchronized void put(JsonObject user) {
+        String login = user.getString("login");
+        if (login == null) {
+            return;
+        }
+        load();
+        profiles.put(login, new Profile(user.getString("name"), now()));
+        modified = true;
+    }
+
+    /**
+     * Writes the cache to disk if it was modified
+     */
+    synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        modified = false;
+        StringBuilder json = new StringBuilder("{\"users\": [");
+        String separator = "\n";
+        for (Map.Entry<String, Profile> e : profiles.entrySet()) {
+            json.append(separator).append("{\"login\": \"").append(Jsoner.escape(e.getKey())).append("\", \"name\": ");
+            Profile p = e.getValue();
+            json.append(p.name == null ? "null" : "\"" + Jsoner.escape(p.name) + "\"");
+            json.append(", \"fetchedAt\": ").append(p.fetchedAt).append("}");
+            separator = ",\n";
+        }
+        json.append("\n]}\n");
+
+        try {
+            IOUtil.writeAtomically(file, json.toString());
+        } catch (IOException e) {
+            LOG.info("Unable to write GitHub user profile cache to " + file, e);
+        }
+    }
+
+    /**
+     * Current time, can be overridden in tests
+     */
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private boolean isExpired(String login, Profile p) {
+        //up to 50% longer, stable for given login
+        long jitter = (login.hashCode() & Integer.MAX_VALUE) % 50 * ttlMillis / 100;
+        return now() - p.fetchedAt > ttlMillis + jitter;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.isFile()) {
+            return;
+        }
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new BufferedInputStream(new FileInputStream(file)));
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("users".equals(reader.nextName())) {
+                    readProfiles(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException e) {
+            //we will fetch users again and rewrite the cache
+            LOG.info("Unable to read GitHub user profile cache from " + file + ", problem: " + e.getMessage(), e);
+            profiles.clear();
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    private void readProfiles(JsonReader reader) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String login = null;
+            String name = null;
+            long fetchedAt = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if ("login".equals(field)) {
+                    login = reader.nextStringOrNull();
+                } else if ("name".equals(field)) {
+                    name = reader.nextStringOrNull();
+                } else if ("fetchedAt".equals(field)) {
+                    fetchedAt = reader.nextLong();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (login != null) {
+                profiles.put(login, new Profile(name, fetchedAt));
+            }
+        }
+        reader.endArray();
+    }
+
+    private static class Profile {
+        private final String name;
+        private final long fetchedAt;
+
+        Profile(String name, long fetchedAt) {
+            this.name = name;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.shipkit.internal.notes.contributors;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.exec.ProcessRunner;
+import org.shipkit.internal.notes.model.Contributor;
+import org.shipkit.internal.util.GitHubClient;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Counts contributions of all project contributors using the local git history, like 'git shortlog -sne' does.
+ * Mailmap is honored, so that different identities of the same person are merged.
+ * <p>
+ * GitHub is only asked to map commit author emails we have not seen before to GitHub users, see {@link GitHubAuthorResolver}.
+ * Authors whose emails don't belong to any GitHub user are not included, consistently with GitHub contributors endpoint.
+ * <p>
+ * Shallow clone does not have the full history, in such case contributors are fetched from GitHub API.
+ */
+class LocalContributorsProvider implements ContributorsProvider {
+
+    private static final Logger LOG = Logging.getLogger(LocalContributorsProvider.class);
+
+    private final File workDir;
+    private final ProcessRunner runner;
+    private final GitHubAuthorResolver resolver;
+    private final ContributorsProvider fallback;
+
+    LocalContributorsProvider(File workDir, ProcessRunner runner, String apiUrl, String repository, String readOnlyAuthToken,
+                              GitHubEmailCache emailCache, GitHubClient client, ContributorsProvider fallback) {
+        this.workDir = workDir;
+        this.runner = runner;
+        this.resolver = new GitHubAuthorResolver(apiUrl, repository, readOnlyAuthToken, emailCache, client);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ProjectContributorsSet getAllContributorsForProject() {
+        if (isShallowClone()) {
+            LOG.lifecycle("  Local git history is not complete (shallow clone), querying GitHub API for contributors instead");
+            return fallback.getAllContributorsForProject();
+        }
+
+        Collection<Author> authors = readAuthors();
+        resolveUnknownEmails(authors);
+        return toContributors(authors);
+    }
+
+    private boolean isShallowClone() {
+        File gitDir = new File(runner.run("git", "rev-parse", "--git-dir").trim());
+        if (!gitDir.isAbsolute()) {
+            gitDir = new File(workDir, gitDir.getPath());
+        }
+        return new File(gitDir, "shallow").isFile();
+    }
+
+    /**
+     * Commit authors by email, with number of commits
+     */
+    Collection<Author> readAuthors() {
+        String infoToken = "@@info@@";
+        // %H: commit hash
+        // %aE: author email, respecting mailmap
+        // %aN: author name, respecting mailmap
+        String log = runner.run("git", "log", "--pretty=format:%H" + infoToken + "%aE" + infoToken + "%aN", "HEAD");
+
+        Map<String, Author> authors = new LinkedHashMap<String, Author>();
+        for (String line : log.split("\n")) {
+            String[] parts = line.split(infoToken);
+            if (parts.length != 3) {
+                continue;
+            }
+            String email = parts[1].trim().toLowerCase(Locale.ENGLISH);
+            Author a = authors.get(email);
+            if (a == null) {
+                //log starts with the newest commit, so we use the most recent name of the author
+                a = new Author(email, parts[2].trim());
+                authors.put(email, a);
+            }
+            a.commits++;
+            //the oldest commit is the most likely to be present in GitHub repo
+            a.someCommit = parts[0].trim();
+        }
+        LOG.lifecycle("  Counted commits of {} author(s) in local git history", authors.size());
+        return authors.values();
+    }
+
+    private void resolveUnknownEmails(Collection<Author> authors) {
+        Map<String, String> commits = new HashMap<String, String>();
+        for (Author a : authors) {
+            commits.put(a.email, a.someCommit);
+        }
+        resolver.resolve(commits);
+    }
+
+    /**
+     * Merges authors by GitHub login, the name is taken from the identity with most commits
+     */
+    private ProjectContributorsSet toContributors(Collection<Author> authors) {
+        Map<String, Author> byLogin = new LinkedHashMap<String, Author>();
+        Map<String, Integer> commits = new HashMap<String, Integer>();
+        int withoutLogin = 0;
+        for (Author a : authors) {
+            Contributor user = resolver.get(a.email);
+            if (user == null) {
+                withoutLogin++;
+                continue;
+            }
+            a.login = user.getLogin();
+            a.profileUrl = user.getProfileUrl();
+            Author main = byLogin.get(a.login);
+            if (main == null || main.commits < a.commits) {
+                byLogin.put(a.login, a);
+            }
+            Integer count = commits.get(a.login);
+            commits.put(a.login, (count == null ? 0 : count) + a.commits);
+        }
+        if (withoutLogin > 0) {
+            LOG.info("Skipped {} commit author(s) without GitHub account", withoutLogin);
+        }
+
+        ProjectContributorsSet result = new DefaultProjectContributorsSet();
+        for (Author a : byLogin.values()) {
+            result.addContributor(new DefaultProjectContributor(a.name, a.login, a.profileUrl, commits.get(a.login)));
+        }
+        return result;
+    }
+
+    static class Author {
+        final String email;
+        final String name;
+        int commits;
+        String someCommit;
+        String login;
+        String profileUrl;
+
+        Author(String email, String name) {
+            this.email = email;
+            this.name = name;
+        }
+    }
+}
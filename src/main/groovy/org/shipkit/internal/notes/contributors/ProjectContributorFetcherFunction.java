@@ -7,26 +7,44 @@ import org.shipkit.internal.notes.util.GitHubObjectFetcher;
 
 /**
  * Extracts the url form a given {@link JsonObject} and fetches the {@link ProjectContributor} info using the extracted
- * url.
+ * url. Users found in the {@link GitHubUserCache} are not fetched.
  */
 class ProjectContributorFetcherFunction implements Function<JsonObject, ProjectContributor> {
 
     private final GitHubObjectFetcher objectFetcher;
+    private final GitHubUserCache userCache;
 
     public ProjectContributorFetcherFunction(GitHubObjectFetcher objectFetcher) {
+        this(objectFetcher, null);
+    }
+
+    /**
+     * @param userCache cache of user profiles, null means that every user is fetched
+     */
+    ProjectContributorFetcherFunction(GitHubObjectFetcher objectFetcher, GitHubUserCache userCache) {
         this.objectFetcher = objectFetcher;
+        this.userCache = userCache;
     }
 
     @Override
     public ProjectContributor apply(JsonObject contributor) {
-        String url = (String) contributor.get("url");
-        JsonObject user;
+        String login = (String) contributor.get("login");
+        JsonObject user = userCache != null && login != null ? userCache.get(login) : null;
+        if (user == null) {
+            user = fetchUser((String) contributor.get("url"));
+            if (userCache != null) {
+                userCache.put(user);
+            }
+        }
+
+        return GitHubAllContributorsJson.toContributor(contributor, user);
+    }
+
+    private JsonObject fetchUser(String url) {
         try {
-            user = objectFetcher.getPage(url);
+            return objectFetcher.getObject(url, GitHubAllContributorsJson.USER_MAPPER);
         } catch (Exception e) {
             throw new RuntimeException("Error occurred while fetching contributor using " + url + "!", e);
         }
-
-        return GitHubAllContributorsJson.toContributor(contributor, user);
     }
 }
@@ -2,10 +2,9 @@ package org.shipkit.internal.notes.contributors;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.json.simple.DeserializationException;
-import org.json.simple.JsonObject;
 import org.shipkit.internal.notes.model.Contributor;
 import org.shipkit.internal.notes.util.GitHubListFetcher;
+import org.shipkit.internal.util.GitHubClient;
 
 import java.io.IOException;
 import java.util.*;
@@ -24,6 +23,16 @@ class RecentContributorsFetcher {
 
     private static final Logger LOG = Logging.getLogger(RecentContributorsFetcher.class);
 
+    private final GitHubClient client;
+
+    RecentContributorsFetcher() {
+        this(GitHubClient.getDefault());
+    }
+
+    RecentContributorsFetcher(GitHubClient client) {
+        this.client = client;
+    }
+
     /**
      * Contributors that pushed commits to the repo withing the last 24hrs
      */
@@ -40,51 +49,50 @@ class RecentContributorsFetcher {
         LOG.info("Querying GitHub API for commits (for contributors)");
         Set<Contributor> contributors = new LinkedHashSet<Contributor>();
 
+        GitHubCommits commits = GitHubCommits
+                .with(apiUrl, repository, readOnlyAuthToken, dateSince, dateUntil)
+                .build(client);
         try {
-            GitHubCommits commits = GitHubCommits
-                    .with(apiUrl, repository, readOnlyAuthToken, dateSince, dateUntil)
-                    .build();
-
             while(commits.hasNextPage()) {
-                List<JsonObject> page = commits.nextPage();
+                List<Contributor> page = commits.nextPage();
                 contributors.addAll(extractContributors(page));
             }
         } catch (Exception e) {
             throw new RuntimeException("Problems fetching commits from GitHub", e);
+        } finally {
+            commits.close();
         }
 
         return contributors;
     }
 
-    private Set<Contributor> extractContributors(List<JsonObject> commits) {
-        Set<Contributor> result = new HashSet<Contributor>();
-        for (JsonObject commit : commits) {
-            Contributor contributor = GitHubCommitsJSON.toContributor(commit);
-            if(contributor != null) {
-                result.add(contributor);
-            }
-        }
-        return result;
+    private Set<Contributor> extractContributors(List<Contributor> commitAuthors) {
+        //commits without GitHub author are already filtered out by the mapper
+        return new HashSet<Contributor>(commitAuthors);
     }
 
     private static class GitHubCommits {
 
-        private final GitHubListFetcher fetcher;
-        private List<JsonObject> lastFetchedPage;
+        private final GitHubListFetcher<Contributor> fetcher;
+        private List<Contributor> lastFetchedPage;
 
-        private GitHubCommits(String nextPageUrl) {
-            fetcher = new GitHubListFetcher(nextPageUrl);
+        private GitHubCommits(GitHubClient client, String nextPageUrl) {
+            fetcher = new GitHubListFetcher<Contributor>(client, nextPageUrl, GitHubCommitsJSON.CONTRIBUTOR_MAPPER);
         }
 
         boolean hasNextPage() {
             return fetcher.hasNextPage();
         }
 
-        List<JsonObject> nextPage() throws IOException, DeserializationException {
+        List<Contributor> nextPage() throws IOException {
             lastFetchedPage = fetcher.nextPage();
             return lastFetchedPage;
         }
 
+        void close() {
+            fetcher.close();
+        }
+
         static GitHubCommitsBuilder with(String apiUrl, String repository, String readOnlyAuthToken, Date dateSince, Date dateUntil) {
             return new GitHubCommitsBuilder(apiUrl, repository, readOnlyAuthToken, dateSince, dateUntil);
         }
@@ -105,14 +113,14 @@ class RecentContributorsFetcher {
                 this.dateUntil = dateUntil;
             }
 
-            GitHubCommits build() {
+            GitHubCommits build(GitHubClient client) {
                 // see API doc: https://developer.github.com/v3/repos/commits/#list-commits-on-a-repository
                 String nextPageUrl = apiUrl + "/repos/" + repository + "/commits"
                         + "?access_token=" + readOnlyAuthToken
                         + "&since=" + forGitHub(dateSince)
                         + ((dateUntil != null)? "&until=" + forGitHub(dateUntil) : "")
                         + "&page=1&per_page=100";
-                return new GitHubCommits(nextPageUrl);
+                return new GitHubCommits(client, nextPageUrl);
             }
         }
     }
@@ -0,0 +1,63 @@
+package org.shipkit.internal.notes.contributors;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.notes.model.Commit;
+import org.shipkit.internal.notes.model.ContributionSet;
+import org.shipkit.internal.notes.model.Contributor;
+
+import java.util.*;
+
+/**
+ * Resolves GitHub users of authors of given contributions only, for example, the versions we generate release notes for.
+ * This is much cheaper than fetching all contributors of the project ({@link ContributorsProvider}),
+ * which is only needed when all contributors are listed, like in the pom file.
+ * <p>
+ * Returned contributors are named like the commit authors, so that the release notes can link the authors to GitHub profiles.
+ * Number of contributions is the number of commits in given contributions.
+ */
+public class ReleaseContributorsProvider {
+
+    private static final Logger LOG = Logging.getLogger(ReleaseContributorsProvider.class);
+
+    private final GitHubAuthorResolver resolver;
+
+    ReleaseContributorsProvider(GitHubAuthorResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    public ProjectContributorsSet getContributors(Collection<ContributionSet> contributions) {
+        //author email -> commit, commits are listed from the newest, the oldest is the most likely to be present in GitHub repo
+        Map<String, String> commits = new HashMap<String, String>();
+        //author email -> name -> number of commits
+        Map<String, Map<String, Integer>> names = new LinkedHashMap<String, Map<String, Integer>>();
+        for (ContributionSet set : contributions) {
+            for (Commit c : set.getAllCommits()) {
+                String email = c.getAuthorEmail().trim().toLowerCase(Locale.ENGLISH);
+                commits.put(email, c.getCommitId());
+                Map<String, Integer> counts = names.get(email);
+                if (counts == null) {
+                    counts = new LinkedHashMap<String, Integer>();
+                    names.put(email, counts);
+                }
+                Integer count = counts.get(c.getAuthorName());
+                counts.put(c.getAuthorName(), (count == null ? 0 : count) + 1);
+            }
+        }
+        LOG.lifecycle("  Resolving GitHub users of {} author(s) of released commits", commits.size());
+        resolver.resolve(commits);
+
+        ProjectContributorsSet result = new DefaultProjectContributorsSet();
+        for (Map.Entry<String, Map<String, Integer>> e : names.entrySet()) {
+            Contributor user = resolver.get(e.getKey());
+            if (user == null) {
+                continue;
+            }
+            //release notes look up contributors by the author name, every name of given author needs to be present
+            for (Map.Entry<String, Integer> name : e.getValue().entrySet()) {
+                result.addContributor(new DefaultProjectContributor(name.getKey(), user.getLogin(), user.getProfileUrl(), name.getValue()));
+            }
+        }
+        return result;
+    }
+}
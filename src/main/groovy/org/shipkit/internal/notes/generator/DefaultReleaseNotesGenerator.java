@@ -12,10 +12,7 @@ import org.shipkit.internal.notes.vcs.ContributionsProvider;
 import org.shipkit.internal.notes.vcs.ReleasedVersion;
 import org.shipkit.internal.notes.vcs.ReleasedVersionsProvider;
 
-import java.util.Collection;
-import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 class DefaultReleaseNotesGenerator implements ReleaseNotesGenerator {
 
@@ -47,14 +44,34 @@ class DefaultReleaseNotesGenerator implements ReleaseNotesGenerator {
 
         Collection<ReleasedVersion> versions = releasedVersionsProvider.getReleasedVersions(headVersion, new Date(), targetVersions, tagPrefix);
 
+        //contributions of all versions first, so that referenced tickets are resolved in one go
+        List<ReleasedVersion> included = new ArrayList<ReleasedVersion>();
         for (ReleasedVersion v : versions) {
             if (versions.size() > 1 && v.getPreviousRev() == null) {
                 continue;
             }
-            ContributionSet contributions = contributionsProvider.getContributionsBetween(v.getPreviousRev(), v.getRev());
+            included.add(v);
+        }
+        List<ContributionSet> contributionSets = getContributions(included);
+
+        Map<ReleasedVersion, ContributionSet> contributionsByVersion = new LinkedHashMap<ReleasedVersion, ContributionSet>();
+        Set<String> allTickets = new LinkedHashSet<String>();
+        for (int i = 0; i < included.size(); i++) {
+            ReleasedVersion v = included.get(i);
+            ContributionSet contributions = contributionSets.get(i);
             LOG.lifecycle("Retrieved " + contributions.getContributions().size() + " contribution(s) between " + v.getPreviousRev() + ".." + v.getRev());
+            contributionsByVersion.put(v, contributions);
+            allTickets.addAll(contributions.getAllTickets());
+        }
 
-            Collection<Improvement> improvements = improvementsProvider.getImprovements(contributions, gitHubLabels, onlyPullRequests);
+        Collection<Improvement> allImprovements = allTickets.isEmpty() ? Collections.<Improvement>emptyList()
+                : improvementsProvider.getImprovements(allTickets, gitHubLabels, onlyPullRequests);
+
+        for (Map.Entry<ReleasedVersion, ContributionSet> e : contributionsByVersion.entrySet()) {
+            ReleasedVersion v = e.getKey();
+            ContributionSet contributions = e.getValue();
+
+            Collection<Improvement> improvements = improvementsFor(contributions.getAllTickets(), allImprovements);
             LOG.lifecycle("Retrieved " + improvements.size() + " improvement(s) for tickets: " + contributions.getAllTickets());
 
             out.add(new DefaultReleaseNotesData(v.getVersion(), v.getDate(), contributions, improvements, v.getPreviousRev(), v.getRev()));
@@ -62,4 +79,51 @@ class DefaultReleaseNotesGenerator implements ReleaseNotesGenerator {
 
         return out;
     }
+
+    /**
+     * Contributions of given versions, in the same order.
+     * When every version starts where the next one ends, like tags of consecutive releases,
+     * the history is read once for all versions.
+     */
+    private List<ContributionSet> getContributions(List<ReleasedVersion> versions) {
+        if (isConsecutive(versions)) {
+            List<String> revisions = new ArrayList<String>();
+            for (ReleasedVersion v : versions) {
+                revisions.add(v.getRev());
+            }
+            revisions.add(versions.get(versions.size() - 1).getPreviousRev());
+            return contributionsProvider.getContributionsBetween(revisions);
+        }
+        List<ContributionSet> result = new ArrayList<ContributionSet>();
+        for (ReleasedVersion v : versions) {
+            result.add(contributionsProvider.getContributionsBetween(v.getPreviousRev(), v.getRev()));
+        }
+        return result;
+    }
+
+    private static boolean isConsecutive(List<ReleasedVersion> versions) {
+        for (int i = 1; i < versions.size(); i++) {
+            if (!versions.get(i).getRev().equals(versions.get(i - 1).getPreviousRev())) {
+                return false;
+            }
+        }
+        return !versions.isEmpty();
+    }
+
+    /**
+     * Improvements referenced by given tickets, in the order returned by the improvements provider
+     */
+    private static Collection<Improvement> improvementsFor(Collection<String> tickets, Collection<Improvement> allImprovements) {
+        Set<Long> ids = new HashSet<Long>();
+        for (String ticket : tickets) {
+            ids.add(Long.parseLong(ticket));
+        }
+        List<Improvement> out = new LinkedList<Improvement>();
+        for (Improvement i : allImprovements) {
+            if (ids.contains(i.getId())) {
+                out.add(i);
+            }
+        }
+        return out;
+    }
 }
@@ -11,6 +11,7 @@ import org.shipkit.internal.notes.util.Predicate;
 import org.shipkit.internal.notes.vcs.ContributionsProvider;
 import org.shipkit.internal.notes.vcs.ReleasedVersionsProvider;
 import org.shipkit.internal.notes.vcs.Vcs;
+import org.shipkit.internal.util.GitHubClient;
 
 import java.io.File;
 
@@ -24,11 +25,38 @@ public class ReleaseNotesGenerators {
      * @param ignoredCommit responsible decide if commits should not be included in release notes
      */
     public static ReleaseNotesGenerator releaseNotesGenerator(File workDir, String gitHubApiUrl, String gitHubRepository, String readOnlyAuthToken, Predicate<Commit> ignoredCommit) {
+        return releaseNotesGenerator(workDir, gitHubApiUrl, gitHubRepository, readOnlyAuthToken, ignoredCommit, null);
+    }
+
+    /**
+     * Same as {@link #releaseNotesGenerator(File, String, String, String, Predicate)}
+     * but keeps GitHub data that rarely changes (issues, user profiles) between builds.
+     *
+     * @param gitHubCacheDir directory where GitHub data is cached between builds, null means no caching
+     */
+    public static ReleaseNotesGenerator releaseNotesGenerator(File workDir, String gitHubApiUrl, String gitHubRepository, String readOnlyAuthToken,
+                                                              Predicate<Commit> ignoredCommit, File gitHubCacheDir) {
+        return releaseNotesGenerator(workDir, gitHubApiUrl, gitHubRepository, readOnlyAuthToken, ignoredCommit, gitHubCacheDir, null,
+                GitHubClient.getDefault());
+    }
+
+    /**
+     * Same as {@link #releaseNotesGenerator(File, String, String, String, Predicate, File)}
+     * but also keeps commits that were read from the repository between builds.
+     *
+     * @param gitCacheDir directory where commits are kept between builds, null means no caching
+     * @param gitHubClient client used for all GitHub requests, for example with the response cache of the task
+     */
+    public static ReleaseNotesGenerator releaseNotesGenerator(File workDir, String gitHubApiUrl, String gitHubRepository, String readOnlyAuthToken,
+                                                              Predicate<Commit> ignoredCommit, File gitHubCacheDir, File gitCacheDir,
+                                                              GitHubClient gitHubClient) {
         ProcessRunner processRunner = Exec.getProcessRunner(workDir);
-        ContributionsProvider contributionsProvider = Vcs.getContributionsProvider(processRunner, ignoredCommit);
-        ImprovementsProvider improvementsProvider = Improvements.getGitHubProvider(gitHubApiUrl, gitHubRepository, readOnlyAuthToken);
+        ContributionsProvider contributionsProvider = Vcs.getContributionsProvider(processRunner, workDir, ignoredCommit, gitCacheDir, gitHubRepository);
+        ImprovementsProvider improvementsProvider = Improvements.getGitHubProvider(gitHubApiUrl, gitHubRepository, readOnlyAuthToken, gitHubCacheDir,
+                gitHubClient);
         ReleasedVersionsProvider releasedVersionsProvider = Vcs.getReleaseDateProvider(processRunner);
-        GitHubContributorsProvider contributorsProvider = Contributors.getGitHubContributorsProvider(gitHubApiUrl, gitHubRepository, readOnlyAuthToken);
+        GitHubContributorsProvider contributorsProvider = Contributors.getGitHubContributorsProvider(gitHubApiUrl, gitHubRepository, readOnlyAuthToken, gitHubCacheDir,
+                gitHubClient);
         return new DefaultReleaseNotesGenerator(contributionsProvider, improvementsProvider, releasedVersionsProvider,
                 contributorsProvider);
     }
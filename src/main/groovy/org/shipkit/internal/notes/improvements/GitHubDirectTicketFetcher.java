@@ -0,0 +1,70 @@
+package org.shipkit.internal.notes.improvements;
+
+import org.shipkit.internal.notes.contributors.ConcurrentDispatcher;
+import org.shipkit.internal.notes.model.Improvement;
+import org.shipkit.internal.notes.util.Function;
+import org.shipkit.internal.notes.util.GitHubObjectFetcher;
+import org.shipkit.internal.util.GitHubApiException;
+import org.shipkit.internal.util.GitHubClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Fetches each referenced ticket with a separate request, concurrently: GET /repos/{repo}/issues/{number}.
+ * Meant for small number of tickets, typical for continuous delivery releases.
+ * Unchanged tickets are served from the response cache (conditional requests), if it is configured.
+ */
+class GitHubDirectTicketFetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitHubDirectTicketFetcher.class);
+
+    private final GitHubClient client;
+
+    GitHubDirectTicketFetcher() {
+        this(GitHubClient.getDefault());
+    }
+
+    GitHubDirectTicketFetcher(GitHubClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Same contract as {@link GitHubTicketFetcher#fetchTickets(String, String, String, Collection, Collection, boolean)}:
+     * only closed tickets are returned, that have all given labels. Tickets that don't exist are ignored.
+     * Improvements are ordered by id, newest first.
+     */
+    List<Improvement> fetchTickets(final String apiUrl, final String repository, String readOnlyAuthToken, Collection<String> ticketIds,
+                                   Collection<String> labels, boolean onlyPullRequests) {
+        LOG.info("Querying GitHub API for each of {} tickets", ticketIds.size());
+        final GitHubObjectFetcher objectFetcher = new GitHubObjectFetcher(client, readOnlyAuthToken);
+
+        Set<Improvement> fetched = new ConcurrentDispatcher().dispatch(new Function<String, Improvement>() {
+            public Improvement apply(String ticketId) {
+                String url = apiUrl + "/repos/" + repository + "/issues/" + ticketId;
+                try {
+                    return objectFetcher.getObject(url, GitHubImprovementsJSON.CLOSED_IMPROVEMENT_MAPPER);
+                } catch (GitHubApiException e) {
+                    if (e.getStatusCode() == 404 || e.getStatusCode() == 410) {
+                        //missing or deleted ticket, the scan of closed issues would not find it either
+                        LOG.info("Ticket {} not found in {}", ticketId, repository);
+                        return null;
+                    }
+                    throw new RuntimeException("Problems fetching ticket " + ticketId + " from GitHub", e);
+                } catch (Exception e) {
+                    throw new RuntimeException("Problems fetching ticket " + ticketId + " from GitHub", e);
+                }
+            }
+        }, new ArrayList<String>(new LinkedHashSet<String>(ticketIds)));
+
+        List<Improvement> out = new ArrayList<Improvement>();
+        for (Improvement i : fetched) {
+            if (i != null && GitHubTicketFetcher.isWanted(i, labels, onlyPullRequests)) {
+                out.add(i);
+            }
+        }
+        GitHubTicketFetcher.sortNewestFirst(out);
+        return out;
+    }
+}
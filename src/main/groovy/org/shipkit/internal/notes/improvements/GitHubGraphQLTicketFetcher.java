@@ -0,0 +1,258 @@
+package org.shipkit.internal.notes.improvements;
+
+import org.json.simple.JsonObject;
+import org.shipkit.internal.notes.internal.DefaultImprovement;
+import org.shipkit.internal.notes.model.Improvement;
+import org.shipkit.internal.notes.util.JsonReader;
+import org.shipkit.internal.util.GitHubClient;
+import org.shipkit.internal.util.GitHubResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Fetches referenced issues and pull requests by number, using GitHub GraphQL API (https://developer.github.com/v4/).
+ * Up to 100 tickets are resolved with a single request, using aliased 'issueOrPullRequest' queries.
+ * This way the cost depends on the number of referenced tickets, not on the number of issues in the repository.
+ */
+class GitHubGraphQLTicketFetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitHubGraphQLTicketFetcher.class);
+
+    static final int MAX_TICKETS_PER_REQUEST = 100;
+
+    private static final String FRAGMENTS =
+            "fragment issue on Issue { number title url state labels(first: 100) { nodes { name } } } " +
+            "fragment pr on PullRequest { number title url state labels(first: 100) { nodes { name } } }";
+
+    private final GitHubClient client;
+
+    GitHubGraphQLTicketFetcher() {
+        this(GitHubClient.getDefault());
+    }
+
+    GitHubGraphQLTicketFetcher(GitHubClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Same contract as {@link GitHubTicketFetcher#fetchTickets(String, String, String, Collection, Collection, boolean)}:
+     * only closed tickets are returned, that have all given labels. Tickets that don't exist are ignored.
+     * Improvements are ordered by id, newest first.
+     *
+     * @throws IOException when GraphQL API is not available or the query failed
+     */
+    List<Improvement> fetchTickets(String apiUrl, String repository, String readOnlyAuthToken, Collection<String> ticketIds,
+                                   Collection<String> labels, boolean onlyPullRequests) throws IOException {
+        List<Long> numbers = new ArrayList<Long>(new TreeSet<Long>(toNumbers(ticketIds)));
+        String endpoint = graphQLEndpoint(apiUrl);
+        LOG.info("Querying GitHub GraphQL API at {} for {} tickets", endpoint, numbers.size());
+
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Authorization", "bearer " + readOnlyAuthToken);
+
+        List<Improvement> out = new ArrayList<Improvement>();
+        for (int i = 0; i < numbers.size(); i += MAX_TICKETS_PER_REQUEST) {
+            List<Long> batch = numbers.subList(i, Math.min(i + MAX_TICKETS_PER_REQUEST, numbers.size()));
+            GitHubResponse response = client.post(endpoint, queryBody(repository, batch), headers);
+            try {
+                for (Ticket t : readTickets(new JsonReader(response.getBody()))) {
+                    if (t.isClosed() && GitHubTicketFetcher.isWanted(t.improvement, labels, onlyPullRequests)) {
+                        out.add(t.improvement);
+                    }
+                }
+            } finally {
+                response.close();
+            }
+        }
+
+        GitHubTicketFetcher.sortNewestFirst(out);
+        return out;
+    }
+
+    /**
+     * GraphQL endpoint for given REST API url, for example:
+     * https://api.github.com -> https://api.github.com/graphql
+     * https://github.mycompany.com/api/v3 -> https://github.mycompany.com/api/graphql (GitHub Enterprise)
+     */
+    static String graphQLEndpoint(String apiUrl) {
+        String url = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+        if (url.endsWith("/v3")) {
+            return url.substring(0, url.length() - "/v3".length()) + "/graphql";
+        }
+        return url + "/graphql";
+    }
+
+    static String queryBody(String repository, Collection<Long> numbers) {
+        StringBuilder query = new StringBuilder("query($owner: String!, $name: String!) { repository(owner: $owner, name: $name) {");
+        for (Long n : numbers) {
+            query.append(" t").append(n).append(": issueOrPullRequest(number: ").append(n).append(") { __typename ...issue ...pr }");
+        }
+        query.append(" } } ").append(FRAGMENTS);
+
+        int slash = repository.indexOf('/');
+        JsonObject variables = new JsonObject();
+        variables.put("owner", repository.substring(0, slash));
+        variables.put("name", repository.substring(slash + 1));
+
+        JsonObject body = new JsonObject();
+        body.put("query", query.toString());
+        body.put("variables", variables);
+        return body.toJson();
+    }
+
+    /**
+     * Reads the response: {"data": {"repository": {"t1": {...}, "t2": null}}, "errors": [...]}
+     * Aliases of tickets that don't exist are null and are reported in 'errors', we ignore them.
+     */
+    static List<Ticket> readTickets(JsonReader reader) throws IOException {
+        List<Ticket> tickets = null;
+        List<String> errors = new ArrayList<String>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("data".equals(name) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("repository".equals(reader.nextName()) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                        tickets = readRepository(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if ("errors".equals(name) && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                readErrors(reader, errors);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (tickets == null) {
+            throw new IOException("GitHub GraphQL query did not return repository data, errors: " + errors);
+        }
+        if (!errors.isEmpty()) {
+            LOG.info("GitHub GraphQL query reported {} problem(s), most likely referenced tickets that don't exist: {}",
+                    errors.size(), errors);
+        }
+        return tickets;
+    }
+
+    private static List<Ticket> readRepository(JsonReader reader) throws IOException {
+        List<Ticket> tickets = new ArrayList<Ticket>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.peek() == JsonReader.Token.NULL) {
+                reader.nextNull();
+            } else {
+                tickets.add(readTicket(reader));
+            }
+        }
+        reader.endObject();
+        return tickets;
+    }
+
+    private static Ticket readTicket(JsonReader reader) throws IOException {
+        String type = null;
+        long number = 0;
+        String title = null;
+        String url = null;
+        String state = null;
+        Collection<String> labels = new LinkedHashSet<String>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("__typename".equals(name)) {
+                type = reader.nextStringOrNull();
+            } else if ("number".equals(name)) {
+                number = reader.nextLong();
+            } else if ("title".equals(name)) {
+                title = reader.nextStringOrNull();
+            } else if ("url".equals(name)) {
+                url = reader.nextStringOrNull();
+            } else if ("state".equals(name)) {
+                state = reader.nextStringOrNull();
+            } else if ("labels".equals(name) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                readLabels(reader, labels);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Ticket(new DefaultImprovement(number, title, url, labels, "PullRequest".equals(type)), state);
+    }
+
+    private static void readLabels(JsonReader reader, Collection<String> out) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("nodes".equals(reader.nextName())) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("name".equals(reader.nextName())) {
+                            out.add(reader.nextStringOrNull());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readErrors(JsonReader reader, List<String> out) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("message".equals(reader.nextName())) {
+                    out.add(reader.nextStringOrNull());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    private static Collection<Long> toNumbers(Collection<String> ticketIds) {
+        List<Long> out = new ArrayList<Long>();
+        for (String id : ticketIds) {
+            out.add(Long.parseLong(id));
+        }
+        return out;
+    }
+
+    /**
+     * Improvement with its state, the REST API returns only closed tickets and we want the same results
+     */
+    static class Ticket {
+        final Improvement improvement;
+        private final String state;
+
+        Ticket(Improvement improvement, String state) {
+            this.improvement = improvement;
+            this.state = state;
+        }
+
+        /**
+         * Issues are "OPEN" or "CLOSED", pull requests can also be "MERGED"
+         */
+        boolean isClosed() {
+            return !"OPEN".equals(state);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import org.json.simple.JsonArray;
 import org.json.simple.JsonObject;
 import org.shipkit.internal.notes.internal.DefaultImprovement;
 import org.shipkit.internal.notes.model.Improvement;
+import org.shipkit.internal.notes.util.JsonMapper;
+import org.shipkit.internal.notes.util.JsonReader;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.LinkedHashSet;
@@ -15,6 +18,33 @@ import java.util.Set;
  */
 class GitHubImprovementsJSON {
 
+    /**
+     * Reads issues straight from the stream, keeping only the fields used by {@link #toImprovement(JsonObject)}
+     */
+    static final JsonMapper<Improvement> IMPROVEMENT_MAPPER = new JsonMapper<Improvement>() {
+        public Improvement read(JsonReader reader) throws IOException {
+            return readImprovement(reader, false);
+        }
+    };
+
+    /**
+     * Same as {@link #IMPROVEMENT_MAPPER} but returns null for issues that are not closed yet
+     */
+    static final JsonMapper<Improvement> CLOSED_IMPROVEMENT_MAPPER = new JsonMapper<Improvement>() {
+        public Improvement read(JsonReader reader) throws IOException {
+            return readImprovement(reader, true);
+        }
+    };
+
+    /**
+     * Reads issues together with their state and last update time, needed to keep {@link GitHubIssueIndex} up to date
+     */
+    static final JsonMapper<Issue> ISSUE_MAPPER = new JsonMapper<Issue>() {
+        public Issue read(JsonReader reader) throws IOException {
+            return readIssue(reader);
+        }
+    };
+
     /**
      * Parses GitHub JsonObject in accordance to the API (https://developer.github.com/v3/issues/)
      */
@@ -28,6 +58,66 @@ class GitHubImprovementsJSON {
         return new DefaultImprovement(id.longValue(), title, issueUrl, labels, isPullRequest);
     }
 
+    static Improvement readImprovement(JsonReader reader, boolean onlyClosed) throws IOException {
+        Issue issue = readIssue(reader);
+        if (onlyClosed && !issue.isClosed()) {
+            return null;
+        }
+        return issue.improvement;
+    }
+
+    static Issue readIssue(JsonReader reader) throws IOException {
+        long id = 0;
+        String issueUrl = null;
+        String title = null;
+        String state = null;
+        String updatedAt = null;
+        boolean isPullRequest = false;
+        Collection<String> labels = new LinkedHashSet<String>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("number".equals(name)) {
+                id = reader.nextLong();
+            } else if ("html_url".equals(name)) {
+                issueUrl = reader.nextStringOrNull();
+            } else if ("title".equals(name)) {
+                title = reader.nextStringOrNull();
+            } else if ("state".equals(name)) {
+                state = reader.nextStringOrNull();
+            } else if ("updated_at".equals(name)) {
+                updatedAt = reader.nextStringOrNull();
+            } else if ("pull_request".equals(name)) {
+                isPullRequest = reader.peek() != JsonReader.Token.NULL;
+                reader.skipValue();
+            } else if ("labels".equals(name)) {
+                readLabels(reader, labels);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Issue(new DefaultImprovement(id, title, issueUrl, labels, isPullRequest), state, updatedAt);
+    }
+
+    private static void readLabels(JsonReader reader, Collection<String> out) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("name".equals(reader.nextName())) {
+                    out.add(reader.nextStringOrNull());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
     private static Collection<String> extractLabels(JsonObject issue) {
         Set<String> out = new LinkedHashSet<String>();
         JsonArray labels = (JsonArray) issue.get("labels");
@@ -37,4 +127,23 @@ class GitHubImprovementsJSON {
         }
         return out;
     }
+
+    /**
+     * Improvement with the issue state and the last update time, for example "2017-05-11T12:03:45Z"
+     */
+    static class Issue {
+        final Improvement improvement;
+        final String state;
+        final String updatedAt;
+
+        Issue(Improvement improvement, String state, String updatedAt) {
+            this.improvement = improvement;
+            this.state = state;
+            this.updatedAt = updatedAt;
+        }
+
+        boolean isClosed() {
+            return "closed".equals(state);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package org.shipkit.internal.notes.improvements;
 
 import org.shipkit.internal.notes.model.ContributionSet;
 import org.shipkit.internal.notes.model.Improvement;
+import org.shipkit.internal.util.GitHubClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,15 +14,46 @@ class GitHubImprovementsProvider implements ImprovementsProvider {
     private final String apiUrl;
     private final String readOnlyAuthToken;
     private final String repository;
+    private final GitHubIssueIndex issueIndex;
+    private final GitHubClient client;
 
     GitHubImprovementsProvider(String apiUrl, String repository, String readOnlyAuthToken) {
+        this(apiUrl, repository, readOnlyAuthToken, null, GitHubClient.getDefault());
+    }
+
+    /**
+     * @param issueIndex local index of issues used to answer queries about many tickets once it has been synced,
+     *                   null means tickets are fetched every time
+     * @param client client used for all GitHub requests
+     */
+    GitHubImprovementsProvider(String apiUrl, String repository, String readOnlyAuthToken, GitHubIssueIndex issueIndex, GitHubClient client) {
         this.apiUrl = apiUrl;
         this.repository = repository;
         this.readOnlyAuthToken = readOnlyAuthToken;
+        this.issueIndex = issueIndex;
+        this.client = client;
     }
 
     public Collection<Improvement> getImprovements(ContributionSet contributions, Collection<String> labels, boolean onlyPullRequests) {
         LOG.info("Parsing {} commits with {} tickets", contributions.getAllCommits().size(), contributions.getAllTickets().size());
-        return new GitHubTicketFetcher().fetchTickets(apiUrl, repository, readOnlyAuthToken, contributions.getAllTickets(), labels, onlyPullRequests);
+        return getImprovements(contributions.getAllTickets(), labels, onlyPullRequests);
+    }
+
+    public Collection<Improvement> getImprovements(Collection<String> tickets, Collection<String> labels, boolean onlyPullRequests) {
+        //few tickets are cheaper to fetch directly than to sync the index
+        if (issueIndex != null && tickets.size() > GitHubTicketFetcher.DIRECT_LOOKUP_MAX_TICKETS) {
+            if (issueIndex.isWarm()) {
+                try {
+                    issueIndex.sync(client, apiUrl, repository, readOnlyAuthToken);
+                    return issueIndex.find(tickets, labels, onlyPullRequests);
+                } catch (Exception e) {
+                    LOG.info("Unable to update the index of GitHub issues, fetching tickets instead. Problem: " + e.getMessage(), e);
+                }
+            } else {
+                //the first sync downloads all issues of the repository, this build does not wait for it
+                issueIndex.seedInBackground(client, apiUrl, repository, readOnlyAuthToken);
+            }
+        }
+        return new GitHubTicketFetcher(client).fetchTickets(apiUrl, repository, readOnlyAuthToken, tickets, labels, onlyPullRequests);
     }
 }
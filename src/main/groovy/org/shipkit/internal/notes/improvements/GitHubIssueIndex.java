@@ -0,0 +1,291 @@
+package org.shipkit.internal.notes.improvements;
+
+import org.shipkit.internal.notes.internal.DefaultImprovement;
+import org.shipkit.internal.notes.model.Improvement;
+import org.shipkit.internal.notes.util.FileRegistry;
+import org.shipkit.internal.notes.util.GitHubListFetcher;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.notes.util.JsonReader;
+import org.shipkit.internal.util.GitHubClient;
+import org.shipkit.internal.util.SharedExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local, persistent index of closed issues and pull requests of a GitHub repository: number -> title, url, labels, PR flag.
+ * <p>
+ * The index is refreshed incrementally: we only ask for issues updated since the last sync
+ * (issues API with 'since' parameter, sorted by update time, see https://developer.github.com/v3/issues/).
+ * Issues that got closed are added, issues that got reopened are removed.
+ * Hence, once the index is built, typical release needs a single request to find out what changed.
+ * <p>
+ * The last sync time is the highest 'updated_at' we have seen, it comes from GitHub so local clock does not matter.
+ * The index is written to a temp file first and then renamed, so that concurrent builds never read partial content.
+ * <p>
+ * The first sync downloads all issues of the repository, so it is done in the background, see {@link #seedInBackground}.
+ * Until it completes, tickets should be fetched from GitHub directly.
+ */
+class GitHubIssueIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitHubIssueIndex.class);
+
+    private static final int ISSUES_PER_PAGE = 100;
+
+    private static final FileRegistry<GitHubIssueIndex> INSTANCES = new FileRegistry<GitHubIssueIndex>() {
+        protected GitHubIssueIndex create(File file) {
+            return new GitHubIssueIndex(file);
+        }
+    };
+
+    private final File file;
+    //number -> closed issue
+    private final Map<Long, Improvement> closedIssues = new HashMap<Long, Improvement>();
+    private String lastUpdate;
+    private boolean loaded;
+    //the seeding sync holds the lock of the index for a long time, we don't want to wait for it
+    private final AtomicBoolean seeding = new AtomicBoolean();
+
+    GitHubIssueIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the index of given repository, kept in given cache directory.
+     * The instances are shared so that all tasks in the build operate on the same index.
+     */
+    static GitHubIssueIndex forRepository(File cacheDir, String apiUrl, String repository) {
+        return INSTANCES.get(indexFile(cacheDir, apiUrl, repository));
+    }
+
+    /**
+     * For example: cacheDir/issues/api.github.com/mockito_shipkit.json
+     */
+    static File indexFile(File cacheDir, String apiUrl, String repository) {
+        return new File(cacheDir, "issues/" + IOUtil.toFileName(apiUrl) + "/" + IOUtil.toFileName(repository) + ".json");
+    }
+
+    /**
+     * Brings the index up to date with GitHub, downloading only issues updated since the last sync.
+     * The first sync downloads all issues of the repository.
+     * <p>
+     * Pages are fetched one by one and each request starts from the first page of issues updated since
+     * the newest issue we have seen. Paging by number would skip issues: when an issue is updated during the sync,
+     * it moves to the end of the list and all following issues shift to earlier pages.
+     */
+    synchronized void sync(GitHubClient client, String apiUrl, String repository, String readOnlyAuthToken) throws IOException {
+        load();
+
+        LOG.info("Updating index of GitHub issues of {} ({} closed issues, last update: {})",
+                repository, closedIssues.size(), lastUpdate);
+        Set<Long> updated = new HashSet<Long>();
+        String since = lastUpdate;
+        int page = 1;
+        try {
+            while (true) {
+                List<GitHubImprovementsJSON.Issue> issues = GitHubListFetcher.fetchPage(client,
+                        pageUrl(apiUrl, repository, readOnlyAuthToken, since, page), GitHubImprovementsJSON.ISSUE_MAPPER);
+                for (GitHubImprovementsJSON.Issue issue : issues) {
+                    update(issue);
+                    updated.add(issue.improvement.getId());
+                }
+                if (issues.size() < ISSUES_PER_PAGE) {
+                    //the last page, nothing more to read
+                    break;
+                }
+                if (lastUpdate != null && !lastUpdate.equals(since)) {
+                    since = lastUpdate;
+                    page = 1;
+                } else {
+                    //whole page of issues updated at the same time, rare but possible with bulk edits
+                    page++;
+                }
+            }
+        } finally {
+            //keep what we have got so far, the next sync continues from there
+            if (!updated.isEmpty()) {
+                save();
+            }
+        }
+        LOG.info("Index of GitHub issues of {} updated with {} issues, {} closed issues in total", repository, updated.size(), closedIssues.size());
+    }
+
+    /**
+     * True if the index has been synced before, in this build or a previous one,
+     * so that the next sync only needs to download recently updated issues.
+     */
+    boolean isWarm() {
+        if (seeding.get()) {
+            return false;
+        }
+        synchronized (this) {
+            load();
+            return lastUpdate != null;
+        }
+    }
+
+    /**
+     * Starts the first sync of the index without waiting for it. Does nothing if the sync is already in progress.
+     * If the build finishes earlier, issues downloaded so far are kept and the next sync continues from there.
+     */
+    void seedInBackground(final GitHubClient client, final String apiUrl, final String repository, final String readOnlyAuthToken) {
+        if (!seeding.compareAndSet(false, true)) {
+            return;
+        }
+        SharedExecutor.getDefault().submit(new Runnable() {
+            public void run() {
+                try {
+                    sync(client, apiUrl, repository, readOnlyAuthToken);
+                } catch (Exception e) {
+                    LOG.info("Unable to build the index of GitHub issues of " + repository + ", problem: " + e.getMessage(), e);
+                } finally {
+                    seeding.set(false);
+                }
+            }
+        });
+    }
+
+    private static String pageUrl(String apiUrl, String repository, String readOnlyAuthToken, String since, int page) {
+        // see API doc: https://developer.github.com/v3/issues/#list-issues-for-a-repository
+        StringBuilder url = new StringBuilder(apiUrl)
+                .append("/repos/").append(repository)
+                .append("/issues?page=").append(page).append("&access_token=").append(readOnlyAuthToken)
+                .append("&state=all&filter=all&sort=updated&direction=asc&per_page=").append(ISSUES_PER_PAGE);
+        if (since != null) {
+            url.append("&since=").append(since);
+        }
+        return url.toString();
+    }
+
+    /**
+     * Closed tickets with given ids, that have all given labels, ordered by id, newest first.
+     * Same contract as {@link GitHubTicketFetcher#fetchTickets(String, String, String, Collection, Collection, boolean)}.
+     */
+    synchronized List<Improvement> find(Collection<String> ticketIds, Collection<String> labels, boolean onlyPullRequests) {
+        List<Improvement> out = new ArrayList<Improvement>();
+        for (String id : new LinkedHashSet<String>(ticketIds)) {
+            Improvement i = closedIssues.get(Long.parseLong(id));
+            if (i != null && GitHubTicketFetcher.isWanted(i, labels, onlyPullRequests)) {
+                out.add(i);
+            }
+        }
+        GitHubTicketFetcher.sortNewestFirst(out);
+        return out;
+    }
+
+    void update(GitHubImprovementsJSON.Issue issue) {
+        if (issue.isClosed()) {
+            closedIssues.put(issue.improvement.getId(), issue.improvement);
+        } else {
+            closedIssues.remove(issue.improvement.getId());
+        }
+        //timestamps are in ISO 8601 format, in UTC, so they can be compared as strings
+        if (issue.updatedAt != null && (lastUpdate == null || issue.updatedAt.compareTo(lastUpdate) > 0)) {
+            lastUpdate = issue.updatedAt;
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.isFile()) {
+            return;
+        }
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new BufferedInputStream(new FileInputStream(file)));
+            read(reader);
+        } catch (IOException e) {
+            //the index will be rebuilt from scratch
+            LOG.info("Unable to read index of GitHub issues from " + file + ", problem: " + e.getMessage(), e);
+            closedIssues.clear();
+            lastUpdate = null;
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    private void read(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("lastUpdate".equals(name)) {
+                lastUpdate = reader.nextStringOrNull();
+            } else if ("issues".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Improvement i = readImprovement(reader);
+                    closedIssues.put(i.getId(), i);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads improvement in the format of {@link DefaultImprovement#toJson()}
+     */
+    private static Improvement readImprovement(JsonReader reader) throws IOException {
+        long id = 0;
+        String title = null;
+        String url = null;
+        boolean isPullRequest = false;
+        Collection<String> labels = new LinkedHashSet<String>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name)) {
+                id = reader.nextLong();
+            } else if ("title".equals(name)) {
+                title = reader.nextStringOrNull();
+            } else if ("url".equals(name)) {
+                url = reader.nextStringOrNull();
+            } else if ("isPullRequest".equals(name)) {
+                isPullRequest = reader.nextBoolean();
+            } else if ("labels".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    labels.add(reader.nextString());
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new DefaultImprovement(id, title, url, labels, isPullRequest);
+    }
+
+    private void save() {
+        try {
+            IOUtil.writeAtomically(file, new IOUtil.Content() {
+                public void writeTo(OutputStream out) throws IOException {
+                    Writer writer = new OutputStreamWriter(out, "UTF-8");
+                    writer.write("{\"lastUpdate\": ");
+                    writer.write(lastUpdate == null ? "null" : "\"" + lastUpdate + "\"");
+                    writer.write(", \"issues\": [");
+                    String separator = "\n";
+                    for (Improvement i : closedIssues.values()) {
+                        writer.write(separator);
+                        writer.write(i.toJson());
+                        separator = ",\n";
+                    }
+                    writer.write("\n]}\n");
+                    writer.flush();
+                }
+            });
+        } catch (IOException e) {
+            //we just lose the benefit of incremental sync
+            LOG.info("Unable to write index of GitHub issues to " + file + ", problem: " + e.getMessage(), e);
+        }
+    }
+}
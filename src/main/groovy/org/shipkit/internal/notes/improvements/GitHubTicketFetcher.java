@@ -1,41 +1,122 @@
 package org.shipkit.internal.notes.improvements;
 
-import org.json.simple.DeserializationException;
-import org.json.simple.JsonObject;
 import org.shipkit.internal.gradle.util.StringUtil;
 import org.shipkit.internal.notes.model.Improvement;
 import org.shipkit.internal.notes.util.GitHubListFetcher;
+import org.shipkit.internal.util.GitHubClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.util.*;
 
 class GitHubTicketFetcher {
 
     private static final Logger LOG = LoggerFactory.getLogger(GitHubTicketFetcher.class);
 
+    //up to this many tickets we fetch each ticket separately, concurrently
+    static final int DIRECT_LOOKUP_MAX_TICKETS = 10;
+    private static final int ISSUES_PER_PAGE = 30;
+
+    private final GitHubClient client;
+    private final GitHubGraphQLTicketFetcher graphQLFetcher;
+    private final GitHubDirectTicketFetcher directFetcher;
+
+    GitHubTicketFetcher() {
+        this(GitHubClient.getDefault());
+    }
+
+    GitHubTicketFetcher(GitHubClient client) {
+        this(client, new GitHubGraphQLTicketFetcher(client), new GitHubDirectTicketFetcher(client));
+    }
+
+    GitHubTicketFetcher(GitHubClient client, GitHubGraphQLTicketFetcher graphQLFetcher, GitHubDirectTicketFetcher directFetcher) {
+        this.client = client;
+        this.graphQLFetcher = graphQLFetcher;
+        this.directFetcher = directFetcher;
+    }
+
+    /**
+     * Fetches closed tickets with given ids, that have all given labels.
+     * <ul>
+     *     <li>few tickets are fetched directly by number, with concurrent requests</li>
+     *     <li>more tickets are resolved in batches using GitHub GraphQL API</li>
+     *     <li>if that fails (for example, older GitHub Enterprise without GraphQL) we use REST API,
+     *          either fetching tickets directly or browsing closed issues, whatever needs fewer requests</li>
+     * </ul>
+     */
     Collection<Improvement> fetchTickets(String apiUrl, String repository, String readOnlyAuthToken, Collection<String> ticketIds, Collection<String> labels,
                                          boolean onlyPullRequests) {
-        List<Improvement> out = new LinkedList<Improvement>();
         if (ticketIds.isEmpty()) {
-            return out;
+            return new LinkedList<Improvement>();
+        }
+        if (ticketIds.size() > DIRECT_LOOKUP_MAX_TICKETS) {
+            try {
+                return graphQLFetcher.fetchTickets(apiUrl, repository, readOnlyAuthToken, ticketIds, labels, onlyPullRequests);
+            } catch (Exception e) {
+                LOG.info("Unable to fetch tickets using GitHub GraphQL API, falling back to REST API. Problem: " + e.getMessage(), e);
+            }
         }
+        if (isDirectLookupCheaper(ticketIds)) {
+            try {
+                return directFetcher.fetchTickets(apiUrl, repository, readOnlyAuthToken, ticketIds, labels, onlyPullRequests);
+            } catch (Exception e) {
+                LOG.info("Unable to fetch tickets directly, falling back to browsing closed issues. Problem: " + e.getMessage(), e);
+            }
+        }
+        return browseClosedIssues(apiUrl, repository, readOnlyAuthToken, ticketIds, labels, onlyPullRequests);
+    }
+
+    /**
+     * Browsing needs at least as many pages as the spread of ticket ids, more if there are newer issues.
+     * Direct lookup needs a request per ticket but the requests are concurrent and cacheable.
+     */
+    static boolean isDirectLookupCheaper(Collection<String> ticketIds) {
+        if (ticketIds.size() <= DIRECT_LOOKUP_MAX_TICKETS) {
+            return true;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (String id : ticketIds) {
+            long n = Long.parseLong(id);
+            min = Math.min(min, n);
+            max = Math.max(max, n);
+        }
+        long minimumPages = (max - min) / ISSUES_PER_PAGE + 1;
+        return ticketIds.size() <= minimumPages;
+    }
+
+    /**
+     * True if the improvement should be included in results, consistently with the filtering of closed issues browsing
+     */
+    static boolean isWanted(Improvement improvement, Collection<String> labels, boolean onlyPullRequests) {
+        return improvement.getLabels().containsAll(labels) && (!onlyPullRequests || improvement.isPullRequest());
+    }
+
+    static void sortNewestFirst(List<Improvement> improvements) {
+        Collections.sort(improvements, new Comparator<Improvement>() {
+            public int compare(Improvement a, Improvement b) {
+                return b.getId().compareTo(a.getId());
+            }
+        });
+    }
+
+    private Collection<Improvement> browseClosedIssues(String apiUrl, String repository, String readOnlyAuthToken, Collection<String> ticketIds,
+                                                       Collection<String> labels, boolean onlyPullRequests) {
+        List<Improvement> out = new LinkedList<Improvement>();
         LOG.info("Querying GitHub API for {} tickets", ticketIds.size());
 
         Queue<Long> tickets = queuedTicketNumbers(ticketIds);
 
+        GitHubIssues issues = GitHubIssues.forRepo(apiUrl, repository, readOnlyAuthToken)
+                .state("closed")
+                .labels(StringUtil.join(labels, ","))
+                .filter("all")
+                .direction("desc")
+                .browse(client);
         try {
-            GitHubIssues issues = GitHubIssues.forRepo(apiUrl, repository, readOnlyAuthToken)
-                    .state("closed")
-                    .labels(StringUtil.join(labels, ","))
-                    .filter("all")
-                    .direction("desc")
-                    .browse();
-
             while (!tickets.isEmpty() && issues.hasNextPage()) {
-                List<JsonObject> page = issues.nextPage();
+                List<Improvement> page = issues.nextPage();
 
                 out.addAll(extractImprovements(
                         dropTicketsAboveMaxInPage(tickets, page),
@@ -43,16 +124,19 @@ class GitHubTicketFetcher {
             }
         } catch (Exception e) {
             throw new RuntimeException("Problems fetching " + ticketIds.size() + " tickets from GitHub", e);
+        } finally {
+            //we usually find all tickets before reaching the last page, no need to wait for pages fetched ahead
+            issues.close();
         }
         return out;
     }
 
-    private Queue<Long> dropTicketsAboveMaxInPage(Queue<Long> tickets, List<JsonObject> page) {
+    private Queue<Long> dropTicketsAboveMaxInPage(Queue<Long> tickets, List<Improvement> page) {
         if (page.isEmpty()) {
             return tickets;
         }
-        BigDecimal highestId = (BigDecimal) page.get(0).get("number");
-        while (!tickets.isEmpty() && tickets.peek() > highestId.longValue()) {
+        long highestId = page.get(0).getId();
+        while (!tickets.isEmpty() && tickets.peek() > highestId) {
             tickets.poll();
         }
         return tickets;
@@ -69,15 +153,14 @@ class GitHubTicketFetcher {
         return longs;
     }
 
-    private static List<Improvement> extractImprovements(Collection<Long> tickets, List<JsonObject> issues,
+    private static List<Improvement> extractImprovements(Collection<Long> tickets, List<Improvement> issues,
                                                          boolean onlyPullRequests) {
         if(tickets.isEmpty()) {
             return Collections.emptyList();
         }
 
         ArrayList<Improvement> pagedImprovements = new ArrayList<Improvement>();
-        for (JsonObject issue : issues) {
-            Improvement i = GitHubImprovementsJSON.toImprovement(issue);
+        for (Improvement i : issues) {
             if (tickets.remove(i.getId())) {
                 if (!onlyPullRequests || i.isPullRequest()) {
                     pagedImprovements.add(i);
@@ -93,20 +176,24 @@ class GitHubTicketFetcher {
 
     private static class GitHubIssues {
 
-        private final GitHubListFetcher fetcher;
+        private final GitHubListFetcher<Improvement> fetcher;
 
-        private GitHubIssues(String nextPageUrl) {
-            fetcher = new GitHubListFetcher(nextPageUrl);
+        private GitHubIssues(GitHubClient client, String nextPageUrl) {
+            fetcher = new GitHubListFetcher<Improvement>(client, nextPageUrl, GitHubImprovementsJSON.IMPROVEMENT_MAPPER);
         }
 
         boolean hasNextPage() {
             return fetcher.hasNextPage();
         }
 
-        List<JsonObject> nextPage() throws IOException, DeserializationException {
+        List<Improvement> nextPage() throws IOException {
             return fetcher.nextPage();
         }
 
+        void close() {
+            fetcher.close();
+        }
+
         static GitHubIssuesBuilder forRepo(String apiUrl, String repository, String readOnlyAuthToken) {
             return new GitHubIssuesBuilder(apiUrl, repository, readOnlyAuthToken);
         }
@@ -149,7 +236,7 @@ class GitHubTicketFetcher {
                 return this;
             }
 
-            GitHubIssues browse() {
+            GitHubIssues browse(GitHubClient client) {
                 // see API doc: https://developer.github.com/v3/issues/
                 StringBuilder urlBuilder = new StringBuilder(apiUrl)
                         .append("/repos/").append(repository)
@@ -159,7 +246,7 @@ class GitHubTicketFetcher {
                     urlBuilder.append("&").append(parameter.getKey()).append("=").append(parameter.getValue());
                 }
 
-                return new GitHubIssues(urlBuilder.toString());
+                return new GitHubIssues(client, urlBuilder.toString());
             }
         }
     }
@@ -1,5 +1,9 @@
 package org.shipkit.internal.notes.improvements;
 
+import org.shipkit.internal.util.GitHubClient;
+
+import java.io.File;
+
 /**
  * Improvements based on some issue tracking system outside of the vcs.
  */
@@ -15,4 +19,18 @@ public class Improvements {
     public static ImprovementsProvider getGitHubProvider(String apiUrl, String repository, final String readOnlyAuthToken) {
         return new GitHubImprovementsProvider(apiUrl, repository, readOnlyAuthToken);
     }
+
+    /**
+     * Same as {@link #getGitHubProvider(String, String, String)} but many tickets are looked up in a local index of issues,
+     * kept in given cache directory and refreshed only with issues updated since the previous build.
+     * Until the index is built in the background, and for few tickets, tickets are fetched from GitHub directly.
+     *
+     * @param cacheDir directory where the index of issues is kept between builds, null means no index
+     * @param client client used for all GitHub requests, for example with the response cache of the task
+     */
+    public static ImprovementsProvider getGitHubProvider(String apiUrl, String repository, final String readOnlyAuthToken, File cacheDir,
+                                                         GitHubClient client) {
+        GitHubIssueIndex index = cacheDir == null ? null : GitHubIssueIndex.forRepository(cacheDir, apiUrl, repository);
+        return new GitHubImprovementsProvider(apiUrl, repository, readOnlyAuthToken, index, client);
+    }
 }
@@ -19,4 +19,14 @@ public interface ImprovementsProvider {
      * @param onlyPullRequests if true, only improvements that are pull requests are returned.
      */
     Collection<Improvement> getImprovements(ContributionSet contributions, Collection<String> labels, boolean onlyPullRequests);
+
+    /**
+     * Returns improvements for given tickets, in one go.
+     * Useful when improvements of many contribution sets are needed, for example, when release notes for many versions are generated.
+     *
+     * @param ticketIds tickets referenced by contributions, see {@link ContributionSet#getAllTickets()}
+     * @param labels see {@link #getImprovements(ContributionSet, Collection, boolean)}
+     * @param onlyPullRequests see {@link #getImprovements(ContributionSet, Collection, boolean)}
+     */
+    Collection<Improvement> getImprovements(Collection<String> ticketIds, Collection<String> labels, boolean onlyPullRequests);
 }
@@ -0,0 +1,28 @@
+package org.shipkit.internal.notes.util;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instances shared by all tasks in the build, one per file, for example persistent caches.
+ * Tasks that use the same file operate on the same instance and don't overwrite each other's changes.
+ */
+public abstract class FileRegistry<T> {
+
+    private final Map<File, T> instances = new HashMap<File, T>();
+
+    /**
+     * The instance of given file, created on first use
+     */
+    public synchronized T get(File file) {
+        T instance = instances.get(file);
+        if (instance == null) {
+            instance = create(file);
+            instances.put(file, instance);
+        }
+        return instance;
+    }
+
+    protected abstract T create(File file);
+}
@@ -2,68 +2,191 @@ package org.shipkit.internal.notes.util;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.json.simple.DeserializationException;
-import org.json.simple.JsonObject;
-import org.json.simple.Jsoner;
-import org.shipkit.internal.util.DateUtil;
+import org.shipkit.internal.util.GitHubClient;
+import org.shipkit.internal.util.GitHubResponse;
+import org.shipkit.internal.util.SharedExecutor;
 
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
-import java.net.URLConnection;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * This class contains standard operations for skim over GitHub API responses.
+ * Cursor over paged GitHub API responses.
+ * Pages are parsed straight from the response stream, each element is read by given {@link JsonMapper}.
+ * <p>
+ * While the consumer processes the current page, the next page is already being downloaded.
+ * When GitHub exposes the link to the last page, remaining pages are fetched concurrently.
+ * The number of pages read ahead grows with the number of pages the consumer has read, up to a limit:
+ * consumers that stop early, for example at the previous release, don't spend rate limit on pages they never read.
+ * Pages are always returned in order.
+ * <p>
+ * Consumers that stop before reaching the last page need to {@link #close()} the cursor
+ * so that outstanding requests are cancelled.
  */
-public class GitHubListFetcher {
+public class GitHubListFetcher<T> implements Closeable {
 
     private static final Logger LOG = Logging.getLogger(GitHubListFetcher.class);
 
     private static final String RELATIVE_LINK_NOT_FOUND = "none";
+    private static final int MAX_PAGES_IN_FLIGHT = 4;
+    private static final Pattern PAGE_PARAM = Pattern.compile("([?&])page=(\\d+)");
+
+    private final GitHubClient client;
+    private final JsonMapper<T> mapper;
+    private final int maxPagesInFlight;
+    private final LinkedList<Future<Page<T>>> inFlight = new LinkedList<Future<Page<T>>>();
+
+    //used until we know the last page, then pages are requested by number
     private String nextPageUrl;
+    private String pageUrlTemplate;
+    private int nextPageNumber;
+    private int lastPageNumber;
+    private int consumedPages;
+
+    public GitHubListFetcher(String nextPageUrl, JsonMapper<T> mapper) {
+        this(GitHubClient.getDefault(), nextPageUrl, mapper);
+    }
 
-    public GitHubListFetcher(String nextPageUrl) {
+    public GitHubListFetcher(GitHubClient client, String nextPageUrl, JsonMapper<T> mapper) {
+        this(client, nextPageUrl, mapper, MAX_PAGES_IN_FLIGHT);
+    }
+
+    GitHubListFetcher(GitHubClient client, String nextPageUrl, JsonMapper<T> mapper, int maxPagesInFlight) {
+        this.client = client;
         this.nextPageUrl = nextPageUrl;
+        this.mapper = mapper;
+        this.maxPagesInFlight = maxPagesInFlight;
+    }
+
+    /**
+     * Fetches a single page, without reading ahead.
+     * Useful for consumers that decide about the next request based on the content of the page.
+     */
+    public static <T> List<T> fetchPage(GitHubClient client, String pageUrl, JsonMapper<T> mapper) throws IOException {
+        GitHubListFetcher<T> fetcher = new GitHubListFetcher<T>(client, pageUrl, mapper, 0);
+        return fetcher.new PageRequest(pageUrl).call().items;
     }
 
     public boolean hasNextPage() {
-        return !RELATIVE_LINK_NOT_FOUND.equals(nextPageUrl);
+        return !inFlight.isEmpty()
+                || !RELATIVE_LINK_NOT_FOUND.equals(nextPageUrl)
+                || (pageUrlTemplate != null && nextPageNumber <= lastPageNumber);
     }
 
-    public List<JsonObject> nextPage() throws IOException, DeserializationException {
-        if(RELATIVE_LINK_NOT_FOUND.equals(nextPageUrl)) {
+    public List<T> nextPage() throws IOException {
+        if (!hasNextPage()) {
             throw new IllegalStateException("GitHub API no more issues to fetch");
         }
-        URL url = new URL(nextPageUrl);
-        LOG.info("GitHub API querying page {}", queryParamValue(url, "page"));
-        LOG.lifecycle("GET " + nextPageUrl);
-        URLConnection urlConnection = url.openConnection();
-        LOG.info("Established connection to GitHub API");
+        requestPages();
+        Page<T> page = await(inFlight.removeFirst());
+        consumedPages++;
+
+        if (pageUrlTemplate == null) {
+            nextPageUrl = page.nextUrl;
+            int next = pageNumber(page.nextUrl);
+            int last = pageNumber(page.lastUrl);
+            if (next > 0 && last >= next) {
+                LOG.info("GitHub API has {} pages, reading up to {} pages ahead", last, maxPagesInFlight);
+                pageUrlTemplate = page.nextUrl;
+                nextPageNumber = next;
+                lastPageNumber = last;
+                nextPageUrl = RELATIVE_LINK_NOT_FOUND;
+            }
+        }
+        //read ahead, while the consumer deals with the current page
+        requestPages();
+        return page.items;
+    }
 
-        String resetInLocalTime = resetLimitInLocalTimeOrEmpty(urlConnection);
+    /**
+     * Cancels pages that were requested ahead but not consumed yet.
+     * After closing, the cursor has no more pages.
+     */
+    public void close() {
+        for (Future<Page<T>> f : inFlight) {
+            f.cancel(true);
+        }
+        inFlight.clear();
+        nextPageUrl = RELATIVE_LINK_NOT_FOUND;
+        pageUrlTemplate = null;
+    }
 
-        LOG.info("GitHub API rate info => Remaining : {}, Limit : {}, Reset at: {}",
-                urlConnection.getHeaderField("X-RateLimit-Remaining"),
-                urlConnection.getHeaderField("X-RateLimit-Limit"),
-                resetInLocalTime);
-        nextPageUrl = extractRelativeLink(urlConnection.getHeaderField("Link"), "next");
+    private void requestPages() {
+        if (pageUrlTemplate != null) {
+            //one page ahead after the first page was read, two after the second, and so on
+            int pagesInFlight = Math.max(1, Math.min(maxPagesInFlight, consumedPages));
+            while (inFlight.size() < pagesInFlight && nextPageNumber <= lastPageNumber) {
+                String url = PAGE_PARAM.matcher(pageUrlTemplate).replaceFirst("$1page=" + nextPageNumber++);
+                inFlight.add(SharedExecutor.getDefault().submit(new PageRequest(url)));
+            }
+        } else if (inFlight.isEmpty() && !RELATIVE_LINK_NOT_FOUND.equals(nextPageUrl)) {
+            inFlight.add(SharedExecutor.getDefault().submit(new PageRequest(nextPageUrl)));
+            nextPageUrl = RELATIVE_LINK_NOT_FOUND;
+        }
+    }
 
-        return parseJsonFrom(urlConnection);
+    private Page<T> await(Future<Page<T>> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for GitHub API page");
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new RuntimeException("Problems fetching GitHub API page", cause);
+        }
+    }
+
+    private static int pageNumber(String url) {
+        Matcher m = PAGE_PARAM.matcher(url);
+        return m.find() ? Integer.parseInt(m.group(2)) : -1;
     }
 
-    private String resetLimitInLocalTimeOrEmpty(URLConnection urlConnection) {
-        String rateLimitReset = urlConnection.getHeaderField("X-RateLimit-Reset");
-        if(rateLimitReset == null) {
-            return "";
+    private class PageRequest implements Callable<Page<T>> {
+        private final String pageUrl;
+
+        PageRequest(String pageUrl) {
+            this.pageUrl = pageUrl;
+        }
+
+        public Page<T> call() throws IOException {
+            URL url = new URL(pageUrl);
+            LOG.info("GitHub API querying page {}", queryParamValue(url, "page"));
+            LOG.lifecycle("GET " + pageUrl);
+            GitHubResponse response = client.get(pageUrl);
+            LOG.info("Established connection to GitHub API");
+
+            String link = response.getHeader("Link");
+            List<T> items = parseJsonFrom(response);
+            return new Page<T>(items, extractRelativeLink(link, "next"), extractRelativeLink(link, "last"));
         }
-        Date resetInEpochSeconds = DateUtil.parseDateInEpochSeconds(rateLimitReset);
-        return DateUtil.formatDateToLocalTime(resetInEpochSeconds);
     }
 
-    private String queryParamValue(URL url, String page) {
+    private static class Page<T> {
+        private final List<T> items;
+        private final String nextUrl;
+        private final String lastUrl;
+
+        Page(List<T> items, String nextUrl, String lastUrl) {
+            this.items = items;
+            this.nextUrl = nextUrl;
+            this.lastUrl = lastUrl;
+        }
+    }
+
+    private static String queryParamValue(URL url, String page) {
         String query = url.getQuery();
         for (String param : query.split("&")) {
             if(param.startsWith(page)) {
@@ -73,20 +196,28 @@ public class GitHubListFetcher {
         return "N/A";
     }
 
-    private List<JsonObject> parseJsonFrom(URLConnection urlConnection) throws IOException, DeserializationException {
-        InputStream response = urlConnection.getInputStream();
-
+    private List<T> parseJsonFrom(GitHubResponse response) throws IOException {
         LOG.info("Reading remote stream from GitHub API");
-        String content = IOUtil.readFully(response);
-        LOG.info("GitHub API responded successfully.");
-        @SuppressWarnings("unchecked")
-        List<JsonObject> issues = (List<JsonObject>) Jsoner.deserialize(content);
-        LOG.info("GitHub API returned {} Json objects.", issues.size());
-        return issues;
+        List<T> items = new ArrayList<T>();
+        try {
+            JsonReader reader = new JsonReader(response.getBody());
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T item = mapper.read(reader);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            reader.endArray();
+        } finally {
+            response.close();
+        }
+        LOG.info("GitHub API returned {} Json objects.", items.size());
+        return items;
     }
 
 
-    private String extractRelativeLink(String linkHeader, final String relativeType) {
+    private static String extractRelativeLink(String linkHeader, final String relativeType) {
         if (linkHeader == null) {
             return RELATIVE_LINK_NOT_FOUND;
         }
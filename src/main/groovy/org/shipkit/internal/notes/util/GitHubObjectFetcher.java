@@ -5,12 +5,10 @@ import org.gradle.api.logging.Logging;
 import org.json.simple.DeserializationException;
 import org.json.simple.JsonObject;
 import org.json.simple.Jsoner;
-import org.shipkit.internal.util.DateUtil;
+import org.shipkit.internal.util.GitHubClient;
+import org.shipkit.internal.util.GitHubResponse;
 
-import java.io.*;
-import java.net.URL;
-import java.net.URLConnection;
-import java.util.Date;
+import java.io.IOException;
 
 /**
  * This class contains a standard operation for fetching single page for GitHub.
@@ -18,43 +16,45 @@ import java.util.Date;
 public class GitHubObjectFetcher {
 
     private static final Logger LOG = Logging.getLogger(GitHubObjectFetcher.class);
-    //TODO GitHubObjectFetcher and GitHubListFetcher can probably be merged into one, there's code duplicated
 
+    private final GitHubClient client;
     private final String authToken;
 
     public GitHubObjectFetcher(String authToken) {
+        this(GitHubClient.getDefault(), authToken);
+    }
+
+    public GitHubObjectFetcher(GitHubClient client, String authToken) {
+        this.client = client;
         this.authToken = authToken;
     }
 
     public JsonObject getPage(String pageUrl) throws IOException, DeserializationException {
-        URL url = new URL(String.format("%s%s%s", pageUrl, "?access_token=", authToken));
-        LOG.info("GitHub API querying page {}", url);
-        LOG.lifecycle("GET {}", url);
-        URLConnection urlConnection = url.openConnection();
-
-        String resetInLocalTime = resetLimitInLocalTimeOrEmpty(urlConnection);
-
-        LOG.info("GitHub API rate info => Remaining : {}, Limit : {}, Reset at: {}",
-                urlConnection.getHeaderField("X-RateLimit-Remaining"),
-                urlConnection.getHeaderField("X-RateLimit-Limit"),
-                resetInLocalTime);
-
-        return parseJsonFrom(urlConnection);
+        return parseJsonFrom(get(pageUrl));
     }
 
-    private String resetLimitInLocalTimeOrEmpty(URLConnection urlConnection) {
-        String rateLimitReset = urlConnection.getHeaderField("X-RateLimit-Reset");
-        if(rateLimitReset == null) {
-            return "";
+    /**
+     * Fetches single object and reads it with given mapper straight from the response stream,
+     * without building the whole JSON tree.
+     */
+    public <T> T getObject(String pageUrl, JsonMapper<T> mapper) throws IOException {
+        GitHubResponse response = get(pageUrl);
+        try {
+            return mapper.read(new JsonReader(response.getBody()));
+        } finally {
+            response.close();
         }
-        Date resetInEpochSeconds = DateUtil.parseDateInEpochSeconds(rateLimitReset);
-        return DateUtil.formatDateToLocalTime(resetInEpochSeconds);
     }
 
-    private JsonObject parseJsonFrom(URLConnection urlConnection) throws IOException, DeserializationException {
-        InputStream response = urlConnection.getInputStream();
+    private GitHubResponse get(String pageUrl) throws IOException {
+        String url = String.format("%s%s%s", pageUrl, "?access_token=", authToken);
+        LOG.info("GitHub API querying page {}", url);
+        LOG.lifecycle("GET {}", url);
+        return client.get(url);
+    }
 
-        String content = IOUtil.readFully(response);
+    private JsonObject parseJsonFrom(GitHubResponse response) throws DeserializationException {
+        String content = response.getContent();
         LOG.info("GitHub API responded successfully.");
 
         return (JsonObject) Jsoner.deserialize(content);
@@ -117,6 +117,65 @@ public class IOUtil {
         }
     }
 
+    /**
+     * Makes a file name out of an url or a repository name,
+     * for example: "https://api.github.com" -> "api.github.com", "mockito/shipkit" -> "mockito_shipkit"
+     */
+    public static String toFileName(String text) {
+        return text.replaceFirst("^\\w+://", "").replaceAll("[^\\w.-]", "_");
+    }
+
+    /**
+     * Content of a file, see {@link #writeAtomically(File, Content)}
+     */
+    public interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes the content to a temp file next to the target and then replaces the target with it,
+     * so that concurrent builds never read partial content. The target stays unchanged if writing fails.
+     */
+    public static void writeAtomically(File target, Content content) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create directory " + dir);
+        }
+        File temp = File.createTempFile(target.getName(), ".tmp", dir);
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(temp));
+            content.writeTo(out);
+            out.close();
+            out = null;
+            replaceFile(temp, target);
+        } finally {
+            close(out);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Same as {@link #writeAtomically(File, Content)}, for text content
+     */
+    public static void writeAtomically(File target, final String content) throws IOException {
+        writeAtomically(target, new Content() {
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(content.getBytes("UTF-8"));
+            }
+        });
+    }
+
+    /**
+     * Renames the file, replacing the target if it exists
+     */
+    public static void replaceFile(File source, File target) throws IOException {
+        //rename does not replace existing file on all platforms
+        if (!source.renameTo(target) && !(target.delete() && source.renameTo(target))) {
+            throw new IOException("Unable to rename " + source + " to " + target);
+        }
+    }
+
     public static void writeFile(File target, String content) {
         PrintWriter p = null;
         try {
@@ -0,0 +1,15 @@
+package org.shipkit.internal.notes.util;
+
+import java.io.IOException;
+
+/**
+ * Reads single JSON value from {@link JsonReader} into a typed object, keeping only the fields we need.
+ */
+public interface JsonMapper<T> {
+
+    /**
+     * Consumes the next value from the reader.
+     * May return null, in which case the value is not included in the results.
+     */
+    T read(JsonReader reader) throws IOException;
+}
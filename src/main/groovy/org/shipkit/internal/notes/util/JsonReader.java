@@ -0,0 +1,433 @@
+package org.shipkit.internal.notes.util;
+
+import java.io.*;
+import java.math.BigDecimal;
+
+/**
+ * Streaming (pull) JSON parser that reads tokens directly from the stream.
+ * Unlike {@link org.json.simple.Jsoner} it does not build the whole tree of maps in memory,
+ * the caller reads the values it needs and skips the rest, see {@link #skipValue()}.
+ * <p>
+ * Example:
+ * <pre>
+ *     reader.beginObject();
+ *     while (reader.hasNext()) {
+ *         String name = reader.nextName();
+ *         if ("title".equals(name)) {
+ *             title = reader.nextString();
+ *         } else {
+ *             reader.skipValue();
+ *         }
+ *     }
+ *     reader.endObject();
+ * </pre>
+ */
+public class JsonReader implements Closeable {
+
+    /**
+     * Kinds of JSON tokens, see {@link #peek()}
+     */
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    //what the reader is in the middle of
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder text = new StringBuilder();
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+    private Token peeked;
+
+    public JsonReader(InputStream in) {
+        this(inputStreamReader(in));
+    }
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    private static Reader inputStreamReader(InputStream in) {
+        try {
+            return new InputStreamReader(in, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The kind of the next token, without consuming it
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int context = stack[depth - 1];
+        if (context == EMPTY_ARRAY || context == NONEMPTY_ARRAY) {
+            stack[depth - 1] = NONEMPTY_ARRAY;
+            char c = nextNonWhitespace();
+            if (c == ']') {
+                return peeked = Token.END_ARRAY;
+            }
+            if (context == EMPTY_ARRAY) {
+                pos--;
+            } else if (c != ',') {
+                throw syntaxError("Expected ',' or ']' but was '" + c + "'");
+            }
+        } else if (context == EMPTY_OBJECT || context == NONEMPTY_OBJECT) {
+            char c = nextNonWhitespace();
+            if (c == '}') {
+                return peeked = Token.END_OBJECT;
+            }
+            if (context == NONEMPTY_OBJECT) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or '}' but was '" + c + "'");
+                }
+                c = nextNonWhitespace();
+            }
+            if (c != '"') {
+                throw syntaxError("Expected name but was '" + c + "'");
+            }
+            stack[depth - 1] = DANGLING_NAME;
+            return peeked = Token.NAME;
+        } else if (context == DANGLING_NAME) {
+            char c = nextNonWhitespace();
+            if (c != ':') {
+                throw syntaxError("Expected ':' but was '" + c + "'");
+            }
+            stack[depth - 1] = NONEMPTY_OBJECT;
+        } else if (context == EMPTY_DOCUMENT) {
+            stack[depth - 1] = NONEMPTY_DOCUMENT;
+        } else {
+            if (fill()) {
+                throw syntaxError("Expected end of document");
+            }
+            return peeked = Token.END_DOCUMENT;
+        }
+        return peeked = peekValue();
+    }
+
+    private Token peekValue() throws IOException {
+        char c = nextNonWhitespace();
+        switch (c) {
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '"':
+                return Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + c + "'");
+        }
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    /**
+     * True if the current array or object has more elements
+     */
+    public boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_ARRAY && t != Token.END_OBJECT && t != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString(true);
+    }
+
+    /**
+     * Next string value. Numbers are returned as text.
+     */
+    public String nextString() throws IOException {
+        Token t = peek();
+        if (t == Token.NUMBER) {
+            peeked = null;
+            return readLiteral();
+        }
+        expect(Token.STRING);
+        return readString(true);
+    }
+
+    /**
+     * Next string value or null if the value is JSON null
+     */
+    public String nextStringOrNull() throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    public long nextLong() throws IOException {
+        String number = nextNumberText();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(number).longValue();
+        }
+    }
+
+    public BigDecimal nextBigDecimal() throws IOException {
+        return new BigDecimal(nextNumberText());
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String literal = readLiteral();
+        if ("true".equals(literal)) {
+            return true;
+        }
+        if ("false".equals(literal)) {
+            return false;
+        }
+        throw syntaxError("Expected boolean but was '" + literal + "'");
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        String literal = readLiteral();
+        if (!"null".equals(literal)) {
+            throw syntaxError("Expected null but was '" + literal + "'");
+        }
+    }
+
+    /**
+     * Skips the next value, including all nested arrays and objects, without allocating strings
+     */
+    public void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            Token t = peek();
+            if (t == Token.BEGIN_ARRAY) {
+                beginArray();
+                nesting++;
+            } else if (t == Token.BEGIN_OBJECT) {
+                beginObject();
+                nesting++;
+            } else if (t == Token.END_ARRAY) {
+                endArray();
+                nesting--;
+            } else if (t == Token.END_OBJECT) {
+                endObject();
+                nesting--;
+            } else if (t == Token.NAME || t == Token.STRING) {
+                peeked = null;
+                readString(false);
+            } else if (t == Token.END_DOCUMENT) {
+                throw syntaxError("Unexpected end of document");
+            } else {
+                peeked = null;
+                readLiteral();
+            }
+        } while (nesting != 0);
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String nextNumberText() throws IOException {
+        Token t = peek();
+        if (t == Token.STRING) {
+            peeked = null;
+            return readString(true);
+        }
+        expect(Token.NUMBER);
+        return readLiteral();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token t = peek();
+        if (t != expected) {
+            throw syntaxError("Expected " + expected + " but was " + t);
+        }
+        peeked = null;
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            int[] newStack = new int[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = context;
+    }
+
+    /**
+     * Reads the string after the opening quote was consumed.
+     * When the result is not needed, only skips the characters.
+     */
+    private String readString(boolean keep) throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    if (!keep) {
+                        return null;
+                    }
+                    if (text.length() == 0) {
+                        //fast path, the whole string is in the buffer and has no escapes
+                        return new String(buffer, start, pos - start - 1);
+                    }
+                    text.append(buffer, start, pos - start - 1);
+                    return text.toString();
+                }
+                if (c == '\\') {
+                    if (keep) {
+                        text.append(buffer, start, pos - start - 1);
+                    }
+                    char escaped = readEscape();
+                    if (keep) {
+                        text.append(escaped);
+                    }
+                    start = pos;
+                }
+            }
+            if (keep) {
+                text.append(buffer, start, pos - start);
+            }
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        char c = nextChar();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit == -1) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) + digit;
+                }
+                return (char) value;
+            default:
+                //quote, backslash and slash are escaped as themselves
+                return c;
+        }
+    }
+
+    /**
+     * Reads unquoted value: number, true, false or null
+     */
+    private String readLiteral() throws IOException {
+        text.setLength(0);
+        while (fill()) {
+            char c = buffer[pos];
+            if (c == ',' || c == ']' || c == '}' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            text.append(c);
+            pos++;
+        }
+        if (text.length() == 0) {
+            throw syntaxError("Expected value");
+        }
+        return text.toString();
+    }
+
+    private char nextChar() throws IOException {
+        if (!fill()) {
+            throw syntaxError("Unexpected end of document");
+        }
+        return buffer[pos++];
+    }
+
+    private char nextNonWhitespace() throws IOException {
+        while (true) {
+            char c = nextChar();
+            if (!isWhitespace(c)) {
+                return c;
+            }
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * Makes sure there is at least one character in the buffer, returns false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buffer, 0, buffer.length);
+        while (n == 0) {
+            n = in.read(buffer, 0, buffer.length);
+        }
+        if (n == -1) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at character " + (consumed + pos) + " of JSON document");
+    }
+}
@@ -0,0 +1,25 @@
+package org.shipkit.internal.notes.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map with limited number of entries, least recently used entries are dropped first.
+ * Iteration order is from the least recently used entry.
+ */
+public class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+
+    public LruMap(int maxEntries) {
+        super(16, 0.75f, true);
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxEntries;
+    }
+}
@@ -0,0 +1,47 @@
+package org.shipkit.internal.notes.util;
+
+import org.json.simple.JsonObject;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads JSON object keeping only selected top-level fields with simple values (text, number, boolean).
+ * Useful when the code already works with {@link JsonObject} but needs only few of its fields.
+ * Numbers are {@link java.math.BigDecimal}, consistent with {@link org.json.simple.Jsoner}.
+ */
+public class ProjectingJsonMapper implements JsonMapper<JsonObject> {
+
+    private final Set<String> fields;
+
+    public ProjectingJsonMapper(String ... fields) {
+        this.fields = new HashSet<String>(Arrays.asList(fields));
+    }
+
+    public JsonObject read(JsonReader reader) throws IOException {
+        JsonObject result = new JsonObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!fields.contains(name)) {
+                reader.skipValue();
+                continue;
+            }
+            JsonReader.Token token = reader.peek();
+            if (token == JsonReader.Token.STRING) {
+                result.put(name, reader.nextString());
+            } else if (token == JsonReader.Token.NUMBER) {
+                result.put(name, reader.nextBigDecimal());
+            } else if (token == JsonReader.Token.BOOLEAN) {
+                result.put(name, reader.nextBoolean());
+            } else {
+                //nulls are the same as absent fields, nested values are not supported
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.notes.model.Commit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One instance of every author name and email, shared by all commits of the author.
+ * Big releases have thousands of commits from a handful of authors,
+ * without the table every commit would keep its own copies of the same strings.
+ */
+class AuthorTable {
+
+    private final Map<String, String> strings = new HashMap<String, String>();
+
+    String intern(String value) {
+        String existing = strings.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        strings.put(value, value);
+        return value;
+    }
+
+    /**
+     * The commit with author name and email from the table, the same instance if it already uses them.
+     * Only {@link GitCommit} can be changed, other commits are returned as they are.
+     */
+    Commit intern(Commit commit) {
+        if (!(commit instanceof GitCommit)) {
+            return commit;
+        }
+        String email = intern(commit.getAuthorEmail());
+        String name = intern(commit.getAuthorName());
+        if (email == commit.getAuthorEmail() && name == commit.getAuthorName()) {
+            return commit;
+        }
+        return ((GitCommit) commit).withAuthor(email, name);
+    }
+}
@@ -0,0 +1,85 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.exec.ProcessRunner;
+import org.shipkit.internal.notes.util.Function;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the commits from the output of 'git log', see {@link GitLogParser}
+ */
+class CommandLineGitLogProvider implements GitLogProvider {
+
+    private final ProcessRunner runner;
+
+    CommandLineGitLogProvider(ProcessRunner runner) {
+        this.runner = runner;
+    }
+
+    public <T> T getLog(String fromRev, String toRev, Function<GitCommitReader, T> commitsReader) {
+        fetch(Arrays.asList(toRev, fromRev));
+        return log(fromRev, toRev, commitsReader);
+    }
+
+    public <T> List<T> getLogs(List<String> revisions, Function<GitCommitReader, T> commitsReader) {
+        fetch(revisions);
+        return logs(revisions, commitsReader);
+    }
+
+    /**
+     * Makes sure that the revisions are available locally, all tags are fetched with one 'git fetch'.
+     *
+     * @param revisions newest first, see {@link GitLogProvider#getLogs(List, Function)}
+     */
+    void fetch(List<String> revisions) {
+        List<String> commandLine = new ArrayList<String>(Arrays.asList("git", "fetch", "origin"));
+        for (String tag : revisions.subList(1, revisions.size())) {
+            if (tag != null) {
+                commandLine.add("+refs/tags/" + tag + ":refs/tags/" + tag);
+            }
+        }
+        if (commandLine.size() == 3) {
+            //whole history of a single revision
+            commandLine.add(revisions.get(0));
+        }
+        runner.run(commandLine.toArray(new String[commandLine.size()]));
+    }
+
+    /**
+     * Runs 'git log' for every range, see {@link #log(String, String, Function)}
+     */
+    <T> List<T> logs(List<String> revisions, Function<GitCommitReader, T> commitsReader) {
+        List<T> result = new ArrayList<T>(revisions.size() - 1);
+        for (int i = 1; i < revisions.size(); i++) {
+            result.add(log(revisions.get(i), revisions.get(i - 1), commitsReader));
+        }
+        return result;
+    }
+
+    /**
+     * Hands the commits to the reader as they are produced by git, see {@link ProcessRunner#run(Function, List)}
+     */
+    <T> T log(String fromRev, String toRev, final Function<GitCommitReader, T> commitsReader) {
+        String log = fromRev == null ? toRev : fromRev + ".." + toRev;
+
+        List<String> commandLine = new ArrayList<String>();
+        commandLine.add("git");
+        commandLine.add("log");
+        commandLine.addAll(GitLogParser.LOG_OPTIONS);
+        commandLine.add(log);
+        return runner.run(new Function<InputStream, T>() {
+            public T apply(InputStream output) {
+                try {
+                    return commitsReader.apply(new GitLogParser(new InputStreamReader(output, "UTF-8")));
+                } catch (IOException e) {
+                    throw new RuntimeException("Problems reading git log", e);
+                }
+            }
+        }, commandLine);
+    }
+}
@@ -0,0 +1,140 @@
+package org.shipkit.internal.notes.vcs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Finds out if the commit message contains any of the configured phrases, for example "[ci skip]".
+ * <p>
+ * All phrases are matched at once with Aho-Corasick automaton, so the cost of the scan
+ * depends on the length of the message, not on the number of phrases. The scan stops at the first match.
+ * Tickets are found by {@link TicketParser}.
+ */
+class CommitMessageScanner {
+
+    //empty phrase is contained in every message
+    private final boolean matchesEveryMessage;
+
+    //the automaton, state 0 is the root
+    private final List<State> states = new ArrayList<State>();
+
+    CommitMessageScanner(Collection<String> phrases) {
+        states.add(new State());
+        boolean empty = false;
+        for (String phrase : phrases) {
+            if (phrase.length() == 0) {
+                empty = true;
+            } else {
+                addPhrase(phrase);
+            }
+        }
+        this.matchesEveryMessage = empty;
+        linkFailures();
+    }
+
+    /**
+     * If the message contains any of the phrases
+     */
+    boolean matchesAny(String message) {
+        if (matchesEveryMessage) {
+            return true;
+        }
+        if (states.size() == 1) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < message.length(); i++) {
+            state = next(state, message.charAt(i));
+            if (states.get(state).match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int next = states.get(state).get(c);
+            if (next != -1) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = states.get(state).failure;
+        }
+    }
+
+    private void addPhrase(String phrase) {
+        int state = 0;
+        for (int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            int next = states.get(state).get(c);
+            if (next == -1) {
+                next = states.size();
+                states.add(new State());
+                states.get(state).put(c, next);
+            }
+            state = next;
+        }
+        states.get(state).match = true;
+    }
+
+    /**
+     * Breadth first, so that the failure state of every state is linked before the state's children
+     */
+    private void linkFailures() {
+        LinkedList<Integer> queue = new LinkedList<Integer>();
+        State root = states.get(0);
+        for (int i = 0; i < root.size; i++) {
+            queue.add(root.next[i]);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.removeFirst();
+            State state = states.get(s);
+            for (int i = 0; i < state.size; i++) {
+                char c = state.chars[i];
+                int child = state.next[i];
+                State childState = states.get(child);
+                childState.failure = s == 0 ? 0 : next(state.failure, c);
+                //phrases that end with the same characters match too
+                if (states.get(childState.failure).match) {
+                    childState.match = true;
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * State of the automaton: transitions (sorted by character), failure state and if some phrase matches in this state
+     */
+    private static class State {
+        private char[] chars = new char[0];
+        private int[] next = new int[0];
+        private int size;
+        private int failure;
+        private boolean match;
+
+        int get(char c) {
+            int i = Arrays.binarySearch(chars, 0, size, c);
+            return i < 0 ? -1 : next[i];
+        }
+
+        void put(char c, int state) {
+            int i = -(Arrays.binarySearch(chars, 0, size, c) + 1);
+            if (size == chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(2, size * 2));
+                next = Arrays.copyOf(next, chars.length);
+            }
+            System.arraycopy(chars, i, chars, i + 1, size - i);
+            System.arraycopy(next, i, next, i + 1, size - i);
+            chars[i] = c;
+            next[i] = state;
+            size++;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.shipkit.internal.notes.vcs;
 
 import org.shipkit.internal.notes.model.ContributionSet;
 
+import java.util.List;
+
 /**
  * Knows the contributions
  */
@@ -11,4 +13,14 @@ public interface ContributionsProvider {
      * Provides contributions between specified revisions
      */
     ContributionSet getContributionsBetween(String fromRev, String toRev);
+
+    /**
+     * Provides contributions of consecutive revision ranges, the same as calling {@link #getContributionsBetween(String, String)}
+     * for every pair of adjacent revisions, but the history is read only once.
+     *
+     * @param revisions newest first, for example: "HEAD", "v1.1", "v1.0".
+     *                  The last revision can be null which means the whole history of the revision before it.
+     * @return contributions of every range, newest first, for example: "v1.1..HEAD", "v1.0..v1.1"
+     */
+    List<ContributionSet> getContributionsBetween(List<String> revisions);
 }
@@ -6,8 +6,8 @@ import org.shipkit.internal.notes.model.Contribution;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
 class DefaultContribution implements Contribution, Comparable<DefaultContribution> {
@@ -17,7 +17,11 @@ class DefaultContribution implements Contribution, Comparable<DefaultContributio
     //email identifies the contributor, author alias not necessarily
     final String authorEmail;
     final String authorName;
-    final List<Commit> commits = new LinkedList<Commit>();
+    final List<Commit> commits = new ArrayList<Commit>();
+
+    //used by DefaultContributionSet: the order in which contributions were created and the contribution this one was merged into
+    int order;
+    DefaultContribution mergedInto;
 
     DefaultContribution(Commit commit) {
         authorEmail = commit.getAuthorEmail();
@@ -13,38 +13,98 @@ class DefaultContributionSet implements ContributionSet {
 
     private static final String JSON_FORMAT = "{ \"commits\": %s }";
 
-    private final List<DefaultContribution> contributions = new LinkedList<DefaultContribution>();
+    private final List<DefaultContribution> contributions = new ArrayList<DefaultContribution>();
 
-    private final Collection<Commit> commits = new LinkedList<Commit>();
+    private final Collection<Commit> commits = new ArrayList<Commit>();
     private final Set<String> tickets = new LinkedHashSet<String>();
 
+    //commits of the same author share the name and email strings
+    private final AuthorTable authors = new AuthorTable();
+
+    //identity index, see add()
+    private final Map<String, DefaultContribution> byEmail = new HashMap<String, DefaultContribution>();
+    private final Map<String, DefaultContribution> byName = new HashMap<String, DefaultContribution>();
+
+    private int created;
+
+    //contributions sorted by commit count, kept up to date as commits are added
+    private final TreeSet<DefaultContribution> sorted = new TreeSet<DefaultContribution>(new ByCommitCount());
+    private final Collection<Contribution> sortedView = Collections.<Contribution>unmodifiableCollection(sorted);
+
     public DefaultContributionSet add(Commit commit) {
+        commit = authors.intern(commit);
         commits.add(commit);
         tickets.addAll(commit.getTickets());
 
-        DefaultContribution existing = findContribution(commit, contributions);
-        if (existing != null) {
-            existing.add(commit);
+        //From Git Log we don't know the GitHub user ID, only the email and name.
+        //Sometimes contributors have different email addresses while the same name
+        //This leads to awkward looking release notes, where same author is shown multiple times
+        //We consider the contribution to be the same if any of: email or name is the same.
+        //When a commit has the email of one contribution and the name of another, both contributions are merged.
+        //
+        //This approach comes with a caveat. What if the user have same author name, different email and indeed it is a different user?
+        // This scenario is not handled well but it is unlikely and we consider it a trade-off
+        DefaultContribution byEmailMatch = find(byEmail.get(commit.getAuthorEmail()));
+        DefaultContribution byNameMatch = find(byName.get(commit.getAuthorName()));
+
+        DefaultContribution contribution;
+        if (byEmailMatch == null && byNameMatch == null) {
+            contribution = new DefaultContribution(commit);
+            contribution.order = created++;
+            contributions.add(contribution);
+            sorted.add(contribution);
         } else {
-            contributions.add(new DefaultContribution(commit));
+            if (byEmailMatch == null || byNameMatch == null || byEmailMatch == byNameMatch) {
+                contribution = byEmailMatch != null ? byEmailMatch : byNameMatch;
+            } else {
+                contribution = merge(byEmailMatch, byNameMatch);
+            }
+            //the tree does not reindex when an already-added element changes
+            sorted.remove(contribution);
+            contribution.add(commit);
+            sorted.add(contribution);
+        }
+
+        if (!byEmail.containsKey(commit.getAuthorEmail())) {
+            byEmail.put(commit.getAuthorEmail(), contribution);
+        }
+        if (!byName.containsKey(commit.getAuthorName())) {
+            byName.put(commit.getAuthorName(), contribution);
         }
         return this;
     }
 
-    private static DefaultContribution findContribution(Commit commit, Iterable<DefaultContribution> contributions) {
-        for (DefaultContribution c : contributions) {
-            //From Git Log we don't know the GitHub user ID, only the email and name.
-            //Sometimes contributors have different email addresses while the same name
-            //This leads to awkward looking release notes, where same author is shown multiple times
-            //We consider the contribution to be the same if any of: email or name is the same
-            //
-            //This approach comes with a caveat. What if the user have same author name, different email and indeed it is a different user?
-            // This scenario is not handled well but it is unlikely and we consider it a trade-off
-            if (c.authorEmail.equals(commit.getAuthorEmail()) || c.authorName.equals(commit.getAuthorName())) {
-                return c;
+    /**
+     * The contribution that given contribution was merged into, with path compression
+     */
+    private static DefaultContribution find(DefaultContribution contribution) {
+        if (contribution == null || contribution.mergedInto == null) {
+            return contribution;
+        }
+        DefaultContribution root = find(contribution.mergedInto);
+        contribution.mergedInto = root;
+        return root;
+    }
+
+    /**
+     * Merges the newer contribution into the older one, the older one keeps the author
+     */
+    private DefaultContribution merge(DefaultContribution a, DefaultContribution b) {
+        DefaultContribution older = a.order < b.order ? a : b;
+        DefaultContribution newer = older == a ? b : a;
+
+        sorted.remove(older);
+        sorted.remove(newer);
+        for (Iterator<DefaultContribution> i = contributions.iterator(); i.hasNext();) {
+            if (i.next() == newer) {
+                i.remove();
+                break;
             }
         }
-        return null;
+        older.commits.addAll(newer.commits);
+        newer.mergedInto = older;
+        sorted.add(older);
+        return older;
     }
 
     public Collection<Commit> getAllCommits() {
@@ -55,11 +115,12 @@ class DefaultContributionSet implements ContributionSet {
         return tickets;
     }
 
+    /**
+     * Contributions sorted by commits count, see {@link DefaultContribution#compareTo(DefaultContribution)}.
+     * The returned collection is a read-only view, it is not copied on every call.
+     */
     public Collection<Contribution> getContributions() {
-        //sort the contributions by commits count
-        //we need to do it at the end instead of keeping tree set field
-        // because Contribution object is mutable and the tree will not reindex when an already-added element changes
-        return new TreeSet<Contribution>(contributions);
+        return sortedView;
     }
 
     public int getAuthorCount() {
@@ -105,6 +166,19 @@ class DefaultContributionSet implements ContributionSet {
         return result;
     }
 
+    /**
+     * Contributions with the same commits count and author name are different contributions, the older one goes first
+     */
+    private static class ByCommitCount implements Comparator<DefaultContribution> {
+        public int compare(DefaultContribution a, DefaultContribution b) {
+            int result = a.compareTo(b);
+            if (result != 0) {
+                return result;
+            }
+            return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+        }
+    }
+
     @Override
     public String toString() {
         return "DefaultContributionSet{" +
@@ -37,7 +37,7 @@ class DefaultReleasedVersionsProvider implements ReleasedVersionsProvider {
             String tag = tagPrefix + v;
             //the value of 'next' element in collection is the 'previous version' because the input versions are sorted descending
             String previous = (theVersions.size() > (i+1))? tagPrefix + theVersions.get(i+1) : null;
-            Date date = dateProvider.getDate(tag);
+            Date date = dateProvider.getDate(tag, tagPrefix);
             result.add(new DefaultReleasedVersion(v, date, tag, previous));
         }
 
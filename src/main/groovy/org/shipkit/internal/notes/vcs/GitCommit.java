@@ -5,7 +5,11 @@ import org.shipkit.internal.notes.model.Commit;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 class GitCommit implements Commit {
@@ -17,14 +21,30 @@ class GitCommit implements Commit {
     private final String email;
     private final String author;
     private final String message;
+    //parsed when the commit is built, unless they are known already. Ticket ids are numbers, see compact()
     private final Set<String> tickets;
 
     GitCommit(String commitId, String email, String author, String message) {
+        this(commitId, email, author, message, null);
+    }
+
+    /**
+     * Commit with tickets that were already parsed from the message, see {@link GitCommitStore} and {@link TicketParser}
+     */
+    GitCommit(String commitId, String email, String author, String message, Set<String> tickets) {
         this.commitId = commitId;
         this.email = email;
         this.author = author;
         this.message = message;
-        this.tickets = TicketParser.parseTickets(message);
+        this.tickets = compact(tickets != null ? tickets : TicketParser.parseTickets(message == null ? "" : message));
+    }
+
+    private GitCommit(GitCommit commit, String email, String author) {
+        this.commitId = commit.commitId;
+        this.email = email;
+        this.author = author;
+        this.message = commit.message;
+        this.tickets = commit.tickets;
     }
 
     @Override
@@ -48,6 +68,35 @@ class GitCommit implements Commit {
         return tickets;
     }
 
+    /**
+     * The same commit with canonical author, see {@link Mailmap} and {@link AuthorTable}
+     */
+    GitCommit withAuthor(String email, String author) {
+        return new GitCommit(this, email, author);
+    }
+
+    /**
+     * Tickets are kept as numbers. Ids that don't survive the round trip, like "007" or ids longer than 18 digits, are kept as strings.
+     */
+    private static Set<String> compact(Set<String> tickets) {
+        if (tickets.isEmpty()) {
+            return Collections.emptySet();
+        }
+        long[] ids = new long[tickets.size()];
+        int i = 0;
+        for (String ticket : tickets) {
+            if (ticket.length() > 18 || ticket.length() == 0 || (ticket.charAt(0) == '0' && ticket.length() > 1)) {
+                return Collections.unmodifiableSet(tickets);
+            }
+            try {
+                ids[i++] = Long.parseLong(ticket);
+            } catch (NumberFormatException e) {
+                return Collections.unmodifiableSet(tickets);
+            }
+        }
+        return new TicketIds(ids);
+    }
+
     @Override
     public String toJson() {
         return String.format(JSON_FORMAT,
@@ -85,7 +134,7 @@ class GitCommit implements Commit {
         if (message != null ? !message.equals(gitCommit.message) : gitCommit.message != null) {
             return false;
         }
-        return tickets != null ? tickets.equals(gitCommit.tickets) : gitCommit.tickets == null;
+        return tickets.equals(gitCommit.tickets);
     }
 
     @Override
@@ -94,7 +143,7 @@ class GitCommit implements Commit {
         result = 31 * result + (email != null ? email.hashCode() : 0);
         result = 31 * result + (author != null ? author.hashCode() : 0);
         result = 31 * result + (message != null ? message.hashCode() : 0);
-        result = 31 * result + (tickets != null ? tickets.hashCode() : 0);
+        result = 31 * result + tickets.hashCode();
         return result;
     }
 
@@ -104,8 +153,46 @@ class GitCommit implements Commit {
                 "commitId='" + commitId + '\'' +
                 ", email='" + email + '\'' +
                 ", author='" + author + '\'' +
-                ", message='" + message + '\'' +
+                ", message='" + getMessage() + '\'' +
                 ", tickets=" + tickets +
                 '}';
     }
+
+    /**
+     * Read-only view of the ticket ids as strings
+     */
+    private static class TicketIds extends AbstractSet<String> {
+        private final long[] ids;
+
+        TicketIds(long[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next;
+
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                public String next() {
+                    if (next == ids.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return Long.toString(ids[next++]);
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package org.shipkit.internal.notes.vcs;
+
+import java.io.IOException;
+
+/**
+ * Reads commits one at a time, so that memory use does not depend on the number of commits
+ */
+interface GitCommitReader {
+
+    /**
+     * Next commit, null when there are no more commits
+     */
+    GitCommit next() throws IOException;
+}
@@ -0,0 +1,481 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.notes.util.FileRegistry;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local, persistent store of commits that were already read from the repository: commit id -> parents, committer time,
+ * author, email, message and tickets. Commits never change, so the entries never get stale.
+ * <p>
+ * Parents and committer times make it possible to walk the history without reading commit objects,
+ * see {@link GitCommitWalker}. Hence, once the store is built, typical release only reads the commits made since the last release.
+ * Only parents, committer times and the positions of the records in the file are kept in memory.
+ * Author, message and tickets are read from the file when the commit is needed, see {@link #getCommit(String)}.
+ * <p>
+ * Commits are appended to the file, so that saving the store costs only the new commits. Each save is one write,
+ * a record that was cut short, for example when the build was killed, is dropped when the store is read.
+ * Commits stored twice, for example by concurrent builds, are tolerated. When the file has more duplicates than commits,
+ * or it cannot be appended to, it is rewritten to a temp file first and then renamed.
+ * The whole message is stored because ignored commits are recognized by phrases anywhere in the message, see {@link IgnoredCommit}.
+ */
+class GitCommitStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitCommitStore.class);
+
+    //bump when the format or the ticket parsing changes, the store is rebuilt from scratch then
+    private static final int VERSION = 2;
+
+    private static final FileRegistry<GitCommitStore> INSTANCES = new FileRegistry<GitCommitStore>() {
+        protected GitCommitStore create(File file) {
+            return new GitCommitStore(file);
+        }
+    };
+
+    private final File file;
+    private final Map<String, StoredCommit> commits = new HashMap<String, StoredCommit>();
+    //ids of the commits added since the store was loaded or saved
+    private final List<String> added = new ArrayList<String>();
+    private boolean loaded;
+    //if the file needs to be written from scratch instead of appended to
+    private boolean rewrite = true;
+
+    GitCommitStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the store of given repository, kept in given cache directory.
+     * The instances are shared so that all tasks in the build operate on the same store.
+     */
+    static GitCommitStore forRepository(File cacheDir, String repository) {
+        return INSTANCES.get(storeFile(cacheDir, repository));
+    }
+
+    /**
+     * For example: cacheDir/commits/mockito_shipkit.bin
+     */
+    static File storeFile(File cacheDir, String repository) {
+        return new File(cacheDir, "commits/" + IOUtil.toFileName(repository) + ".bin");
+    }
+
+    /**
+     * The commit with given id, null if it was not stored yet
+     */
+    synchronized StoredCommit get(String id) {
+        load();
+        return commits.get(id);
+    }
+
+    /**
+     * The commit with given id, read from the file unless it was added since the store was saved.
+     * Null if it was not stored yet or the record cannot be read, for example because another build has rewritten the file.
+     */
+    synchronized GitCommit getCommit(String id) {
+        StoredCommit stored = get(id);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.commit != null) {
+            return stored.commit;
+        }
+        RecordReader reader = null;
+        try {
+            reader = new RecordReader(file);
+            return reader.read(id, stored.offset);
+        } catch (IOException e) {
+            LOG.info("Unable to read commit " + id + " from " + file + ", problem: " + e.getMessage(), e);
+            return null;
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    /**
+     * Parses the commit object and stores the commit. Changes are written to the file by {@link #save()}.
+     */
+    synchronized StoredCommit add(String id, GitRawCommit raw) {
+        load();
+        List<String> parents = raw.getParents();
+        GitCommit commit = new GitCommit(id, raw.getAuthorEmail().trim(), raw.getAuthorName().trim(), raw.getMessage().trim());
+        StoredCommit stored = new StoredCommit(raw.getCommitTime(), parents.toArray(new String[parents.size()]), commit);
+        if (commits.put(id, stored) == null) {
+            added.add(id);
+        }
+        return stored;
+    }
+
+    /**
+     * Writes the commits added since the store was loaded or saved
+     */
+    synchronized void save() {
+        if (added.isEmpty()) {
+            return;
+        }
+        try {
+            if (rewrite || !file.isFile()) {
+                LOG.info("Storing {} commits in {}", commits.size(), file);
+                rewrite();
+                rewrite = false;
+            } else {
+                LOG.info("Storing {} new commit(s), {} commits in total, in {}", added.size(), commits.size(), file);
+                append();
+            }
+            added.clear();
+        } catch (IOException e) {
+            //we just lose the benefit of the store, commits will be read from the repository again
+            LOG.info("Unable to write commits to " + file + ", problem: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes all commits to a new file. Records of the old file are copied, commits that cannot be read anymore are dropped.
+     * The positions of the records are updated only when the new file is in place.
+     */
+    private void rewrite() throws IOException {
+        final Map<String, Long> offsets = new HashMap<String, Long>();
+        final RecordReader reader = file.isFile() ? new RecordReader(file) : null;
+        try {
+            IOUtil.writeAtomically(file, new IOUtil.Content() {
+                public void writeTo(OutputStream stream) throws IOException {
+                    DataOutputStream out = new DataOutputStream(stream);
+                    out.writeInt(VERSION);
+                    for (Map.Entry<String, StoredCommit> e : commits.entrySet()) {
+                        StoredCommit stored = e.getValue();
+                        GitCommit commit = stored.commit;
+                        if (commit == null) {
+                            try {
+                                if (reader == null) {
+                                    throw new IOException("the file was deleted");
+                                }
+                                commit = reader.read(e.getKey(), stored.offset);
+                            } catch (IOException ex) {
+                                LOG.info("Dropping commit {} from the store, problem: {}", e.getKey(), ex.getMessage());
+                                continue;
+                            }
+                        }
+                        offsets.put(e.getKey(), (long) out.size());
+                        write(out, e.getKey(), stored, commit);
+                    }
+                    out.flush();
+                }
+            });
+        } finally {
+            IOUtil.close(reader);
+        }
+        commits.keySet().retainAll(offsets.keySet());
+        for (Map.Entry<String, Long> e : offsets.entrySet()) {
+            commits.get(e.getKey()).saved(e.getValue());
+        }
+    }
+
+    /**
+     * All new records are written at once, so that appends of concurrent builds don't interleave.
+     * The file is locked while we append, so that we know where our records start.
+     */
+    private void append() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long[] offsets = new long[added.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            String id = added.get(i);
+            offsets[i] = out.size();
+            StoredCommit stored = commits.get(id);
+            write(out, id, stored, stored.commit);
+        }
+        out.flush();
+        FileOutputStream stream = new FileOutputStream(file, true);
+        try {
+            FileLock lock = stream.getChannel().lock();
+            try {
+                long start = stream.getChannel().size();
+                bytes.writeTo(stream);
+                for (int i = 0; i < offsets.length; i++) {
+                    commits.get(added.get(i)).saved(start + offsets[i]);
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            IOUtil.close(stream);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.isFile()) {
+            return;
+        }
+        DataInputStream in = null;
+        int records = 0;
+        try {
+            CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+            in = new DataInputStream(counter);
+            if (in.readInt() != VERSION) {
+                LOG.info("Commits in {} were stored by different version, the store will be rebuilt", file);
+                return;
+            }
+            while (true) {
+                long offset = counter.count;
+                String id = readNextId(in);
+                if (id == null) {
+                    break;
+                }
+                commits.put(id, readHistory(in, offset));
+                records++;
+            }
+            rewrite = records > 2 * commits.size();
+        } catch (EOFException e) {
+            //the last record was cut short, the commits before it are fine
+            LOG.info("Commits in {} end with incomplete record, the store will be rewritten", file);
+        } catch (IOException e) {
+            //the store will be rebuilt from scratch
+            LOG.info("Unable to read commits from " + file + ", problem: " + e.getMessage(), e);
+            commits.clear();
+        } finally {
+            IOUtil.close(in);
+        }
+    }
+
+    private static void write(DataOutputStream out, String id, StoredCommit stored, GitCommit commit) throws IOException {
+        out.write(GitObjectDatabase.toBinary(id));
+        out.writeLong(stored.commitTime);
+        out.writeShort(stored.parents.length);
+        for (String parent : stored.parents) {
+            out.write(GitObjectDatabase.toBinary(parent));
+        }
+        writeString(out, commit.getAuthorName());
+        writeString(out, commit.getAuthorEmail());
+        writeString(out, commit.getMessage());
+        out.writeShort(commit.getTickets().size());
+        for (String ticket : commit.getTickets()) {
+            writeString(out, ticket);
+        }
+    }
+
+    /**
+     * Reads the place of the commit in the history and skips the rest of the record
+     */
+    private static StoredCommit readHistory(DataInputStream in, long offset) throws IOException {
+        long commitTime = in.readLong();
+        String[] parents = readParents(in);
+        //author, email and message
+        for (int i = 0; i < 3; i++) {
+            skipBytes(in);
+        }
+        int ticketCount = in.readUnsignedShort();
+        for (int i = 0; i < ticketCount; i++) {
+            skipBytes(in);
+        }
+        StoredCommit stored = new StoredCommit(commitTime, parents, null);
+        stored.saved(offset);
+        return stored;
+    }
+
+    /**
+     * Reads the rest of the record, after the parents
+     */
+    private static GitCommit readCommit(DataInputStream in, String id) throws IOException {
+        String author = readString(in);
+        String email = readString(in);
+        String message = readString(in);
+        int ticketCount = in.readUnsignedShort();
+        Set<String> tickets = new LinkedHashSet<String>(ticketCount);
+        for (int i = 0; i < ticketCount; i++) {
+            tickets.add(readString(in));
+        }
+        return new GitCommit(id, email, author, message, tickets);
+    }
+
+    private static String[] readParents(DataInputStream in) throws IOException {
+        String[] parents = new String[in.readUnsignedShort()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = readId(in);
+        }
+        return parents;
+    }
+
+    /**
+     * Id of the next record, null at the end of the file
+     */
+    private static String readNextId(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        byte[] id = new byte[20];
+        id[0] = (byte) first;
+        in.readFully(id, 1, id.length - 1);
+        return GitObjectDatabase.toHex(ByteBuffer.wrap(id), 0);
+    }
+
+    private static String readId(DataInputStream in) throws IOException {
+        byte[] id = new byte[20];
+        in.readFully(id);
+        return GitObjectDatabase.toHex(ByteBuffer.wrap(id), 0);
+    }
+
+    /**
+     * Length and UTF-8 bytes, unlike {@link DataOutputStream#writeUTF(String)} it is not limited to 64KB
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes("UTF-8"));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), "UTF-8");
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void skipBytes(DataInputStream in) throws IOException {
+        int length = readLength(in);
+        while (length > 0) {
+            int skipped = in.skipBytes(length);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            length -= skipped;
+        }
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Reads records at given positions of the store file
+     */
+    private static class RecordReader implements Closeable {
+        private final FileInputStream file;
+
+        RecordReader(File file) throws IOException {
+            this.file = new FileInputStream(file);
+        }
+
+        /**
+         * Commit of the record at given position. Records start with the commit id, so we know if the file was rewritten.
+         */
+        GitCommit read(String id, long offset) throws IOException {
+            file.getChannel().position(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(file));
+            if (!id.equals(readId(in))) {
+                throw new IOException("Commit " + id + " is not at position " + offset + ", the file was changed");
+            }
+            in.readLong();
+            readParents(in);
+            return readCommit(in, id);
+        }
+
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /**
+     * Counts the bytes read, so that we know where the records start
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Place of the commit in the history. The rest of the commit is kept only until it is written to the file.
+     */
+    static class StoredCommit {
+        private final long commitTime;
+        private final String[] parents;
+        //not saved yet
+        private GitCommit commit;
+        //position of the record in the file, once saved
+        private long offset = -1;
+
+        StoredCommit(long commitTime, String[] parents, GitCommit commit) {
+            this.commitTime = commitTime;
+            this.parents = parents;
+            this.commit = commit;
+        }
+
+        private void saved(long offset) {
+            this.offset = offset;
+            this.commit = null;
+        }
+
+        /**
+         * Committer date in seconds since the epoch
+         */
+        long getCommitTime() {
+            return commitTime;
+        }
+
+        List<String> getParents() {
+            return Arrays.asList(parents);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.shipkit.internal.notes.vcs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Walks the history like 'git log from..to' does: commits are visited newest first (by committer date)
+ * and commits reachable from 'from' are excluded.
+ * Several consecutive ranges, like 'v1.1..HEAD' and 'v1.0..v1.1', can be walked at once,
+ * every visited commit remembers which of the revisions it is reachable from.
+ * Only ids, dates and parents of the visited commits are kept in memory, commit objects are not retained.
+ */
+class GitCommitWalker {
+
+    //like git, keeps walking a few commits after everything left is excluded, in case of clock skew
+    private static final int SLOP = 5;
+
+    /**
+     * Max number of ranges walked at once, reachability is kept as bits of a long
+     */
+    static final int MAX_RANGES = 63;
+
+    private final GitObjectDatabase database;
+    private final Set<String> shallow;
+    private final GitCommitStore store;
+    private final Map<String, Node> nodes = new HashMap<String, Node>();
+    private final PriorityQueue<Node> queue = new PriorityQueue<Node>(64, new Comparator<Node>() {
+        public int compare(Node a, Node b) {
+            if (a.time != b.time) {
+                return a.time > b.time ? -1 : 1;
+            }
+            return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+        }
+    });
+    private int interestingInQueue;
+
+    /**
+     * @param shallow commits of a shallow clone whose parents are not in the repository
+     */
+    GitCommitWalker(GitObjectDatabase database, Set<String> shallow) {
+        this(database, shallow, null);
+    }
+
+    /**
+     * @param shallow commits of a shallow clone whose parents are not in the repository
+     * @param store nullable, parents and dates of stored commits are taken from the store
+     *              and commits read from the repository are added to it
+     */
+    GitCommitWalker(GitObjectDatabase database, Set<String> shallow, GitCommitStore store) {
+        this.database = database;
+        this.shallow = shallow;
+        this.store = store;
+    }
+
+    /**
+     * Ids of commits reachable from 'to' but not from 'from', newest first.
+     *
+     * @param from commit id, null means the whole history of 'to'
+     * @param to commit id
+     */
+    List<String> walk(String from, String to) throws IOException {
+        return walk(Arrays.asList(to, from)).get(0);
+    }
+
+    /**
+     * Ids of commits of consecutive ranges: 'commits[1]..commits[0]', 'commits[2]..commits[1]', ..., every range newest first.
+     * The ranges are separated in one walk only when every commit is an ancestor of the commit before it,
+     * like tags of releases made from one branch. Otherwise, or when there are more than {@link #MAX_RANGES} ranges,
+     * null is returned and the ranges need to be walked separately.
+     * The commits of every range are the same as walked separately, but when commit dates are skewed
+     * a commit can be visited a bit earlier than in a separate walk, because it is reachable from more revisions.
+     *
+     * @param commits commit ids, newest first. The last one can be null which means the whole history of the commit before it.
+     */
+    List<List<String>> walk(List<String> commits) throws IOException {
+        int ranges = commits.size() - 1;
+        if (ranges > MAX_RANGES) {
+            return null;
+        }
+        for (int i = 0; i < ranges; i++) {
+            add(commits.get(i), 1L << i, false);
+        }
+        String from = commits.get(ranges);
+        if (from != null) {
+            add(from, 0, true);
+        }
+
+        List<Node> visited = new ArrayList<Node>();
+        int slop = SLOP;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.queued = false;
+            if (!node.uninteresting) {
+                interestingInQueue--;
+            }
+            for (String parent : node.parents) {
+                add(parent, node.reachable, node.uninteresting);
+            }
+            if (node.uninteresting) {
+                if (interestingInQueue == 0) {
+                    if (--slop == 0) {
+                        break;
+                    }
+                } else {
+                    slop = SLOP;
+                }
+                continue;
+            }
+            visited.add(node);
+        }
+
+        if (ranges > 1 && !isLinear(commits)) {
+            return null;
+        }
+        List<List<String>> result = new ArrayList<List<String>>(ranges);
+        for (int i = 0; i < ranges; i++) {
+            result.add(new ArrayList<String>());
+        }
+        for (Node node : visited) {
+            //could have been excluded after it was visited
+            if (!node.uninteresting) {
+                //with linear history the commit belongs to the oldest revision it is reachable from
+                int range = 63 - Long.numberOfLeadingZeros(node.reachable);
+                result.get(range).add(node.id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * If every commit is reachable from the commit before it
+     */
+    private boolean isLinear(List<String> commits) {
+        for (int i = 1; i < commits.size(); i++) {
+            String commit = commits.get(i);
+            if (commit != null && (nodes.get(commit).reachable & (1L << (i - 1))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(String id, long reachable, boolean uninteresting) throws IOException {
+        Node node = nodes.get(id);
+        if (node != null) {
+            if (uninteresting) {
+                markUninteresting(node);
+            }
+            markReachable(node, reachable);
+            return;
+        }
+        long time;
+        List<String> parents;
+        GitCommitStore.StoredCommit stored = store == null ? null : store.get(id);
+        if (stored != null) {
+            time = stored.getCommitTime();
+            parents = stored.getParents();
+        } else {
+            GitRawCommit commit = readCommit(database, id);
+            if (store != null) {
+                store.add(id, commit);
+            }
+            time = commit.getCommitTime();
+            parents = commit.getParents();
+        }
+        if (shallow.contains(id)) {
+            parents = Collections.emptyList();
+        }
+        node = new Node(id, time, parents.toArray(new String[parents.size()]), nodes.size());
+        node.uninteresting = uninteresting;
+        node.reachable = reachable;
+        node.queued = true;
+        if (!uninteresting) {
+            interestingInQueue++;
+        }
+        nodes.put(id, node);
+        queue.add(node);
+    }
+
+    static GitRawCommit readCommit(GitObjectDatabase database, String id) throws IOException {
+        GitObjectDatabase.GitObject object = database.read(id);
+        if (object == null || object.getType() != GitObjectDatabase.COMMIT) {
+            throw new IOException("Missing commit " + id);
+        }
+        return GitRawCommit.parse(object.getData());
+    }
+
+    /**
+     * Excludes the commit and its ancestors that were already visited
+     */
+    private void markUninteresting(Node start) {
+        LinkedList<Node> stack = new LinkedList<Node>();
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.removeLast();
+            if (node.uninteresting) {
+                continue;
+            }
+            node.uninteresting = true;
+            if (node.queued) {
+                interestingInQueue--;
+                //parents are not visited yet, they will be excluded when the node is visited
+                continue;
+            }
+            for (String parent : node.parents) {
+                Node p = nodes.get(parent);
+                if (p != null) {
+                    stack.add(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the commit and its ancestors that were already visited as reachable from more revisions.
+     * Excluded commits are marked too, but not their ancestors.
+     */
+    private void markReachable(Node start, long reachable) {
+        LinkedList<Node> stack = new LinkedList<Node>();
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.removeLast();
+            if ((node.reachable | reachable) == node.reachable) {
+                continue;
+            }
+            node.reachable |= reachable;
+            if (node.queued || node.uninteresting) {
+                //parents get the bits when the node is visited
+                continue;
+            }
+            for (String parent : node.parents) {
+                Node p = nodes.get(parent);
+                if (p != null) {
+                    stack.add(p);
+                }
+            }
+        }
+    }
+
+    private static class Node {
+        private final String id;
+        private final long time;
+        private final String[] parents;
+        private final int order;
+        private boolean uninteresting;
+        private boolean queued;
+        //bit 'i' means that the commit is reachable from the 'i'-th revision of the walk
+        private long reachable;
+
+        Node(String id, long time, String[] parents, int order) {
+            this.id = id;
+            this.time = time;
+            this.parents = parents;
+            this.order = order;
+        }
+    }
+}
@@ -2,62 +2,75 @@ package org.shipkit.internal.notes.vcs;
 
 import org.shipkit.internal.notes.model.Commit;
 import org.shipkit.internal.notes.model.ContributionSet;
+import org.shipkit.internal.notes.util.Function;
 import org.shipkit.internal.notes.util.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.List;
 
 class GitContributionsProvider implements ContributionsProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(GitContributionsProvider.class);
     private final GitLogProvider logProvider;
     private final Predicate<Commit> ignoredCommit;
+    private final Mailmap mailmap;
 
     GitContributionsProvider(GitLogProvider logProvider, Predicate<Commit> ignoredCommit) {
+        this(logProvider, ignoredCommit, Mailmap.EMPTY);
+    }
+
+    /**
+     * @param mailmap canonical authors, applied before the commits are grouped into contributions
+     */
+    GitContributionsProvider(GitLogProvider logProvider, Predicate<Commit> ignoredCommit, Mailmap mailmap) {
         this.logProvider = logProvider;
         this.ignoredCommit = ignoredCommit;
+        this.mailmap = mailmap;
     }
 
     public ContributionSet getContributionsBetween(String fromRev, String toRev) {
         LOG.info("Fetching {} from the repo", fromRev);
+        LOG.info("Loading all commits between {} and {}", fromRev, toRev);
 
-        Collection<Commit> commits = getCommits(fromRev, toRev);
-
-        DefaultContributionSet contributions = new DefaultContributionSet();
-        for (Commit commit : commits) {
-            if (!ignoredCommit.isTrue(commit)) {
-                contributions.add(commit);
-            }
-        }
-        return contributions;
+        return logProvider.getLog(fromRev, toRev, new ContributionsReader());
     }
 
-    private Collection<Commit> getCommits(String fromRev, String toRev) {
-        LOG.info("Loading all commits between {} and {}", fromRev, toRev);
+    public List<ContributionSet> getContributionsBetween(List<String> revisions) {
+        LOG.info("Loading all commits of revisions {}", revisions);
+
+        return logProvider.getLogs(revisions, new ContributionsReader());
+    }
 
-        LinkedList<Commit> commits = new LinkedList<Commit>();
-        String commitToken = "@@commit@@";
-        String infoToken = "@@info@@";
-        // %H: commit hash
-        // %ae: author email
-        // %an: author name
-        // %B: raw body (unwrapped subject and body)
-        // %N: commit notes
-        String log = logProvider.getLog(fromRev, toRev, "--pretty=format:%H" + infoToken + "%ae" + infoToken + "%an" + infoToken + "%B%N" + commitToken);
-
-        for (String entry : log.split(commitToken)) {
-            String[] entryParts = entry.split(infoToken);
-            if (entryParts.length == 4) {
-                String commitId = entryParts[0].trim();
-                String email = entryParts[1].trim();
-                String author = entryParts[2].trim();
-                String message = entryParts[3].trim();
-                LOG.info("Loaded commit - email: {}, author: {}, message (trimmed): {}", email, author, message.replaceAll("\n.*", ""));
-                commits.add(new GitCommit(commitId, email, author, message));
+    /**
+     * Commits are added as they are read, without holding the whole log in memory
+     */
+    private class ContributionsReader implements Function<GitCommitReader, ContributionSet> {
+        public ContributionSet apply(GitCommitReader log) {
+            DefaultContributionSet contributions = new DefaultContributionSet();
+            try {
+                GitCommit commit;
+                while ((commit = log.next()) != null) {
+                    commit = mailmap.map(commit);
+                    if (LOG.isInfoEnabled()) {
+                        LOG.info("Loaded commit - email: {}, author: {}, message (trimmed): {}",
+                                commit.getAuthorEmail(), commit.getAuthorName(), firstLine(commit.getMessage()));
+                    }
+                    //the commit keeps its tickets, stored ones are reused and the message is only scanned for ignored phrases
+                    if (!ignoredCommit.isTrue(commit)) {
+                        contributions.add(commit);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Problems reading git log", e);
             }
+            return contributions;
         }
-        return commits;
+    }
+
+    private static String firstLine(String message) {
+        int end = message.indexOf('\n');
+        return end == -1 ? message : message.substring(0, end);
     }
 }
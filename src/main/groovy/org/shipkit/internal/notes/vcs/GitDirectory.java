@@ -0,0 +1,333 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.regex.Pattern;
+
+/**
+ * Reads HEAD, refs and config straight from the '.git' directory, so that simple questions
+ * like "what is the current branch" or "what is the commit of this branch" don't need a git process.
+ * <p>
+ * Only the plain repository layout is supported. For other layouts (worktrees, submodules, reftable, GIT_DIR override)
+ * {@link #find(File)} returns null and for questions the files cannot answer reliably the methods return null.
+ * In both cases the caller needs to ask git.
+ */
+public class GitDirectory {
+
+    private static final String HEADS = "refs/heads/";
+    private static final String TAGS = "refs/tags/";
+    private static final String REMOTES = "refs/remotes/";
+    private static final String SYMREF = "ref: ";
+    private static final int MAX_SYMREF_DEPTH = 5;
+
+    private static final Pattern SHA = Pattern.compile("[0-9a-f]{40}");
+    //revision expressions like 'HEAD~1', 'v1.0^{commit}' or 'a..b' are left to git
+    private static final Pattern REF_NAME = Pattern.compile("[^\\s~^:?*\\[\\\\@{}]+");
+
+    private final File gitDir;
+
+    GitDirectory(File gitDir) {
+        this.gitDir = gitDir;
+    }
+
+    /**
+     * The '.git' directory of the repository that contains given work dir,
+     * null if it was not found or the layout is not supported.
+     */
+    public static GitDirectory find(File workDir) {
+        if (System.getenv("GIT_DIR") != null) {
+            return null;
+        }
+        File dir = workDir.getAbsoluteFile();
+        while (dir != null) {
+            File git = new File(dir, ".git");
+            if (git.isFile()) {
+                //worktree or submodule, '.git' file points to the real git dir
+                return null;
+            }
+            if (git.isDirectory()) {
+                if (new File(git, "commondir").exists() || new File(git, "reftable").exists()) {
+                    return null;
+                }
+                GitDirectory result = new GitDirectory(git);
+                return result.isPlainConfig() ? result : null;
+            }
+            dir = dir.getParentFile();
+        }
+        return null;
+    }
+
+    /**
+     * Config without features that change where refs are stored or how urls are resolved
+     */
+    private boolean isPlainConfig() {
+        String config = IOUtil.readFullyOrDefault(new File(gitDir, "config"), "").toLowerCase();
+        return !config.contains("refstorage") && !config.contains("worktreeconfig")
+                && !config.contains("insteadof") && !config.contains("[include");
+    }
+
+    /**
+     * Short name of the current branch, the same as 'git rev-parse --abbrev-ref HEAD':
+     * 'HEAD' when the head is detached, null if the branch does not have commits yet or it can't be determined.
+     */
+    public String getCurrentBranch() {
+        String head = readFirstLine(new File(gitDir, "HEAD"));
+        if (head == null) {
+            return null;
+        }
+        if (SHA.matcher(head).matches()) {
+            return "HEAD";
+        }
+        if (!head.startsWith(SYMREF + HEADS) || resolveRef("HEAD") == null) {
+            return null;
+        }
+        return head.substring(SYMREF.length() + HEADS.length());
+    }
+
+    /**
+     * The commit of given branch, remote branch, tag or 'HEAD', looked up in the same order as 'git rev-parse' does.
+     * Returns null when the commit can't be determined from the files, for example:
+     * the name is a revision expression, the ref does not exist or it is a tag that may point to a tag object.
+     */
+    public String getCommit(String name) {
+        String ref = findRef(name);
+        if (ref == null) {
+            return null;
+        }
+        return ref.startsWith(TAGS) ? resolvePackedTag(ref) : resolveRef(ref);
+    }
+
+    /**
+     * The object the ref of given name points to, not peeled: for annotated tags it is the tag object.
+     * Returns null when the name is not a ref or the ref does not exist.
+     */
+    String getObjectId(String name) {
+        String ref = findRef(name);
+        return ref == null ? null : resolveRef(ref);
+    }
+
+    /**
+     * Full name of the ref, the first existing ref in 'git rev-parse' lookup order
+     */
+    private String findRef(String name) {
+        if (!REF_NAME.matcher(name).matches() || name.contains("..")) {
+            return null;
+        }
+        if (SHA.matcher(name).matches()) {
+            //could be a tag object, left to git
+            return null;
+        }
+        if (name.equals("HEAD")) {
+            return name;
+        }
+        String[] candidates = name.startsWith("refs/") ? new String[] {name} : new String[] {
+                "refs/" + name, TAGS + name, HEADS + name, REMOTES + name, REMOTES + name + "/HEAD"};
+        for (String ref : candidates) {
+            if (exists(ref)) {
+                return ref;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * If there are refs with given prefix, for example "refs/notes/"
+     */
+    boolean hasRefs(String prefix) {
+        if (hasFiles(new File(gitDir, prefix))) {
+            return true;
+        }
+        BufferedReader reader = null;
+        try {
+            File packedRefs = new File(gitDir, "packed-refs");
+            if (!packedRefs.isFile()) {
+                return false;
+            }
+            reader = open(packedRefs);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix, 41)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            //we don't know, better assume there are
+            return true;
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    private static boolean hasFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return false;
+        }
+        for (File f : files) {
+            if (f.isFile() || hasFiles(f)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The '.git' directory
+     */
+    File getGitDir() {
+        return gitDir;
+    }
+
+    /**
+     * Url of given remote from the config, the same as 'git remote get-url', null if the remote is not configured
+     */
+    public String getRemoteUrl(String remote) {
+        File config = new File(gitDir, "config");
+        if (!config.isFile()) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = open(config);
+            String section = "[remote \"" + remote + "\"]";
+            boolean inSection = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("[")) {
+                    inSection = line.equals(section);
+                } else if (inSection) {
+                    int separator = line.indexOf('=');
+                    if (separator != -1 && line.substring(0, separator).trim().equalsIgnoreCase("url")) {
+                        return configValue(line.substring(separator + 1));
+                    }
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    /**
+     * Value without comments and surrounding quotes, values with escape sequences are not expected in urls
+     */
+    private static String configValue(String value) {
+        value = value.trim();
+        if (value.startsWith("\"") && value.endsWith("\"") && value.length() > 1) {
+            return value.substring(1, value.length() - 1);
+        }
+        int comment = indexOfComment(value);
+        return comment == -1 ? value : value.substring(0, comment).trim();
+    }
+
+    private static int indexOfComment(String value) {
+        int hash = value.indexOf(" #");
+        int semicolon = value.indexOf(" ;");
+        if (hash == -1 || semicolon == -1) {
+            return Math.max(hash, semicolon);
+        }
+        return Math.min(hash, semicolon);
+    }
+
+    private boolean exists(String ref) {
+        return new File(gitDir, ref).isFile() || findPacked(ref) != null;
+    }
+
+    /**
+     * Follows symbolic refs, loose refs take precedence over packed ones
+     */
+    private String resolveRef(String ref) {
+        for (int i = 0; i < MAX_SYMREF_DEPTH; i++) {
+            String value = readFirstLine(new File(gitDir, ref));
+            if (value == null) {
+                String[] packed = findPacked(ref);
+                return packed == null ? null : packed[0];
+            }
+            if (!value.startsWith(SYMREF)) {
+                return SHA.matcher(value).matches() ? value : null;
+            }
+            ref = value.substring(SYMREF.length());
+        }
+        return null;
+    }
+
+    /**
+     * Annotated tags need to be peeled to the commit. Only packed-refs knows it without reading the tag object.
+     */
+    private String resolvePackedTag(String ref) {
+        if (new File(gitDir, ref).isFile()) {
+            return null;
+        }
+        String[] packed = findPacked(ref);
+        if (packed == null) {
+            return null;
+        }
+        return packed[1];
+    }
+
+    /**
+     * Finds the ref in packed-refs file, returns the object and the peeled commit.
+     * The peeled commit is null if the file does not say whether the ref needs to be peeled.
+     */
+    private String[] findPacked(String ref) {
+        File packedRefs = new File(gitDir, "packed-refs");
+        if (!packedRefs.isFile()) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = open(packedRefs);
+            boolean peeled = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    //'peeled' (tags) and 'fully-peeled' (all refs) mean that a ref without '^' line is not a tag object
+                    peeled = line.contains(" peeled") || line.contains(" fully-peeled");
+                    continue;
+                }
+                if (line.endsWith(" " + ref) && line.length() == 41 + ref.length()) {
+                    String object = line.substring(0, 40);
+                    String next = reader.readLine();
+                    if (next != null && next.startsWith("^")) {
+                        return new String[] {object, next.substring(1).trim()};
+                    }
+                    return new String[] {object, peeled ? object : null};
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    private static String readFirstLine(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = open(file);
+            String line = reader.readLine();
+            return line == null ? null : line.trim();
+        } catch (IOException e) {
+            return null;
+        } finally {
+            IOUtil.close(reader);
+        }
+    }
+
+    private static BufferedReader open(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+    }
+}
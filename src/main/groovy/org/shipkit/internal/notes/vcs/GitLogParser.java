@@ -0,0 +1,73 @@
+package org.shipkit.internal.notes.vcs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads commits from 'git log' output one at a time, so that memory use does not depend on the number of commits.
+ * The log needs to be produced with {@link #LOG_OPTIONS}: every field is terminated with NUL character
+ * which cannot be present in commit data, so no text in the commit message can break the parsing.
+ */
+class GitLogParser implements GitCommitReader {
+
+    // -z: NUL after each commit
+    // %H: commit hash
+    // %ae: author email
+    // %an: author name
+    // %B: raw body (unwrapped subject and body)
+    // %N: commit notes
+    // %x00: NUL after each field
+    static final List<String> LOG_OPTIONS = Arrays.asList("-z", "--pretty=tformat:%H%x00%ae%x00%an%x00%B%N");
+
+    private static final int FIELDS = 4;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    GitLogParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Next commit from the log, null when there are no more commits.
+     * Incomplete commit at the end of the log is ignored.
+     */
+    public GitCommit next() throws IOException {
+        String[] fields = new String[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = nextField();
+            if (fields[i] == null) {
+                return null;
+            }
+        }
+        return new GitCommit(fields[0].trim(), fields[1].trim(), fields[2].trim(), fields[3].trim());
+    }
+
+    private String nextField() throws IOException {
+        StringBuilder field = new StringBuilder();
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit == -1) {
+                    limit = 0;
+                    return null;
+                }
+            }
+            int start = position;
+            while (position < limit) {
+                if (buffer[position] == '\0') {
+                    field.append(buffer, start, position - start);
+                    position++;
+                    return field.toString();
+                }
+                position++;
+            }
+            field.append(buffer, start, limit - start);
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package org.shipkit.internal.notes.vcs;
 
-import org.shipkit.internal.exec.ProcessRunner;
+import org.shipkit.internal.notes.util.Function;
 
-class GitLogProvider {
+import java.util.List;
 
-    private final ProcessRunner runner;
+/**
+ * Provides commits like 'git log' does: newest first, with full messages
+ */
+interface GitLogProvider {
 
-    GitLogProvider(ProcessRunner runner) {
-        this.runner = runner;
-    }
+    /**
+     * Fetches the revisions from 'origin' if needed and hands the commits between them to the reader.
+     *
+     * @param fromRev the commits reachable from this revision are excluded, null means the whole history of 'toRev'
+     * @param toRev the newest revision
+     * @param commitsReader reads the commits, does not need to read all of them
+     * @return the value returned by the reader
+     */
+    <T> T getLog(String fromRev, String toRev, Function<GitCommitReader, T> commitsReader);
 
-    public String getLog(String fromRev, String toRev, String format) {
-        String fetch = fromRev == null ? toRev : "+refs/tags/" + fromRev + ":refs/tags/" + fromRev;
-        String log = fromRev == null ? toRev : fromRev + ".." + toRev;
-
-        runner.run("git", "fetch", "origin", fetch);
-        return runner.run("git", "log", format, log);
-    }
+    /**
+     * Same as {@link #getLog(String, String, Function)} for every pair of adjacent revisions,
+     * but the revisions are fetched together and the history may be walked only once.
+     *
+     * @param revisions newest first, the last revision can be null which means the whole history of the revision before it
+     * @param commitsReader reads the commits of one range, it is called for every range
+     * @return the values returned by the reader, newest range first
+     */
+    <T> List<T> getLogs(List<String> revisions, Function<GitCommitReader, T> commitsReader);
 }
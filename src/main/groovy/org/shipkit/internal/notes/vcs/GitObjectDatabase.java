@@ -0,0 +1,479 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.notes.util.IOUtil;
+import org.shipkit.internal.notes.util.LruMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads objects straight from '.git/objects': loose objects and objects in pack files.
+ * Pack files and their indexes are memory-mapped, so only the objects that are read take heap space.
+ * Objects stored as deltas are reconstructed from their bases.
+ * <p>
+ * Repositories that borrow objects from other repositories (alternates) and pack files larger than 2GB
+ * are not supported, see {@link UnsupportedRepositoryException}.
+ * Corrupted data is reported with {@link IOException}, so that callers can fall back to 'git'.
+ * Not thread safe, intended to be used by a single walk over the history.
+ * Needs to be closed to release the native memory of the inflater and the mapped pack files.
+ */
+class GitObjectDatabase implements Closeable {
+
+    static final int COMMIT = 1;
+    static final int TREE = 2;
+    static final int BLOB = 3;
+    static final int TAG = 4;
+    private static final int OFS_DELTA = 6;
+    private static final int REF_DELTA = 7;
+
+    private static final String[] TYPE_NAMES = {null, "commit", "tree", "blob", "tag"};
+
+    private final File objectsDir;
+    private final Inflater inflater = new Inflater();
+    private final byte[] chunk = new byte[8192];
+    private List<Pack> packs;
+    private boolean closed;
+
+    GitObjectDatabase(File gitDir) {
+        this.objectsDir = new File(gitDir, "objects");
+        if (new File(objectsDir, "info/alternates").exists()) {
+            throw new UnsupportedRepositoryException("objects borrowed from other repositories (alternates)");
+        }
+    }
+
+    /**
+     * The object of given id, null if it is not in the repository
+     */
+    GitObject read(String id) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Object database is closed");
+        }
+        byte[] binaryId = toBinary(id);
+        for (Pack pack : getPacks()) {
+            long offset = pack.find(binaryId);
+            if (offset != -1) {
+                return pack.read(offset);
+            }
+        }
+        return readLoose(id);
+    }
+
+    private GitObject readLoose(String id) throws IOException {
+        File file = new File(objectsDir, id.substring(0, 2) + "/" + id.substring(2));
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] compressed = readFile(file);
+        inflater.reset();
+        inflater.setInput(compressed);
+        //header: "<type> <size>\0"
+        byte[] header = new byte[32];
+        int headerLength = 0;
+        try {
+            while (headerLength < header.length && inflater.inflate(header, headerLength, 1) == 1) {
+                if (header[headerLength] == 0) {
+                    break;
+                }
+                headerLength++;
+            }
+            String[] typeAndSize = new String(header, 0, headerLength, "US-ASCII").split(" ");
+            if (typeAndSize.length != 2 || !typeAndSize[1].matches("[0-9]{1,9}")) {
+                throw new IOException("Corrupted object " + id + ", unexpected header");
+            }
+            int type = typeOf(typeAndSize[0]);
+            byte[] data = new byte[Integer.parseInt(typeAndSize[1])];
+            inflateFully(data);
+            return new GitObject(type, data);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted object " + id + ": " + e.getMessage());
+        }
+    }
+
+    private static int typeOf(String name) throws IOException {
+        for (int i = 1; i < TYPE_NAMES.length; i++) {
+            if (TYPE_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IOException("Unknown object type: " + name);
+    }
+
+    private void inflateFully(byte[] data) throws DataFormatException, IOException {
+        int done = 0;
+        while (done < data.length) {
+            if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) {
+                throw new IOException("Unexpected end of compressed data");
+            }
+            done += inflater.inflate(data, done, data.length - done);
+        }
+    }
+
+    /**
+     * Ends the inflater and drops the packs. Mapped buffers cannot be unmapped explicitly,
+     * the mapping is released when the buffers are garbage collected.
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            inflater.end();
+            packs = null;
+        }
+    }
+
+    private List<Pack> getPacks() throws IOException {
+        if (packs == null) {
+            packs = new ArrayList<Pack>();
+            File[] files = new File(objectsDir, "pack").listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    String name = f.getName();
+                    if (name.startsWith("pack-") && name.endsWith(".idx")) {
+                        File packFile = new File(f.getParentFile(), name.substring(0, name.length() - 4) + ".pack");
+                        if (packFile.isFile()) {
+                            packs.add(new Pack(f, packFile));
+                        }
+                    }
+                }
+            }
+        }
+        return packs;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] result = new byte[(int) file.length()];
+        FileInputStream input = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < result.length) {
+                int n = input.read(result, read, result.length - read);
+                if (n == -1) {
+                    throw new IOException("Unexpected end of file " + file);
+                }
+                read += n;
+            }
+        } finally {
+            IOUtil.close(input);
+        }
+        return result;
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        if (file.length() > Integer.MAX_VALUE) {
+            throw new UnsupportedRepositoryException("pack file larger than 2GB: " + file);
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            //the mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            IOUtil.close(raf);
+        }
+    }
+
+    static byte[] toBinary(String id) {
+        byte[] result = new byte[20];
+        for (int i = 0; i < 20; i++) {
+            result[i] = (byte) Integer.parseInt(id.substring(i * 2, i * 2 + 2), 16);
+        }
+        return result;
+    }
+
+    static String toHex(ByteBuffer buffer, int position) {
+        StringBuilder sb = new StringBuilder(40);
+        for (int i = 0; i < 20; i++) {
+            int b = buffer.get(position + i) & 0xff;
+            sb.append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Pack file with version 2 index
+     */
+    private class Pack {
+        private final MappedByteBuffer index;
+        private final MappedByteBuffer pack;
+        private final int count;
+
+        //objects deltified against the same base are often read one after another
+        private final Map<Long, GitObject> deltaBases = new LruMap<Long, GitObject>(32);
+
+        Pack(File indexFile, File packFile) throws IOException {
+            index = map(indexFile);
+            if (index.limit() < 8 + 256 * 4) {
+                throw new IOException("Truncated pack index: " + indexFile);
+            }
+            if (index.getInt(0) != 0xff744f63 || index.getInt(4) != 2) {
+                throw new UnsupportedRepositoryException("pack index other than version 2: " + indexFile);
+            }
+            count = index.getInt(8 + 255 * 4);
+            //header, fanout, ids, crcs, offsets and the checksums of the pack and the index
+            if (count < 0 || index.limit() < 8 + 256 * 4 + (long) count * 28 + 40) {
+                throw new IOException("Truncated pack index: " + indexFile);
+            }
+            pack = map(packFile);
+        }
+
+        /**
+         * Offset of the object in the pack, -1 if the pack does not have the object
+         */
+        long find(byte[] id) throws IOException {
+            int first = id[0] & 0xff;
+            int low = first == 0 ? 0 : index.getInt(8 + (first - 1) * 4);
+            int high = index.getInt(8 + first * 4);
+            if (low < 0 || high > count || low > high) {
+                throw new IOException("Corrupted pack index, invalid fanout table");
+            }
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int cmp = compare(id, 8 + 256 * 4 + middle * 20);
+                if (cmp == 0) {
+                    return offset(middle);
+                } else if (cmp < 0) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return -1;
+        }
+
+        private int compare(byte[] id, int position) {
+            for (int i = 0; i < 20; i++) {
+                int a = id[i] & 0xff;
+                int b = index.get(position + i) & 0xff;
+                if (a != b) {
+                    return a - b;
+                }
+            }
+            return 0;
+        }
+
+        private long offset(int n) throws IOException {
+            int offsets = 8 + 256 * 4 + count * 24;
+            int offset = index.getInt(offsets + n * 4);
+            if (offset >= 0) {
+                return offset;
+            }
+            //large offsets are kept in a separate table
+            long position = offsets + count * 4 + (long) (offset & 0x7fffffff) * 8;
+            if (position + 8 > index.limit()) {
+                throw new IOException("Corrupted pack index, large offset outside of the file");
+            }
+            return index.getLong((int) position);
+        }
+
+        GitObject read(long offset) throws IOException {
+            if (offset < 0 || offset >= pack.limit()) {
+                throw new IOException("Object offset " + offset + " outside of the pack file");
+            }
+            int position = (int) offset;
+            int c = byteAt(position++);
+            int type = (c >> 4) & 7;
+            long size = c & 15;
+            int shift = 4;
+            while ((c & 0x80) != 0) {
+                if (shift > 60) {
+                    throw new IOException("Corrupted object size at offset " + offset);
+                }
+                c = byteAt(position++);
+                size += (long) (c & 0x7f) << shift;
+                shift += 7;
+            }
+
+            if (type == OFS_DELTA) {
+                c = byteAt(position++);
+                long distance = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = byteAt(position++);
+                    distance = ((distance + 1) << 7) | (c & 0x7f);
+                }
+                if (distance <= 0 || distance > offset) {
+                    throw new IOException("Invalid delta base offset at offset " + offset);
+                }
+                GitObject base = readBase(offset - distance);
+                return new GitObject(base.getType(), applyDelta(base.getData(), inflate(position, size)));
+            }
+            if (type == REF_DELTA) {
+                if (position + 20 > pack.limit()) {
+                    throw new IOException("Unexpected end of pack file");
+                }
+                String baseId = toHex(pack, position);
+                GitObject base = GitObjectDatabase.this.read(baseId);
+                if (base == null) {
+                    throw new IOException("Missing delta base " + baseId);
+                }
+                return new GitObject(base.getType(), applyDelta(base.getData(), inflate(position + 20, size)));
+            }
+            if (type < COMMIT || type > TAG) {
+                throw new IOException("Unknown object type " + type + " at offset " + offset);
+            }
+            return new GitObject(type, inflate(position, size));
+        }
+
+        private int byteAt(int position) throws IOException {
+            if (position < 0 || position >= pack.limit()) {
+                throw new IOException("Unexpected end of pack file");
+            }
+            return pack.get(position) & 0xff;
+        }
+
+        private GitObject readBase(long offset) throws IOException {
+            GitObject base = deltaBases.get(offset);
+            if (base == null) {
+                base = read(offset);
+                deltaBases.put(offset, base);
+            }
+            return base;
+        }
+
+        private byte[] inflate(int position, long size) throws IOException {
+            if (size > Integer.MAX_VALUE) {
+                throw new UnsupportedRepositoryException("object larger than 2GB");
+            }
+            byte[] result = new byte[(int) size];
+            inflater.reset();
+            int done = 0;
+            try {
+                while (done < result.length) {
+                    if (inflater.needsInput()) {
+                        int n = Math.min(chunk.length, pack.limit() - position);
+                        if (n <= 0) {
+                            throw new IOException("Unexpected end of pack file");
+                        }
+                        ByteBuffer source = pack.duplicate();
+                        source.position(position);
+                        source.get(chunk, 0, n);
+                        position += n;
+                        inflater.setInput(chunk, 0, n);
+                    } else if (inflater.finished() || inflater.needsDictionary()) {
+                        throw new IOException("Unexpected end of compressed data");
+                    }
+                    done += inflater.inflate(result, done, result.length - done);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted pack file: " + e.getMessage());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Applies git delta instructions: copies ranges of the base and inserts new data.
+     * Every instruction is checked against the sizes of the base, the delta and the result.
+     */
+    static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        int[] position = {0};
+        long baseSize = readDeltaSize(delta, position);
+        if (baseSize != base.length) {
+            throw new IOException("Delta does not match its base");
+        }
+        long resultSize = readDeltaSize(delta, position);
+        if (resultSize > Integer.MAX_VALUE) {
+            throw new IOException("Corrupted delta, result size: " + resultSize);
+        }
+        byte[] result = new byte[(int) resultSize];
+        int p = position[0];
+        int out = 0;
+        while (p < delta.length) {
+            int cmd = delta[p++] & 0xff;
+            if ((cmd & 0x80) != 0) {
+                long offset = 0;
+                int size = 0;
+                for (int i = 0; i < 4; i++) {
+                    if ((cmd & (1 << i)) != 0) {
+                        offset |= (long) deltaByte(delta, p++) << (i * 8);
+                    }
+                }
+                for (int i = 0; i < 3; i++) {
+                    if ((cmd & (0x10 << i)) != 0) {
+                        size |= deltaByte(delta, p++) << (i * 8);
+                    }
+                }
+                if (size == 0) {
+                    size = 0x10000;
+                }
+                if (offset + size > base.length || out + size > result.length) {
+                    throw new IOException("Corrupted delta, copy outside of the base or the result");
+                }
+                System.arraycopy(base, (int) offset, result, out, size);
+                out += size;
+            } else if (cmd != 0) {
+                if (p + cmd > delta.length || out + cmd > result.length) {
+                    throw new IOException("Corrupted delta, insert outside of the delta or the result");
+                }
+                System.arraycopy(delta, p, result, out, cmd);
+                p += cmd;
+                out += cmd;
+            } else {
+                throw new IOException("Invalid delta instruction");
+            }
+        }
+        if (out != result.length) {
+            throw new IOException("Delta produced unexpected size");
+        }
+        return result;
+    }
+
+    private static long readDeltaSize(byte[] delta, int[] position) throws IOException {
+        long size = 0;
+        int shift = 0;
+        int c;
+        do {
+            if (shift > 56) {
+                throw new IOException("Corrupted delta size");
+            }
+            c = deltaByte(delta, position[0]++);
+            size |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        } while ((c & 0x80) != 0);
+        return size;
+    }
+
+    private static int deltaByte(byte[] delta, int position) throws IOException {
+        if (position >= delta.length) {
+            throw new IOException("Unexpected end of delta");
+        }
+        return delta[position] & 0xff;
+    }
+
+    static class GitObject {
+        private final int type;
+        private final byte[] data;
+
+        GitObject(int type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+
+        int getType() {
+            return type;
+        }
+
+        byte[] getData() {
+            return data;
+        }
+    }
+
+    /**
+     * The repository uses a feature the database does not support, 'git' needs to be used instead
+     */
+    static class UnsupportedRepositoryException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedRepositoryException(String message) {
+            super("Unsupported repository: " + message);
+        }
+    }
+}
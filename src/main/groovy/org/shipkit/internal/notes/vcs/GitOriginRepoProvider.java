@@ -5,9 +5,18 @@ import org.shipkit.internal.exec.ProcessRunner;
 public class GitOriginRepoProvider {
 
     private final ProcessRunner processRunner;
+    private final GitDirectory gitDirectory;
 
     public GitOriginRepoProvider(ProcessRunner processRunner){
+        this(processRunner, null);
+    }
+
+    /**
+     * @param gitDirectory reads the url from git config without starting a git process, can be null
+     */
+    public GitOriginRepoProvider(ProcessRunner processRunner, GitDirectory gitDirectory){
         this.processRunner = processRunner;
+        this.gitDirectory = gitDirectory;
     }
 
     /**
@@ -15,7 +24,10 @@ public class GitOriginRepoProvider {
      */
     public String getOriginGitRepo(){
         // for GitHub returns git@github.com:user/repo.git or https://github.com/user/repo.git
-        String remote = processRunner.run("git", "remote", "get-url", "origin").trim();
+        String remote = gitDirectory == null ? null : gitDirectory.getRemoteUrl("origin");
+        if (remote == null) {
+            remote = processRunner.run("git", "remote", "get-url", "origin").trim();
+        }
 
         if(remote.startsWith("git")){
             return remote
@@ -0,0 +1,156 @@
+package org.shipkit.internal.notes.vcs;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Commit object as stored by git: headers ('tree', 'parent', 'author', 'committer', ...), empty line and the message.
+ * Only the headers are parsed up front, the message is decoded when requested.
+ */
+class GitRawCommit {
+
+    private final byte[] data;
+    private final List<String> parents = new ArrayList<String>(2);
+    private String author;
+    private long commitTime;
+    private String encoding = "UTF-8";
+    private int messageStart;
+
+    private GitRawCommit(byte[] data) {
+        this.data = data;
+    }
+
+    static GitRawCommit parse(byte[] data) {
+        GitRawCommit commit = new GitRawCommit(data);
+        commit.parseHeaders();
+        return commit;
+    }
+
+    private void parseHeaders() {
+        int authorStart = -1;
+        int authorEnd = -1;
+        int start = 0;
+        while (start < data.length) {
+            int end = indexOf('\n', start);
+            if (end == start) {
+                messageStart = end + 1;
+                break;
+            }
+            if (startsWith("parent ", start)) {
+                parents.add(ascii(start + 7, end));
+            } else if (startsWith("author ", start)) {
+                authorStart = start + 7;
+                authorEnd = end;
+            } else if (startsWith("committer ", start)) {
+                commitTime = parseTime(ascii(start + 10, end));
+            } else if (startsWith("encoding ", start)) {
+                encoding = ascii(start + 9, end);
+            }
+            //other headers, like signatures and their continuation lines, are not needed
+            start = end + 1;
+            messageStart = start;
+        }
+        author = authorStart == -1 ? null : decode(authorStart, authorEnd);
+    }
+
+    List<String> getParents() {
+        return parents;
+    }
+
+    /**
+     * Committer date in seconds since the epoch, git orders the log by this date
+     */
+    long getCommitTime() {
+        return commitTime;
+    }
+
+    /**
+     * Author date, the same date 'git log' shows by default, null if the commit does not have author
+     */
+    Date getAuthorDate() {
+        if (author == null) {
+            return null;
+        }
+        return new Date(parseTime(author) * 1000);
+    }
+
+    String getAuthorName() {
+        if (author == null) {
+            return "";
+        }
+        int lt = author.indexOf('<');
+        return lt == -1 ? author.trim() : author.substring(0, lt).trim();
+    }
+
+    String getAuthorEmail() {
+        if (author == null) {
+            return "";
+        }
+        int lt = author.indexOf('<');
+        int gt = author.lastIndexOf('>');
+        return lt == -1 || gt < lt ? "" : author.substring(lt + 1, gt);
+    }
+
+    /**
+     * Full message (subject and body), re-encoded like 'git log' does when the commit declares an encoding
+     */
+    String getMessage() {
+        return decode(messageStart, data.length);
+    }
+
+    /**
+     * Seconds since the epoch from "Name <email> 1485706449 -0800", 0 if the value is malformed
+     */
+    private static long parseTime(String identity) {
+        int gt = identity.lastIndexOf('>');
+        String[] parts = identity.substring(gt + 1).trim().split(" ");
+        try {
+            return Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private int indexOf(char c, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == c) {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private boolean startsWith(String prefix, int position) {
+        if (position + prefix.length() > data.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[position + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String ascii(int start, int end) {
+        try {
+            return new String(data, start, end - start, "US-ASCII");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String decode(int start, int end) {
+        Charset charset;
+        try {
+            charset = Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            //unknown encoding, git would not re-encode either
+            charset = Charset.forName("UTF-8");
+        }
+        return new String(data, start, Math.max(0, end - start), charset);
+    }
+}
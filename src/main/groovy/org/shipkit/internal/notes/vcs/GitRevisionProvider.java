@@ -5,13 +5,39 @@ import org.shipkit.internal.exec.ProcessRunner;
 public class GitRevisionProvider implements RevisionProvider {
 
     private final ProcessRunner runner;
+    private final GitTagIndex tagIndex;
+    private final GitDirectory gitDirectory;
+    private final String tagPrefix;
 
     public GitRevisionProvider(ProcessRunner runner) {
+        this(runner, new GitTagIndex(runner), null, "");
+    }
+
+    /**
+     * @param gitDirectory answers branches and 'HEAD' without starting a git process, can be null
+     * @param tagPrefix prefix of the version tags, only such tags are looked up in {@link GitTagIndex}
+     */
+    GitRevisionProvider(ProcessRunner runner, GitTagIndex tagIndex, GitDirectory gitDirectory, String tagPrefix) {
         this.runner = runner;
+        this.tagIndex = tagIndex;
+        this.gitDirectory = gitDirectory;
+        this.tagPrefix = tagPrefix;
     }
 
     @Override
     public String getRevisionForTagOrRevision(String tagOrRevision) {
+        //the files answer branches, 'HEAD' and packed tags without starting any git process
+        if (gitDirectory != null) {
+            String commit = gitDirectory.getCommit(tagOrRevision);
+            if (commit != null) {
+                return commit;
+            }
+        }
+        GitTagIndex.Tag tag = tagIndex.getTag(tagPrefix, tagOrRevision);
+        if (tag != null) {
+            return tag.getRevision();
+        }
+        //other revisions, or unknown revision that git reports the problem of
         return runner.run("git", "rev-list", "-n", "1", tagOrRevision).trim();
     }
 }
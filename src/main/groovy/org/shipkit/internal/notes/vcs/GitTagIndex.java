@@ -0,0 +1,115 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.exec.ProcessRunner;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Commits and dates of tags in the repository, read with a single 'git for-each-ref' invocation when first needed.
+ * Only tags with given prefix are read, for example "v" for version tags like "v1.0.0",
+ * so that unrelated tags in the repository don't add to the output.
+ * Answers questions about many tags (for example, a version per tag) without starting a git process for each tag.
+ * Tags that are not in the index (for example, tags of tags) need to be resolved by other means.
+ */
+class GitTagIndex {
+
+    private static final String TAGS_REF = "refs/tags/";
+    private static final String SEPARATOR = "\u0000";
+
+    private final ProcessRunner runner;
+    //tag prefix -> tags with the prefix
+    private final Map<String, Map<String, Tag>> tagsByPrefix = new HashMap<String, Map<String, Tag>>();
+
+    GitTagIndex(ProcessRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * The tag of given name, null if the tag does not exist, it does not point to a commit or it does not start with the prefix
+     *
+     * @param tagPrefix only tags with this prefix are read, empty prefix reads all tags
+     */
+    synchronized Tag getTag(String tagPrefix, String name) {
+        if (!name.startsWith(tagPrefix)) {
+            return null;
+        }
+        Map<String, Tag> tags = tagsByPrefix.get(tagPrefix);
+        if (tags == null) {
+            tags = load(tagPrefix);
+            tagsByPrefix.put(tagPrefix, tags);
+        }
+        return tags.get(name);
+    }
+
+    /**
+     * For example: refs/tags/v*, no need to escape the prefix because tag names can't contain glob characters
+     */
+    static String refPattern(String tagPrefix) {
+        return tagPrefix.isEmpty() ? "refs/tags" : TAGS_REF + tagPrefix + "*";
+    }
+
+    private Map<String, Tag> load(String tagPrefix) {
+        // %(objectname), %(authordate): the commit of lightweight tag
+        // %(*objectname), %(*authordate): the commit of annotated tag
+        // %00: separates the fields, cannot be present in any of them
+        String output = runner.run("git", "for-each-ref",
+                "--format=%(refname)%00%(objectname)%00%(*objectname)%00%(authordate:iso)%00%(*authordate:iso)", refPattern(tagPrefix));
+
+        Map<String, Tag> result = new HashMap<String, Tag>();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z");
+        for (String line : output.split("\n")) {
+            String[] fields = line.split(SEPARATOR, -1);
+            if (fields.length != 5 || !fields[0].startsWith(TAGS_REF)) {
+                continue;
+            }
+            boolean annotated = !fields[2].isEmpty();
+            String revision = annotated ? fields[2] : fields[1];
+            String date = annotated ? fields[4] : fields[3];
+            if (date.isEmpty()) {
+                //does not point to a commit
+                continue;
+            }
+            try {
+                String name = fields[0].substring(TAGS_REF.length());
+                result.put(name, new Tag(name, revision, dateFormat.parse(date)));
+            } catch (ParseException e) {
+                //unusual date, the tag will be resolved by other means
+            }
+        }
+        return result;
+    }
+
+    static class Tag {
+        private final String name;
+        private final String revision;
+        private final Date date;
+
+        Tag(String name, String revision, Date date) {
+            this.name = name;
+            this.revision = revision;
+            this.date = date;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Commit the tag points to
+         */
+        String getRevision() {
+            return revision;
+        }
+
+        /**
+         * Author date of the commit, the same date 'git log' shows by default
+         */
+        Date getDate() {
+            return date;
+        }
+    }
+}
@@ -7,19 +7,17 @@ import java.util.Collection;
 
 public class IgnoredCommit implements Predicate<Commit> {
 
-    private Collection<String> commitMessagePartsToIgnore;
+    private final CommitMessageScanner scanner;
 
+    /**
+     * @param commitMessageParts commits that contain any of these phrases are ignored, all phrases are matched in one pass
+     */
     public IgnoredCommit(Collection<String> commitMessageParts) {
-        this.commitMessagePartsToIgnore = commitMessageParts;
+        this.scanner = new CommitMessageScanner(commitMessageParts);
     }
 
     @Override
     public boolean isTrue(Commit commit) {
-        for (String messagePartToIgnore : commitMessagePartsToIgnore) {
-            if (commit.getMessage().contains(messagePartToIgnore)) {
-                return true;
-            }
-        }
-        return false;
+        return scanner.matchesAny(commit.getMessage());
     }
 }
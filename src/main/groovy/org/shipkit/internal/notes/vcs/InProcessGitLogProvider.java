@@ -0,0 +1,223 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.notes.util.Function;
+import org.shipkit.internal.notes.util.IOUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the commits straight from the repository files, without starting 'git log' process,
+ * see {@link GitCommitWalker} and {@link GitObjectDatabase}.
+ * Falls back to 'git log' when the repository uses features we don't support,
+ * for example worktrees, alternates, grafts, replace refs or notes.
+ * Fetching the revisions from 'origin' still needs git.
+ * With {@link GitCommitStore}, only the commits that are not in the store yet are read from the repository.
+ */
+class InProcessGitLogProvider implements GitLogProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InProcessGitLogProvider.class);
+    private static final Pattern SHA = Pattern.compile("[0-9a-f]{40}");
+
+    private final File workDir;
+    private final CommandLineGitLogProvider commandLine;
+    private final GitCommitStore store;
+
+    InProcessGitLogProvider(File workDir, CommandLineGitLogProvider commandLine) {
+        this(workDir, commandLine, null);
+    }
+
+    /**
+     * @param store nullable, keeps the commits between builds
+     */
+    InProcessGitLogProvider(File workDir, CommandLineGitLogProvider commandLine, GitCommitStore store) {
+        this.workDir = workDir;
+        this.commandLine = commandLine;
+        this.store = store;
+    }
+
+    public <T> T getLog(String fromRev, String toRev, Function<GitCommitReader, T> commitsReader) {
+        return getLogs(Arrays.asList(toRev, fromRev), commitsReader).get(0);
+    }
+
+    /**
+     * All ranges are read in one walk of the history, see {@link GitCommitWalker#walk(List)}
+     */
+    public <T> List<T> getLogs(List<String> revisions, Function<GitCommitReader, T> commitsReader) {
+        commandLine.fetch(revisions);
+
+        GitObjectDatabase database = null;
+        try {
+            List<List<String>> ranges = null;
+            try {
+                GitDirectory gitDirectory = GitDirectory.find(workDir);
+                String unsupported = unsupportedFeature(gitDirectory);
+                if (unsupported != null) {
+                    LOG.info("Using 'git log' because the repository has {}", unsupported);
+                } else {
+                    database = new GitObjectDatabase(gitDirectory.getGitDir());
+                    List<String> commits = resolveCommits(gitDirectory, database, revisions);
+                    if (commits != null) {
+                        //the whole history is walked before the first commit is handed to the reader,
+                        //so that we can still fall back to 'git log' if some object cannot be read
+                        ranges = walk(database, readShallow(gitDirectory), commits);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.info("Using 'git log' because the repository cannot be read: {}", e.getMessage());
+            } catch (GitObjectDatabase.UnsupportedRepositoryException e) {
+                LOG.info("Using 'git log': {}", e.getMessage());
+            } catch (RuntimeException e) {
+                //a bug or corrupted data we did not anticipate, 'git log' still gives correct release notes
+                LOG.info("Using 'git log' because reading the repository failed: " + e, e);
+            }
+            if (ranges == null) {
+                return commandLine.logs(revisions, commitsReader);
+            }
+            if (store != null) {
+                //the walk has added all commits of the ranges to the store
+                store.save();
+            }
+            List<T> result = new ArrayList<T>(ranges.size());
+            for (List<String> range : ranges) {
+                result.add(commitsReader.apply(new CommitReader(database, store, range)));
+            }
+            return result;
+        } finally {
+            //the readers are done, release the inflater and the mapped pack files
+            IOUtil.close(database);
+        }
+    }
+
+    private List<List<String>> walk(GitObjectDatabase database, Set<String> shallow, List<String> commits) throws IOException {
+        List<List<String>> ranges = new GitCommitWalker(database, shallow, store).walk(commits);
+        if (ranges != null) {
+            return ranges;
+        }
+        LOG.info("Walking every range separately, the revisions are not ancestors of each other or there are too many of them");
+        ranges = new ArrayList<List<String>>(commits.size() - 1);
+        for (int i = 1; i < commits.size(); i++) {
+            ranges.add(new GitCommitWalker(database, shallow, store).walk(commits.get(i), commits.get(i - 1)));
+        }
+        return ranges;
+    }
+
+    /**
+     * Commits of given revisions, null if some revision needs to be resolved by git
+     */
+    private static List<String> resolveCommits(GitDirectory gitDirectory, GitObjectDatabase database, List<String> revisions) throws IOException {
+        List<String> commits = new ArrayList<String>(revisions.size());
+        for (String revision : revisions) {
+            String commit = revision == null ? null : resolveCommit(gitDirectory, database, revision);
+            if (revision != null && commit == null) {
+                LOG.info("Using 'git log' because revision {} needs to be resolved by git", revision);
+                return null;
+            }
+            commits.add(commit);
+        }
+        return commits;
+    }
+
+    private static String unsupportedFeature(GitDirectory gitDirectory) {
+        if (gitDirectory == null) {
+            return "unsupported layout";
+        }
+        if (new File(gitDirectory.getGitDir(), "info/grafts").exists()) {
+            return "grafts";
+        }
+        if (gitDirectory.hasRefs("refs/replace/")) {
+            return "replace refs";
+        }
+        if (gitDirectory.hasRefs("refs/notes/")) {
+            //'git log' shows notes with the message
+            return "notes";
+        }
+        return null;
+    }
+
+    /**
+     * The commit of given ref or commit id, annotated tags are peeled.
+     * Null if it needs to be resolved by git.
+     */
+    private static String resolveCommit(GitDirectory gitDirectory, GitObjectDatabase database, String revision) throws IOException {
+        String id = SHA.matcher(revision).matches() ? revision : gitDirectory.getObjectId(revision);
+        while (id != null) {
+            GitObjectDatabase.GitObject object = database.read(id);
+            if (object == null) {
+                return null;
+            }
+            if (object.getType() == GitObjectDatabase.COMMIT) {
+                return id;
+            }
+            if (object.getType() != GitObjectDatabase.TAG) {
+                return null;
+            }
+            id = taggedObject(object.getData());
+        }
+        return null;
+    }
+
+    /**
+     * The first line of tag object: "object <id>"
+     */
+    private static String taggedObject(byte[] tag) {
+        String prefix = "object ";
+        if (tag.length < prefix.length() + 40 || !new String(tag, 0, prefix.length()).equals(prefix)) {
+            return null;
+        }
+        String id = new String(tag, prefix.length(), 40);
+        return SHA.matcher(id).matches() ? id : null;
+    }
+
+    private static Set<String> readShallow(GitDirectory gitDirectory) {
+        File shallow = new File(gitDirectory.getGitDir(), "shallow");
+        if (!shallow.isFile()) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<String>();
+        for (String line : IOUtil.readFully(shallow).split("\n")) {
+            if (line.trim().length() > 0) {
+                result.add(line.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the commits of the walk one by one, only the current commit is in memory.
+     */
+    private static class CommitReader implements GitCommitReader {
+        private final GitObjectDatabase database;
+        private final GitCommitStore store;
+        private final List<String> commits;
+        private int next;
+
+        CommitReader(GitObjectDatabase database, GitCommitStore store, List<String> commits) {
+            this.database = database;
+            this.store = store;
+            this.commits = commits;
+        }
+
+        public GitCommit next() throws IOException {
+            if (next == commits.size()) {
+                return null;
+            }
+            String id = commits.get(next++);
+            GitCommit stored = store == null ? null : store.getCommit(id);
+            if (stored != null) {
+                return stored;
+            }
+            GitRawCommit commit = GitCommitWalker.readCommit(database, id);
+            return new GitCommit(id, commit.getAuthorEmail().trim(), commit.getAuthorName().trim(), commit.getMessage().trim());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.shipkit.internal.notes.vcs;
+
+import org.shipkit.internal.notes.util.IOUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Canonical author names and emails from '.mailmap' file in the root of the repository,
+ * the same mapping 'git log --use-mailmap' or 'git shortlog' does. Supported forms of the lines:
+ * <pre>
+ * Proper Name &lt;commit@email&gt;
+ * &lt;proper@email&gt; &lt;commit@email&gt;
+ * Proper Name &lt;proper@email&gt; &lt;commit@email&gt;
+ * Proper Name &lt;proper@email&gt; Commit Name &lt;commit@email&gt;
+ * </pre>
+ * Emails and names are matched case-insensitively. Thanks to the mapping, the same person committing
+ * with different identities is shown once in the release notes.
+ */
+class Mailmap {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Mailmap.class);
+
+    /**
+     * Mailmap that does not change any commit
+     */
+    static final Mailmap EMPTY = new Mailmap();
+
+    //commit email (lower case) -> entry, entry without commit name goes first
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    /**
+     * Reads '.mailmap' from the root of the repository that contains given work dir,
+     * {@link #EMPTY} if the repository does not have the file.
+     */
+    static Mailmap load(File workDir) {
+        GitDirectory gitDirectory = GitDirectory.find(workDir);
+        File root = gitDirectory == null ? workDir : gitDirectory.getGitDir().getParentFile();
+        File file = new File(root, ".mailmap");
+        if (!file.isFile()) {
+            return EMPTY;
+        }
+        LOG.info("Mapping commit authors using {}", file);
+        return parse(IOUtil.readFully(file));
+    }
+
+    static Mailmap parse(String content) {
+        Mailmap mailmap = new Mailmap();
+        for (String line : content.split("\n")) {
+            mailmap.parseLine(line.trim());
+        }
+        return mailmap;
+    }
+
+    private void parseLine(String line) {
+        if (line.startsWith("#")) {
+            return;
+        }
+        String[] first = nameAndEmail(line, 0);
+        if (first == null) {
+            return;
+        }
+        String[] second = nameAndEmail(line, Integer.parseInt(first[2]));
+        if (second == null) {
+            //"Proper Name <commit@email>", only the name is mapped
+            add(first[1], null, first[0], null);
+        } else {
+            add(second[1], second[0], first[0], first[1]);
+        }
+    }
+
+    /**
+     * Name (null if empty), email and the index after '>', null if there is no email after given index.
+     * The name is the text between the index and '<', anything after the last email is a comment.
+     */
+    private static String[] nameAndEmail(String line, int from) {
+        int lt = line.indexOf('<', from);
+        int gt = lt == -1 ? -1 : line.indexOf('>', lt);
+        if (gt == -1) {
+            return null;
+        }
+        String name = line.substring(from, lt).trim();
+        return new String[] {name.length() == 0 ? null : name, line.substring(lt + 1, gt).trim(), Integer.toString(gt + 1)};
+    }
+
+    private void add(String commitEmail, String commitName, String properName, String properEmail) {
+        String key = commitEmail.toLowerCase();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        if (commitName != null) {
+            Entry byName = entry.byName.get(commitName.toLowerCase());
+            if (byName == null) {
+                byName = new Entry();
+                entry.byName.put(commitName.toLowerCase(), byName);
+            }
+            entry = byName;
+        }
+        //later lines take precedence, like in git
+        if (properName != null) {
+            entry.properName = properName;
+        }
+        if (properEmail != null) {
+            entry.properEmail = properEmail;
+        }
+    }
+
+    /**
+     * The commit with canonical author name and email, the same instance if the mailmap does not change it
+     */
+    GitCommit map(GitCommit commit) {
+        if (entries.isEmpty()) {
+            return commit;
+        }
+        Entry entry = entries.get(commit.getAuthorEmail().toLowerCase());
+        if (entry == null) {
+            return commit;
+        }
+        Entry byName = entry.byName.get(commit.getAuthorName().toLowerCase());
+        if (byName != null) {
+            entry = byName;
+        }
+        if (entry.properName == null && entry.properEmail == null) {
+            return commit;
+        }
+        return commit.withAuthor(
+                entry.properEmail != null ? entry.properEmail : commit.getAuthorEmail(),
+                entry.properName != null ? entry.properName : commit.getAuthorName());
+    }
+
+    private static class Entry {
+        private String properName;
+        private String properEmail;
+        private final Map<String, Entry> byName = new HashMap<String, Entry>();
+    }
+}
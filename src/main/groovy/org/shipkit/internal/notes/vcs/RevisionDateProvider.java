@@ -8,11 +8,13 @@ import java.util.regex.Pattern;
 import static org.shipkit.internal.util.DateUtil.parseDate;
 
 /**
- * Provides date of given vcs revision
+ * Provides date of given vcs revision.
+ * Dates of tags are taken from {@link GitTagIndex}, so that we don't run git for every released version.
  */
 class RevisionDateProvider {
 
     private final ProcessRunner runner;
+    private final GitTagIndex tagIndex;
     /**
      * pattern for validating revision date in ISO format
      * Example of valid date: 2017-01-29 08:14:09 -0800
@@ -21,10 +23,23 @@ class RevisionDateProvider {
             "\\s?\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\s[-+]\\d{4}\\s?");
 
     RevisionDateProvider(ProcessRunner runner) {
+        this(runner, new GitTagIndex(runner));
+    }
+
+    RevisionDateProvider(ProcessRunner runner, GitTagIndex tagIndex) {
         this.runner = runner;
+        this.tagIndex = tagIndex;
     }
 
-    public Date getDate(String rev) {
+    /**
+     * @param tagPrefix prefix of the version tags, only such tags are looked up in {@link GitTagIndex}
+     */
+    public Date getDate(String rev, String tagPrefix) {
+        GitTagIndex.Tag tag = tagIndex.getTag(tagPrefix, rev);
+        if (tag != null) {
+            return tag.getDate();
+        }
+
         String gitOutput = runner.run("git", "log", "--pretty=%ad", "--date=iso", rev, "-n", "1");
         if(!REVISION_DATE_PATTERN.matcher(gitOutput).matches()){
            throw new IllegalArgumentException(formatErrorMessage(rev, gitOutput));
@@ -2,21 +2,29 @@ package org.shipkit.internal.notes.vcs;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 class TicketParser {
 
     /**
-     * Collects all ticked ids found in message, ticket format is #123
+     * Collects all ticked ids found in message, ticket format is #123.
+     * One pass over the characters, without regular expressions.
      */
     static Set<String> parseTickets(String message) {
         Set<String> tickets = new LinkedHashSet<String>();
-        Pattern ticket = Pattern.compile("#\\d+");
-        Matcher m = ticket.matcher(message);
-        while(m.find()) {
-            String ticketId = m.group().substring(1); //remove leading '#'
-            tickets.add(ticketId);
+        int ticketStart = -1;
+        int length = message.length();
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            //digits are collected until the first other character
+            if (c < '0' || c > '9') {
+                if (ticketStart != -1 && i > ticketStart) {
+                    tickets.add(message.substring(ticketStart, i));
+                }
+                ticketStart = c == '#' ? i + 1 : -1;
+            }
+        }
+        if (ticketStart != -1 && length > ticketStart) {
+            tickets.add(message.substring(ticketStart));
         }
         return tickets;
     }
@@ -4,16 +4,59 @@ import org.shipkit.internal.exec.ProcessRunner;
 import org.shipkit.internal.notes.model.Commit;
 import org.shipkit.internal.notes.util.Predicate;
 
+import java.io.File;
+
 /**
  * Vcs services
  */
 public class Vcs {
 
+    private static final String IN_PROCESS_PROPERTY = "org.shipkit.git.inProcess";
+    static final String MAILMAP_PROPERTY = "org.shipkit.git.mailmap";
+
     /**
      * Provides means to get contributions.
      */
     public static ContributionsProvider getContributionsProvider(ProcessRunner runner, Predicate<Commit> ignoredCommit) {
-        return new GitContributionsProvider(new GitLogProvider(runner), ignoredCommit);
+        return new GitContributionsProvider(new CommandLineGitLogProvider(runner), ignoredCommit);
+    }
+
+    /**
+     * Same as {@link #getContributionsProvider(ProcessRunner, Predicate)} but the commits are read
+     * straight from the repository files in given work dir, falling back to 'git log' when needed.
+     * Reading with 'git log' can be forced with "org.shipkit.git.inProcess=false" system property.
+     * Commit authors are mapped with '.mailmap' file of the repository when enabled, see {@link #getMailmap(File)}.
+     */
+    public static ContributionsProvider getContributionsProvider(ProcessRunner runner, File workDir, Predicate<Commit> ignoredCommit) {
+        return getContributionsProvider(runner, workDir, ignoredCommit, null, null);
+    }
+
+    /**
+     * Same as {@link #getContributionsProvider(ProcessRunner, File, Predicate)} but commits that were read
+     * are kept between builds, so that the next build only reads the new commits.
+     *
+     * @param gitCacheDir directory where commits are kept between builds, null means no caching
+     * @param repository name of the repository, for example: mockito/shipkit, commits of every repository are kept separately
+     */
+    public static ContributionsProvider getContributionsProvider(ProcessRunner runner, File workDir, Predicate<Commit> ignoredCommit,
+                                                                 File gitCacheDir, String repository) {
+        CommandLineGitLogProvider commandLine = new CommandLineGitLogProvider(runner);
+        Mailmap mailmap = getMailmap(workDir);
+        boolean inProcess = Boolean.parseBoolean(System.getProperty(IN_PROCESS_PROPERTY, "true"));
+        if (!inProcess) {
+            return new GitContributionsProvider(commandLine, ignoredCommit, mailmap);
+        }
+        GitCommitStore store = gitCacheDir == null || repository == null ? null : GitCommitStore.forRepository(gitCacheDir, repository);
+        return new GitContributionsProvider(new InProcessGitLogProvider(workDir, commandLine, store), ignoredCommit, mailmap);
+    }
+
+    /**
+     * '.mailmap' of the repository, only when enabled with "org.shipkit.git.mailmap=true" system property.
+     * Off by default, so that the authors and contributors in the release notes don't change unexpectedly.
+     */
+    static Mailmap getMailmap(File workDir) {
+        boolean enabled = Boolean.parseBoolean(System.getProperty(MAILMAP_PROPERTY, "false"));
+        return enabled ? Mailmap.load(workDir) : Mailmap.EMPTY;
     }
 
     /**
@@ -26,4 +69,12 @@ public class Vcs {
     public static RevisionProvider getRevisionProvider(ProcessRunner runner) {
         return new GitRevisionProvider(runner);
     }
+
+    /**
+     * Same as {@link #getRevisionProvider(ProcessRunner)} but branches and 'HEAD' are read from the '.git' directory
+     * and only the tags with given prefix are read up front
+     */
+    public static RevisionProvider getRevisionProvider(ProcessRunner runner, File workDir, String tagPrefix) {
+        return new GitRevisionProvider(runner, new GitTagIndex(runner), GitDirectory.find(workDir), tagPrefix);
+    }
 }
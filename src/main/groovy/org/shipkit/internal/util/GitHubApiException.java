@@ -0,0 +1,25 @@
+package org.shipkit.internal.util;
+
+import java.io.IOException;
+
+/**
+ * GitHub API responded with an error code
+ */
+public class GitHubApiException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public GitHubApiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * HTTP status code of the error response, for example: 404
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
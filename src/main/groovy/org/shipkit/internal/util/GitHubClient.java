@@ -0,0 +1,253 @@
+package org.shipkit.internal.util;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The only class that talks HTTP to GitHub API.
+ * All GitHub calls made by Shipkit tasks should go through the shared instance, see {@link #getDefault()},
+ * or a client derived from it, see {@link #withResponseCache(GitHubResponseCache)}.
+ * <p>
+ * Connections are kept alive and reused between requests.
+ * We rely on JDK's keep-alive connection cache for that, hence the responses need to be fully consumed and closed,
+ * see {@link GitHubResponse#close()}.
+ * Responses are requested gzip compressed and the client has sane connect and read timeouts
+ * so that a stalled connection does not hang the release forever.
+ * <p>
+ * When response cache is configured (see {@link #withResponseCache(GitHubResponseCache)})
+ * GET requests are conditional and unchanged resources are served from the cache.
+ * <p>
+ * Requests are paced by {@link GitHubRateLimiter}. Requests rejected because of the rate limit are retried
+ * after the limiter's pause.
+ */
+public class GitHubClient {
+
+    private static final Logger LOG = Logging.getLogger(GitHubClient.class);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 15 * 1000;
+    private static final int READ_TIMEOUT_MILLIS = 60 * 1000;
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+
+    private static final GitHubClient DEFAULT = new GitHubClient(CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS);
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final GitHubRateLimiter rateLimiter;
+    private final GitHubResponseCache responseCache;
+
+    GitHubClient(int connectTimeoutMillis, int readTimeoutMillis) {
+        this(connectTimeoutMillis, readTimeoutMillis, new GitHubRateLimiter());
+    }
+
+    GitHubClient(int connectTimeoutMillis, int readTimeoutMillis, GitHubRateLimiter rateLimiter) {
+        this(connectTimeoutMillis, readTimeoutMillis, rateLimiter, null);
+    }
+
+    private GitHubClient(int connectTimeoutMillis, int readTimeoutMillis, GitHubRateLimiter rateLimiter, GitHubResponseCache responseCache) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.rateLimiter = rateLimiter;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Client shared by all GitHub calls in the build
+     */
+    public static GitHubClient getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Client with conditional requests backed by given cache, null means no caching.
+     * The new client shares the rate limit with this client, this client is not changed.
+     */
+    public GitHubClient withResponseCache(GitHubResponseCache responseCache) {
+        return new GitHubClient(connectTimeoutMillis, readTimeoutMillis, rateLimiter, responseCache);
+    }
+
+    /**
+     * Cache used by this client, null if caching is disabled
+     */
+    public GitHubResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Performs GET request.
+     * Throws {@link GitHubApiException} when GitHub responds with an error code.
+     *
+     * @param url full url, including query parameters
+     * @return response that needs to be closed by the caller
+     */
+    public GitHubResponse get(String url) throws IOException {
+        return execute("GET", url, null, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Performs POST request with JSON body.
+     * Throws {@link GitHubApiException} when GitHub responds with an error code.
+     *
+     * @param url full url, including query parameters
+     * @param body JSON content
+     * @return response that needs to be closed by the caller
+     */
+    public GitHubResponse post(String url, String body) throws IOException {
+        return post(url, body, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Performs POST request with JSON body and additional request headers, for example 'Authorization'.
+     * Throws {@link GitHubApiException} when GitHub responds with an error code.
+     *
+     * @param url full url, including query parameters
+     * @param body JSON content
+     * @param headers request headers
+     * @return response that needs to be closed by the caller
+     */
+    public GitHubResponse post(String url, String body, Map<String, String> headers) throws IOException {
+        return execute("POST", url, body, headers);
+    }
+
+    private GitHubResponse execute(String method, String url, String body, Map<String, String> headers) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            GitHubResponse response = execute(method, url, body, headers, attempt);
+            if (response != null) {
+                return response;
+            }
+        }
+    }
+
+    /**
+     * Returns null when the request was rejected because of the rate limit and should be retried
+     */
+    private GitHubResponse execute(String method, String url, String body, Map<String, String> headers, int attempt) throws IOException {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for GitHub API rate limit");
+        }
+
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(connectTimeoutMillis);
+        conn.setReadTimeout(readTimeoutMillis);
+        conn.setUseCaches(false);
+        conn.setRequestProperty("Connection", "keep-alive");
+        conn.setRequestProperty("Accept-Encoding", "gzip");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            conn.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        GitHubResponseCache cache = "GET".equals(method) ? responseCache : null;
+        GitHubResponseCache.Entry cached = cache != null ? cache.get(url) : null;
+        if (cached != null) {
+            setConditionalHeaders(conn, cached);
+        }
+
+        if (body != null) {
+            writeBody(conn, body);
+        }
+
+        int code = conn.getResponseCode();
+        rateLimiter.update(conn.getHeaderField("X-RateLimit-Remaining"), conn.getHeaderField("X-RateLimit-Reset"));
+        logRateLimit(conn);
+
+        if (cached != null && code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            //no body expected, but we need to consume the stream so that the connection can be reused
+            new GitHubResponse(code, conn.getHeaderFields(), conn.getInputStream()).close();
+            cache.recordHit();
+            LOG.info("GitHub API resource not modified, using cached response");
+            return new GitHubResponse(HttpURLConnection.HTTP_OK, cached.mergeHeaders(conn.getHeaderFields()), cached.openBody());
+        }
+        if (cache != null) {
+            cache.recordMiss();
+        }
+
+        if (code >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            String errorContent = response(conn, code, conn.getErrorStream()).getContent();
+            if (attempt <= MAX_RATE_LIMIT_RETRIES
+                    && rateLimiter.backOff(code, conn.getHeaderField("Retry-After"), errorContent, attempt)) {
+                return null;
+            }
+            String errorMessage = String.format("%s %s failed, response code = %s, response body:\n%s",
+                    method, maskUrl(url), code, errorContent);
+            throw new GitHubApiException(errorMessage, code);
+        }
+
+        GitHubResponse response = response(conn, code, conn.getInputStream());
+        if (cache != null && code == HttpURLConnection.HTTP_OK && isCacheable(response)) {
+            return new GitHubResponse(code, conn.getHeaderFields(), cache.store(url, conn.getHeaderFields(), response.getBody()));
+        }
+        return response;
+    }
+
+    private static void setConditionalHeaders(HttpURLConnection conn, GitHubResponseCache.Entry cached) {
+        String etag = cached.getHeader("ETag");
+        if (etag != null) {
+            conn.setRequestProperty("If-None-Match", etag);
+        }
+        String lastModified = cached.getHeader("Last-Modified");
+        if (lastModified != null) {
+            conn.setRequestProperty("If-Modified-Since", lastModified);
+        }
+    }
+
+    private static boolean isCacheable(GitHubResponse response) {
+        return response.getHeader("ETag") != null || response.getHeader("Last-Modified") != null;
+    }
+
+    private static void writeBody(HttpURLConnection conn, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        conn.setDoOutput(true);
+        conn.setFixedLengthStreamingMode(bytes.length);
+        conn.setRequestProperty("Content-Type", "application/json");
+        OutputStream out = conn.getOutputStream();
+        try {
+            out.write(bytes);
+        } finally {
+            IOUtil.close(out);
+        }
+    }
+
+    private static GitHubResponse response(HttpURLConnection conn, int code, InputStream stream) throws IOException {
+        InputStream body = stream != null ? stream : new ByteArrayInputStream(new byte[0]);
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            body = new GZIPInputStream(body);
+        }
+        return new GitHubResponse(code, conn.getHeaderFields(), body);
+    }
+
+    private static void logRateLimit(HttpURLConnection conn) {
+        String rateLimitReset = conn.getHeaderField("X-RateLimit-Reset");
+        String resetInLocalTime = "";
+        if (rateLimitReset != null) {
+            Date resetInEpochSeconds = DateUtil.parseDateInEpochSeconds(rateLimitReset);
+            resetInLocalTime = DateUtil.formatDateToLocalTime(resetInEpochSeconds);
+        }
+        LOG.info("GitHub API rate info => Remaining : {}, Limit : {}, Reset at: {}",
+                conn.getHeaderField("X-RateLimit-Remaining"),
+                conn.getHeaderField("X-RateLimit-Limit"),
+                resetInLocalTime);
+    }
+
+    /**
+     * Hides the auth token, so that it can be safely printed
+     */
+    static String maskUrl(String url) {
+        return url.replaceAll("access_token=[^&]*", "access_token=[SECRET]");
+    }
+}
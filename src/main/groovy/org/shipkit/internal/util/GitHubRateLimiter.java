@@ -0,0 +1,156 @@
+package org.shipkit.internal.util;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.Date;
+
+/**
+ * Paces GitHub API requests made by {@link GitHubClient}, shared by all GitHub calls in the build.
+ * <ul>
+ *     <li>requests are throttled with a token bucket so that concurrent fetchers don't burst</li>
+ *     <li>remaining rate limit budget is tracked from response headers,
+ *          when it is exhausted requests wait until the limit resets instead of failing</li>
+ *     <li>when GitHub reports secondary ("abuse") rate limit, all requests pause
+ *          for the time requested by GitHub or with exponential backoff</li>
+ * </ul>
+ */
+public class GitHubRateLimiter {
+
+    private static final Logger LOG = Logging.getLogger(GitHubRateLimiter.class);
+
+    private static final double DEFAULT_REQUESTS_PER_SECOND = 10;
+    private static final int DEFAULT_BURST = 10;
+    //GitHub recommends waiting at least a minute after hitting the secondary rate limit
+    private static final long SECONDARY_LIMIT_BACKOFF_MILLIS = 60 * 1000;
+    //reset time has seconds precision
+    private static final long RESET_MARGIN_MILLIS = 1000;
+    private static final int UNKNOWN = -1;
+
+    private final double requestsPerSecond;
+    private final int burst;
+
+    private double tokens;
+    private long lastRefill = UNKNOWN;
+    private int remaining = UNKNOWN;
+    private long resetAtMillis;
+    private long pausedUntil;
+    private long announcedPause;
+
+    public GitHubRateLimiter() {
+        this(DEFAULT_REQUESTS_PER_SECOND, DEFAULT_BURST);
+    }
+
+    GitHubRateLimiter(double requestsPerSecond, int burst) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    /**
+     * Blocks until a request can be made
+     */
+    synchronized void acquire() throws InterruptedException {
+        while (true) {
+            long now = now();
+            long until = pausedUntil;
+            if (remaining == 0) {
+                if (resetAtMillis > now) {
+                    until = Math.max(until, resetAtMillis + RESET_MARGIN_MILLIS);
+                } else {
+                    remaining = UNKNOWN;
+                }
+            }
+            if (until > now) {
+                if (until != announcedPause) {
+                    announcedPause = until;
+                    LOG.lifecycle("  GitHub API rate limit reached, waiting {}s until {} before making more requests",
+                            (until - now + 999) / 1000, DateUtil.formatDateToLocalTime(new Date(until)));
+                }
+                waitFor(until - now);
+                continue;
+            }
+
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                if (remaining > 0) {
+                    //reserve the budget until the response tells us the actual value
+                    remaining--;
+                }
+                return;
+            }
+            waitFor((long) Math.ceil((1 - tokens) * 1000 / requestsPerSecond));
+        }
+    }
+
+    /**
+     * Updates the budget with the values of 'X-RateLimit-Remaining' and 'X-RateLimit-Reset' response headers.
+     * Null values are ignored.
+     */
+    synchronized void update(String remainingHeader, String resetHeader) {
+        if (remainingHeader == null || resetHeader == null) {
+            return;
+        }
+        try {
+            int remaining = Integer.parseInt(remainingHeader.trim());
+            long resetAt = Long.parseLong(resetHeader.trim()) * 1000;
+            if (resetAt >= resetAtMillis) {
+                this.remaining = remaining;
+                this.resetAtMillis = resetAt;
+            }
+        } catch (NumberFormatException e) {
+            LOG.info("Unable to parse GitHub API rate limit headers, remaining: {}, reset: {}", remainingHeader, resetHeader);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Decides if the failed request was rejected because of the rate limit.
+     * If so, pauses all requests for the appropriate time and returns true, meaning the request can be retried.
+     *
+     * @param code response code
+     * @param retryAfter value of 'Retry-After' response header, may be null
+     * @param errorBody body of the error response
+     * @param attempt how many times the request was already made, starting with 1
+     */
+    synchronized boolean backOff(int code, String retryAfter, String errorBody, int attempt) {
+        if (code != 403 && code != 429) {
+            return false;
+        }
+        long now = now();
+        long delay;
+        if (retryAfter != null && retryAfter.trim().matches("\\d+")) {
+            delay = Long.parseLong(retryAfter.trim()) * 1000;
+        } else if (remaining == 0 && resetAtMillis > now) {
+            delay = resetAtMillis + RESET_MARGIN_MILLIS - now;
+        } else if (code == 429 || errorBody.contains("rate limit") || errorBody.contains("abuse")) {
+            delay = SECONDARY_LIMIT_BACKOFF_MILLIS << Math.min(attempt - 1, 4);
+        } else {
+            return false;
+        }
+        LOG.info("GitHub API rejected the request with code {} because of rate limit, retrying in {}ms", code, delay);
+        pausedUntil = Math.max(pausedUntil, now + delay);
+        return true;
+    }
+
+    private void refill(long now) {
+        if (lastRefill != UNKNOWN) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * requestsPerSecond / 1000);
+        }
+        lastRefill = now;
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Releases the lock while waiting, so that responses of requests in flight can update the budget.
+     */
+    void waitFor(long millis) throws InterruptedException {
+        if (millis > 0) {
+            wait(millis);
+        }
+    }
+}
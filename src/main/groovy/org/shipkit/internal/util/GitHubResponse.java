@@ -0,0 +1,91 @@
+package org.shipkit.internal.util;
+
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response from GitHub API returned by {@link GitHubClient}.
+ * The response body is an open stream. The response needs to be closed
+ * so that the underlying keep-alive connection can be reused by the next request.
+ */
+public class GitHubResponse implements Closeable {
+
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+
+    GitHubResponse(int statusCode, Map<String, List<String>> headers, InputStream body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * HTTP status code, for example: 200
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the last value of given header or null if the header is not present.
+     * Header names are case insensitive.
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                List<String> values = header.getValue();
+                return values.isEmpty() ? null : values.get(values.size() - 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decoded (e.g. gunzipped) response body. Closing the response closes the body.
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Reads the whole response body as UTF-8 text and closes the response.
+     */
+    public String getContent() {
+        try {
+            return IOUtil.readFully(body);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Reads any remaining bytes of the body and closes it.
+     * Fully consumed responses allow the JDK to return the connection to the keep-alive cache.
+     */
+    public void close() {
+        byte[] buffer = new byte[4096];
+        try {
+            while (body.read(buffer) != -1) {
+                //draining so that the connection can be reused
+            }
+        } catch (IOException e) {
+            //the connection will not be reused, nothing else we can do here
+        } finally {
+            closeQuietly(body);
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            //the stream is unusable anyway
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.shipkit.internal.util;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.shipkit.internal.notes.util.FileRegistry;
+import org.shipkit.internal.notes.util.IOUtil;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of GitHub API responses, used by {@link GitHubClient} to send conditional requests.
+ * GitHub answers conditional requests with "304 Not Modified" when the resource did not change.
+ * Such response has no body and does not count against the rate limit.
+ * <p>
+ * Entries are keyed by the SHA-1 of the request url, so that auth tokens are never written to disk.
+ * Every entry consists of 2 files: the body and the properties file with response headers (incl. ETag and Last-Modified).
+ * The total size of bodies is bounded, least recently used entries are evicted first.
+ */
+public class GitHubResponseCache {
+
+    private static final Logger LOG = Logging.getLogger(GitHubResponseCache.class);
+
+    private static final long DEFAULT_MAX_SIZE_BYTES = 50L * 1024 * 1024;
+    private static final String BODY_EXT = ".body";
+    private static final String HEADERS_EXT = ".properties";
+    private static final String HEADER_PREFIX = "header.";
+
+    private static final FileRegistry<GitHubResponseCache> INSTANCES = new FileRegistry<GitHubResponseCache>() {
+        protected GitHubResponseCache create(File dir) {
+            return new GitHubResponseCache(dir, DEFAULT_MAX_SIZE_BYTES);
+        }
+    };
+
+    private final File dir;
+    private final long maxSizeBytes;
+    //key -> body size, iteration order is from the least recently used
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private long size;
+
+    GitHubResponseCache(File dir, long maxSizeBytes) {
+        this.dir = dir;
+        this.maxSizeBytes = maxSizeBytes;
+        loadIndex();
+    }
+
+    /**
+     * Returns the cache for given directory. The instances are shared so that all tasks in the build
+     * operate on the same index.
+     */
+    public static GitHubResponseCache forDirectory(File dir) {
+        return INSTANCES.get(dir);
+    }
+
+    private void loadIndex() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> bodies = new ArrayList<File>();
+        for (File f : files) {
+            if (f.getName().endsWith(BODY_EXT)) {
+                bodies.add(f);
+            }
+        }
+        //the file modification time is the last access time, see 'get' method
+        Collections.sort(bodies, new Comparator<File>() {
+            public int compare(File a, File b) {
+                return a.lastModified() < b.lastModified() ? -1 : (a.lastModified() == b.lastModified() ? 0 : 1);
+            }
+        });
+        for (File body : bodies) {
+            String name = body.getName();
+            entries.put(name.substring(0, name.length() - BODY_EXT.length()), body.length());
+            size += body.length();
+        }
+        evict();
+    }
+
+    /**
+     * Returns cached response for given url or null if there isn't any.
+     */
+    synchronized Entry get(String url) {
+        String key = key(url);
+        if (entries.get(key) == null) {
+            return null;
+        }
+        File body = new File(dir, key + BODY_EXT);
+        Properties properties = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(new File(dir, key + HEADERS_EXT));
+            properties.load(in);
+        } catch (IOException e) {
+            LOG.info("Unable to read cached GitHub response headers, the entry will be discarded", e);
+            remove(key);
+            return null;
+        } finally {
+            IOUtil.close(in);
+        }
+        body.setLastModified(System.currentTimeMillis());
+        return new Entry(body, properties);
+    }
+
+    /**
+     * Wraps the response body so that it is written to the cache while the caller reads it.
+     * The entry is stored when the whole body was read.
+     */
+    InputStream store(String url, Map<String, List<String>> headers, InputStream body) {
+        Properties properties = new Properties();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            List<String> values = header.getValue();
+            if (header.getKey() != null && !values.isEmpty()) {
+                properties.setProperty(HEADER_PREFIX + header.getKey().toLowerCase(Locale.ENGLISH), values.get(values.size() - 1));
+            }
+        }
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                return body;
+            }
+            File temp = File.createTempFile("response", ".tmp", dir);
+            return new CachingInputStream(body, temp, key(url), properties);
+        } catch (IOException e) {
+            LOG.info("Unable to cache GitHub response in " + dir, e);
+            return body;
+        }
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Current statistics, useful to report hit rate of a task, see {@link Stats#since(Stats)}
+     */
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get());
+    }
+
+    private synchronized void commit(String key, File tempBody, Properties properties) throws IOException {
+        File headersTemp = File.createTempFile("headers", ".tmp", dir);
+        OutputStream out = new FileOutputStream(headersTemp);
+        try {
+            properties.store(out, null);
+        } finally {
+            IOUtil.close(out);
+        }
+        remove(key);
+        try {
+            IOUtil.replaceFile(tempBody, new File(dir, key + BODY_EXT));
+            IOUtil.replaceFile(headersTemp, new File(dir, key + HEADERS_EXT));
+        } catch (IOException e) {
+            headersTemp.delete();
+            remove(key);
+            return;
+        }
+        long length = new File(dir, key + BODY_EXT).length();
+        entries.put(key, length);
+        size += length;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (size > maxSizeBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            size -= eldest.getValue();
+            delete(eldest.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Long length = entries.remove(key);
+        if (length != null) {
+            size -= length;
+        }
+        delete(key);
+    }
+
+    private void delete(String key) {
+        new File(dir, key + BODY_EXT).delete();
+        new File(dir, key + HEADERS_EXT).delete();
+    }
+
+    private static String key(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Cached response
+     */
+    static class Entry {
+        private final File body;
+        private final Properties properties;
+
+        Entry(File body, Properties properties) {
+            this.body = body;
+            this.properties = properties;
+        }
+
+        String getHeader(String name) {
+            return properties.getProperty(HEADER_PREFIX + name.toLowerCase(Locale.ENGLISH));
+        }
+
+        /**
+         * Cached headers, overridden by the headers of the "304 Not Modified" response
+         */
+        Map<String, List<String>> mergeHeaders(Map<String, List<String>> notModifiedHeaders) {
+            Map<String, List<String>> result = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+            for (String name : properties.stringPropertyNames()) {
+                result.put(name.substring(HEADER_PREFIX.length()), Collections.singletonList(properties.getProperty(name)));
+            }
+            for (Map.Entry<String, List<String>> header : notModifiedHeaders.entrySet()) {
+                if (header.getKey() != null) {
+                    result.put(header.getKey(), header.getValue());
+                }
+            }
+            return result;
+        }
+
+        InputStream openBody() throws FileNotFoundException {
+            return new BufferedInputStream(new FileInputStream(body));
+        }
+    }
+
+    /**
+     * Hit and miss counters
+     */
+    public static class Stats {
+        private final int hits;
+        private final int misses;
+
+        Stats(int hits, int misses) {
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        /**
+         * Stats of the requests made after given snapshot was taken
+         */
+        public Stats since(Stats snapshot) {
+            return new Stats(hits - snapshot.hits, misses - snapshot.misses);
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        public int getRequests() {
+            return hits + misses;
+        }
+
+        @Override
+        public String toString() {
+            int requests = getRequests();
+            int hitRate = requests == 0 ? 0 : hits * 100 / requests;
+            return requests + " cacheable request(s), " + hits + " not modified (" + hitRate + "% hit rate)";
+        }
+    }
+
+    private class CachingInputStream extends FilterInputStream {
+        private final File temp;
+        private final String key;
+        private final Properties properties;
+        private OutputStream copy;
+
+        CachingInputStream(InputStream in, File temp, String key, Properties properties) throws FileNotFoundException {
+            super(in);
+            this.temp = temp;
+            this.key = key;
+            this.properties = properties;
+            this.copy = new BufferedOutputStream(new FileOutputStream(temp));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                complete();
+            } else if (copy != null) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+                complete();
+            } else if (copy != null) {
+                copy.write(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            //skipping would bypass the copy
+            byte[] buffer = new byte[(int) Math.min(n, 4096)];
+            int read = read(buffer, 0, buffer.length);
+            return read == -1 ? 0 : read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void complete() throws IOException {
+            if (copy == null) {
+                return;
+            }
+            OutputStream out = copy;
+            copy = null;
+            out.close();
+            commit(key, temp, properties);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (copy != null) {
+                    //body was not fully read, we don't cache partial responses
+                    IOUtil.close(copy);
+                    copy = null;
+                }
+                temp.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.shipkit.internal.util;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor shared by all tasks of the build for concurrent, I/O bound work like GitHub API requests.
+ * Bounding the number of threads for the whole build keeps the load on GitHub API sane
+ * and does not leak threads: idle threads die after a while and the executor is shut down when the build finishes.
+ * <p>
+ * Parallelism can be configured with "org.shipkit.parallelism" system property,
+ * for example in gradle.properties: systemProp.org.shipkit.parallelism=16
+ */
+public class SharedExecutor {
+
+    private static final Logger LOG = Logging.getLogger(SharedExecutor.class);
+
+    static final String PARALLELISM_PROPERTY = "org.shipkit.parallelism";
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static ThreadPoolExecutor executor;
+
+    /**
+     * Returns the shared executor, creates one if needed (for example, after the previous build shut it down).
+     */
+    public static synchronized ExecutorService getDefault() {
+        if (executor == null) {
+            executor = newExecutor(getParallelism());
+        }
+        return executor;
+    }
+
+    /**
+     * Max number of threads that execute tasks submitted to {@link #getDefault()}.
+     */
+    public static int getParallelism() {
+        Integer parallelism = Integer.getInteger(PARALLELISM_PROPERTY);
+        if (parallelism == null) {
+            return DEFAULT_PARALLELISM;
+        }
+        if (parallelism < 1) {
+            LOG.warn("Ignoring invalid value of '{}' system property: {}, using {}", PARALLELISM_PROPERTY, parallelism, DEFAULT_PARALLELISM);
+            return DEFAULT_PARALLELISM;
+        }
+        return parallelism;
+    }
+
+    /**
+     * Cancels outstanding work and releases the threads. Safe to call many times.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    static ThreadPoolExecutor newExecutor(int parallelism) {
+        ThreadPoolExecutor e = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "shipkit-worker-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        e.allowCoreThreadTimeOut(true);
+        return e;
+    }
+}
@@ -24,7 +24,6 @@ class ShipkitGradlePluginIntegTest extends GradleSpecification {
         expect:
         def result = pass("performRelease", "-m", "-s")
         result.tasks.join("\n") == """:bumpVersionFile=SKIPPED
-:fetchAllContributors=SKIPPED
 :fetchReleaseNotes=SKIPPED
 :updateReleaseNotes=SKIPPED
 :gitCommit=SKIPPED
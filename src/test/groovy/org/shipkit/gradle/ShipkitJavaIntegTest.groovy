@@ -54,11 +54,11 @@ class ShipkitJavaIntegTest extends GradleSpecification {
         def result = pass("performRelease", "-m", "-s")
         //git push and bintray upload tasks should run as late as possible
         result.tasks.join("\n") == """:bumpVersionFile=SKIPPED
-:fetchAllContributors=SKIPPED
 :fetchReleaseNotes=SKIPPED
 :updateReleaseNotes=SKIPPED
 :gitCommit=SKIPPED
 :gitTag=SKIPPED
+:fetchAllContributors=SKIPPED
 :api:generatePomFileForJavaLibraryPublication=SKIPPED
 :api:compileJava=SKIPPED
 :api:processResources=SKIPPED
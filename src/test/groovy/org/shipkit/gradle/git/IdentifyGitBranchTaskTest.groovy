@@ -1,10 +1,16 @@
 package org.shipkit.gradle.git
 
 import org.gradle.testfixtures.ProjectBuilder
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.IgnoreIf
 import spock.lang.Specification
 
+import static org.shipkit.internal.exec.TestUtil.commandAvailable
+
 class IdentifyGitBranchTaskTest extends Specification {
 
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
     def project = new ProjectBuilder().build()
 
     def "identifies branch"() {
@@ -18,6 +24,51 @@ class IdentifyGitBranchTaskTest extends Specification {
         !t.branch.isEmpty()
     }
 
+    def "reads the branch from the git directory without running git"() {
+        //not a real repository, 'git rev-parse' would fail here
+        def git = tmp.newFolder(".git")
+        new File(git, "HEAD").text = "ref: refs/heads/feature-x\n"
+        new File(git, "refs/heads").mkdirs()
+        new File(git, "refs/heads/feature-x").text = "a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9\n"
+        def t = project.tasks.create("identify", IdentifyGitBranchTask)
+        t.workDir = tmp.root
+
+        when:
+        t.execute()
+
+        then:
+        t.branch == "feature-x"
+    }
+
+    @IgnoreIf({ !commandAvailable("git --version") })
+    def "runs git when the branch cannot be read from the git directory"() {
+        git("init")
+        git("-c", "user.name=a", "-c", "user.email=a@b", "commit", "--allow-empty", "-m", "first")
+        git("checkout", "-b", "topic")
+        //config with includes is not read without git
+        new File(tmp.root, ".git/config") << "[include]\n\tpath = missing.config\n"
+        def t = project.tasks.create("identify", IdentifyGitBranchTask)
+        t.workDir = tmp.root
+
+        when:
+        t.execute()
+
+        then:
+        t.branch == "topic"
+    }
+
+    def "runs configured command"() {
+        def t = project.tasks.create("identify", IdentifyGitBranchTask)
+        t.workDir = tmp.root
+        t.commandLine = ["echo", "from-command"]
+
+        when:
+        t.execute()
+
+        then:
+        t.branch == "from-command"
+    }
+
     def "uses explicitly configured branch"() {
         def t = project.tasks.create("identify", IdentifyGitBranchTask)
         t.branch = "master"
@@ -39,4 +90,10 @@ class IdentifyGitBranchTaskTest extends Specification {
         then:
         thrown(IdentifyGitBranchTask.BranchNotAvailableException)
     }
+
+    private void git(String... args) {
+        def process = (["git"] + args.toList()).execute(null, tmp.root)
+        process.waitForProcessOutput(new StringBuilder(), new StringBuilder())
+        assert process.exitValue() == 0
+    }
 }
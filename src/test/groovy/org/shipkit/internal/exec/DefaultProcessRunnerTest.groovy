@@ -4,6 +4,7 @@ import org.gradle.api.GradleException
 import org.gradle.api.logging.Logger
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.notes.util.Function
 import spock.lang.IgnoreIf
 import spock.lang.Specification
 
@@ -70,4 +71,86 @@ class DefaultProcessRunnerTest extends Specification {
         then:
         noExceptionThrown()
     }
+
+    def "streams output to the reader"() {
+        File dir = tmp.newFolder()
+        new File(dir, "xyz.txt").createNewFile()
+
+        when:
+        def output = new DefaultProcessRunner(dir).run({ InputStream s -> s.getText("UTF-8") } as Function, ["ls"])
+
+        then:
+        output.contains("xyz.txt")
+    }
+
+    def "reader does not need to read all output"() {
+        when:
+        def first = new DefaultProcessRunner(tmp.root).run({ InputStream s -> (char) s.read() } as Function, ["seq", "1", "100000"])
+
+        then:
+        first == "1"
+    }
+
+    def "masks failure message of streamed command"() {
+        File dir = tmp.newFolder()
+
+        when:
+        new DefaultProcessRunner(dir).setSecretValue("foobar").run({ InputStream s -> s.getText("UTF-8") } as Function, ["ls", "foobar"])
+
+        then:
+        def ex = thrown(GradleException)
+        ex.message.contains("Execution of command failed")
+        !ex.message.contains("foobar")
+        ex.message.contains("[SECRET]")
+    }
+
+    def "writes output to the log file and keeps only the end of it"() {
+        def log = new File(tmp.root, "logs/output.log")
+
+        when:
+        def output = new DefaultProcessRunner(tmp.root, log).setSecretValue("99999").run("seq", "1", "100000")
+
+        then:
+        log.text.startsWith("1\n2\n3\n")
+        log.text.contains("\n99998\n[SECRET]\n100000\n")
+        output.startsWith("[...]\n")
+        output.endsWith("\n99998\n[SECRET]\n100000\n")
+        output.length() <= 64 * 1024 + 6
+    }
+
+    def "keeps full output when requested"() {
+        def log = new File(tmp.root, "output.log")
+
+        when:
+        def output = Exec.getProcessRunner(tmp.root, log, true).run("seq", "1", "100000")
+
+        then:
+        output == log.text
+        output.startsWith("1\n2\n3\n")
+    }
+
+    def "keeps the end of the output that is one long line"() {
+        def log = new File(tmp.root, "output.log")
+
+        when:
+        def output = new DefaultProcessRunner(tmp.root, log).run("sh", "-c", "head -c 70000 /dev/zero | tr '\\0' x; echo")
+
+        then:
+        log.text == "x" * 70000 + "\n"
+        output == "[...]" + "x" * (64 * 1024 - 1) + "\n"
+    }
+
+    def "reports the end of the output stored in the log file"() {
+        def log = new File(tmp.root, "output.log")
+
+        when:
+        new DefaultProcessRunner(tmp.root, log).setSecretValue("foobar").run("ls", "foobar")
+
+        then:
+        def ex = thrown(GradleException)
+        ex.message.contains("Captured command output stored in " + log)
+        ex.message.contains("[SECRET]")
+        !ex.message.contains("foobar")
+        log.text.contains("[SECRET]")
+    }
 }
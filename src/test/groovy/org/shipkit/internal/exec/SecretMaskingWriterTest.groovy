@@ -0,0 +1,41 @@
+package org.shipkit.internal.exec
+
+import spock.lang.Specification
+
+class SecretMaskingWriterTest extends Specification {
+
+    def "masks all secrets"() {
+        expect:
+        SecretMaskingWriter.mask(text, secrets) == masked
+
+        where:
+        text                 | secrets               | masked
+        "a foo b bar c foo"  | ["foo", "bar"]        | "a [SECRET] b [SECRET] c [SECRET]"
+        "foobar"             | ["foo", "foobar"]     | "[SECRET]"
+        "fofoo"              | ["foo"]               | "fo[SECRET]"
+        "abc"                | []                    | "abc"
+        "abc"                | [null, ""]            | "abc"
+        "xyz"                | ["xyz1"]              | "xyz"
+    }
+
+    def "masks secrets split across chunks"() {
+        def out = new StringWriter()
+        def writer = new SecretMaskingWriter(out, ["secret", "sec"])
+
+        when:
+        writer.write("a se")
+        writer.write("cr")
+        writer.write("et b sec")
+        writer.flush()
+
+        then:
+        //the end could be the beginning of the longer secret
+        out.toString() == "a [SECRET] b "
+
+        when:
+        writer.close()
+
+        then:
+        out.toString() == "a [SECRET] b [SECRET]"
+    }
+}
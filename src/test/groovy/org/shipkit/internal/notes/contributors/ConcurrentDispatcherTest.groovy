@@ -1,8 +1,11 @@
 package org.shipkit.internal.notes.contributors
 
 import org.shipkit.internal.notes.util.Function
+import org.shipkit.internal.util.SharedExecutor
 import spock.lang.Specification
 
+import java.util.concurrent.atomic.AtomicInteger
+
 
 class ConcurrentDispatcherTest extends Specification {
 
@@ -33,4 +36,48 @@ class ConcurrentDispatcherTest extends Specification {
         then:
         result.isEmpty()
     }
+
+    def "stops outstanding work when one item fails"() {
+        def executor = SharedExecutor.newExecutor(2)
+        def applied = new AtomicInteger()
+        def function = { Integer i ->
+            applied.incrementAndGet()
+            if (i == 1) {
+                throw new IllegalStateException("boom")
+            }
+            Thread.sleep(10)
+            i
+        } as Function
+
+        when:
+        new ConcurrentDispatcher(executor, 2).dispatch(function, (1 .. 100).toList())
+
+        then:
+        def e = thrown(RuntimeException)
+        e.cause.message == "boom"
+        applied.get() < 100
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "uses up to given number of workers"() {
+        def executor = SharedExecutor.newExecutor(3)
+        def threads = Collections.synchronizedSet(new HashSet())
+        def function = { Integer i ->
+            threads << Thread.currentThread()
+            Thread.sleep(5)
+            i
+        } as Function
+
+        when:
+        def result = new ConcurrentDispatcher(executor, 3).dispatch(function, (1 .. 30).toList())
+
+        then:
+        result == (1 .. 30).toSet()
+        threads.size() <= 3
+
+        cleanup:
+        executor.shutdownNow()
+    }
 }
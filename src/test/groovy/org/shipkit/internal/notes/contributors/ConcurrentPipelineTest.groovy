@@ -0,0 +1,103 @@
+package org.shipkit.internal.notes.contributors
+
+import org.shipkit.internal.notes.util.Function
+import org.shipkit.internal.util.SharedExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ConcurrentPipelineTest extends Specification {
+
+    def executor = SharedExecutor.newExecutor(4)
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "processes items while they are produced"() {
+        def pipeline = new ConcurrentPipeline({ Integer i -> i * 2 } as Function, executor, 10)
+
+        when:
+        (1 .. 50).each { pipeline.submit(it) }
+
+        then:
+        pipeline.finish() == (1 .. 50).collect { it * 2 }.toSet()
+    }
+
+    def "bounds the number of pending items"() {
+        def release = new CountDownLatch(1)
+        def pipeline = new ConcurrentPipeline({ Integer i -> release.await(); i } as Function, executor, 2)
+        pipeline.submit(1)
+        pipeline.submit(2)
+        def submitted = new CountDownLatch(1)
+
+        when:
+        Thread.start {
+            pipeline.submit(3)
+            submitted.countDown()
+        }
+
+        then:
+        !submitted.await(200, TimeUnit.MILLISECONDS)
+
+        when:
+        release.countDown()
+
+        then:
+        submitted.await(5, TimeUnit.SECONDS)
+        pipeline.finish() == [1, 2, 3] as Set
+    }
+
+    def "reports failure and skips outstanding work"() {
+        def applied = new AtomicInteger()
+        def pipeline = new ConcurrentPipeline({ Integer i ->
+            applied.incrementAndGet()
+            if (i == 1) {
+                throw new IllegalStateException("boom")
+            }
+            Thread.sleep(10)
+            i
+        } as Function, executor, 100)
+
+        when:
+        (1 .. 100).each { pipeline.submit(it) }
+        pipeline.finish()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.cause.message == "boom"
+        applied.get() < 100
+    }
+
+    def "releases pending items that are cancelled before they run"() {
+        def single = SharedExecutor.newExecutor(1)
+        def release = new CountDownLatch(1)
+        def pipeline = new ConcurrentPipeline({ Integer i -> release.await(); i } as Function, single, 2)
+        pipeline.submit(1)
+        pipeline.submit(2)
+
+        when:
+        pipeline.cancel()
+
+        then:
+        pipeline.pending.availablePermits() == 2
+
+        cleanup:
+        single.shutdownNow()
+    }
+
+    def "releases the item that executor rejects"() {
+        def pipeline = new ConcurrentPipeline({ Integer i -> i } as Function, executor, 1)
+        executor.shutdown()
+
+        when:
+        pipeline.submit(1)
+
+        then:
+        thrown(RejectedExecutionException)
+        pipeline.pending.availablePermits() == 1
+    }
+}
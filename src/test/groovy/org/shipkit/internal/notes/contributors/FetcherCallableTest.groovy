@@ -7,7 +7,7 @@ class FetcherCallableTest extends Specification {
 
     def "call"() {
         given:
-        def list = (1 .. 5).toList()
+        def list = new LinkedList((1 .. 5).toList())
         def functionMock = Mock(Function)
 
         functionMock.apply(_) >>> list.collect { it + 5 }
@@ -23,7 +23,7 @@ class FetcherCallableTest extends Specification {
 
     def "call using empty list"() {
         given:
-        def list = []
+        def list = new LinkedList()
         def functionMock = Mock(Function)
 
         when:
@@ -1,6 +1,7 @@
 package org.shipkit.internal.notes.contributors
 
 import org.json.simple.JsonObject
+import org.shipkit.internal.notes.util.JsonReader
 import spock.lang.Specification
 
 class GitHubCommitsJSONTest extends Specification {
@@ -30,4 +31,25 @@ class GitHubCommitsJSONTest extends Specification {
         then:
         contributor == null
     }
+
+    def "reads commit author from stream"() {
+        def json = '''{"sha": "abc", "commit": {"author": {"name": "Continuous Delivery Drone", "date": "2017-05-04"},
+            "message": "Released"}, "author": {"login": "continuous-delivery-drone", "id": 1,
+            "html_url": "https://github.com/continuous-delivery-drone"}, "parents": [{"sha": "def"}]}'''
+
+        when:
+        def contributor = GitHubCommitsJSON.readContributor(new JsonReader(new StringReader(json)))
+
+        then:
+        contributor.name == "Continuous Delivery Drone"
+        contributor.login == "continuous-delivery-drone"
+        contributor.profileUrl == "https://github.com/continuous-delivery-drone"
+    }
+
+    def "reads null when author doesn't exist"() {
+        def json = '{"commit": {"author": {"name": "Ben Yu"}}, "author": null, "committer": null}'
+
+        expect:
+        GitHubCommitsJSON.readContributor(new JsonReader(new StringReader(json))) == null
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package org.shipkit.internal.notes.contributors
+
+import org.json.simple.JsonObject
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class GitHubUserCacheTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    //fake clock
+    long time = 1000
+
+    def "caches users between builds"() {
+        def cache = newCache(100, 10)
+        cache.put(new JsonObject(login: "szczepiq", name: "Szczepan Faber"))
+        cache.put(new JsonObject(login: "drone", name: null))
+
+        when:
+        cache.save()
+        def reloaded = newCache(100, 10)
+
+        then:
+        reloaded.get("szczepiq").name == "Szczepan Faber"
+        reloaded.get("szczepiq").login == "szczepiq"
+        reloaded.get("drone").name == null
+        reloaded.get("epeee") == null
+    }
+
+    def "entries expire"() {
+        def cache = newCache(100, 10)
+        cache.put(new JsonObject(login: "szczepiq", name: "Szczepan Faber"))
+
+        when:
+        time += 100
+
+        then:
+        cache.get("szczepiq") != null
+
+        when:
+        time += 51
+
+        then:
+        cache.get("szczepiq") == null
+    }
+
+    def "drops least recently used entries"() {
+        def cache = newCache(100, 2)
+        cache.put(new JsonObject(login: "a", name: "A"))
+        cache.put(new JsonObject(login: "b", name: "B"))
+        cache.get("a")
+
+        when:
+        cache.put(new JsonObject(login: "c", name: "C"))
+
+        then:
+        cache.get("a") != null
+        cache.get("b") == null
+        cache.get("c") != null
+    }
+
+    def "ignores corrupted cache file"() {
+        tmp.newFile("users.json").text = '{"users": [{"login": '
+
+        expect:
+        newCache(100, 10).get("szczepiq") == null
+    }
+
+    private GitHubUserCache newCache(long ttl, int maxEntries) {
+        new GitHubUserCache(new File(tmp.root, "users.json"), ttl, maxEntries) {
+            long now() {
+                GitHubUserCacheTest.this.time
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.shipkit.internal.notes.contributors
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.exec.ProcessRunner
+import org.shipkit.internal.util.GitHubClient
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class LocalContributorsProviderTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+
+    def log = """c5@@info@@szczepiq@gmail.com@@info@@Szczepan Faber
+c4@@info@@mstachniuk@gmail.com@@info@@Marcin Stachniuk
+c3@@info@@Szczepiq@users.noreply.github.com@@info@@Szczepan F.
+c2@@info@@szczepiq@gmail.com@@info@@Szczepan
+c1@@info@@bot@ci.org@@info@@CI bot"""
+
+    def runner = [run: { String... args ->
+        args[1] == "rev-parse" ? ".git\n" : log
+    }] as ProcessRunner
+
+    def setup() {
+        respond("/repos/mockito/shipkit/commits/c2", 200, commit("szczepiq"))
+        respond("/repos/mockito/shipkit/commits/c3", 200, commit("szczepiq"))
+        respond("/repos/mockito/shipkit/commits/c4", 200, commit("mstachniuk"))
+        respond("/repos/mockito/shipkit/commits/c1", 200, '{"commit": {"author": {"name": "CI bot"}}, "author": null}')
+    }
+
+    def "counts contributions using local history"() {
+        when:
+        def contributors = newProvider(new GitHubEmailCache(null, 100)).allContributorsForProject
+
+        then:
+        def szczepiq = contributors.allContributors.find { it.login == "szczepiq" }
+        szczepiq.numberOfContributions == 3
+        szczepiq.name == "Szczepan Faber"
+        szczepiq.profileUrl == "https://github.com/szczepiq"
+        contributors.allContributors.find { it.login == "mstachniuk" }.numberOfContributions == 1
+        contributors.size() == 2
+    }
+
+    def "asks GitHub only about emails not seen before"() {
+        def cacheFile = new File(tmp.root, "emails.json")
+        newProvider(new GitHubEmailCache(cacheFile, 100)).allContributorsForProject
+        def firstRun = requests.size()
+
+        log = "c6@@info@@nick@company.com@@info@@New Contributor\n" + log
+        respond("/repos/mockito/shipkit/commits/c6", 200, commit("nick"))
+
+        when:
+        def contributors = newProvider(new GitHubEmailCache(cacheFile, 100)).allContributorsForProject
+
+        then:
+        firstRun == 4
+        requests.size() == 5
+        requests.last().startsWith("/repos/mockito/shipkit/commits/c6")
+        contributors.size() == 3
+    }
+
+    def "uses GitHub when the clone is shallow"() {
+        new File(tmp.root, ".git").mkdirs()
+        new File(tmp.root, ".git/shallow").createNewFile()
+        def fallbackResult = new DefaultProjectContributorsSet()
+        def fallback = [getAllContributorsForProject: { fallbackResult }] as ContributorsProvider
+
+        expect:
+        new LocalContributorsProvider(tmp.root, runner, apiUrl(), "mockito/shipkit", "token", new GitHubEmailCache(null, 100), GitHubClient.default, fallback)
+                .allContributorsForProject.is(fallbackResult)
+    }
+
+    private LocalContributorsProvider newProvider(GitHubEmailCache cache) {
+        new LocalContributorsProvider(tmp.root, runner, apiUrl(), "mockito/shipkit", "token", cache, GitHubClient.default, null)
+    }
+
+    private String apiUrl() {
+        server.url
+    }
+
+    private List<String> getRequests() {
+        server.requests*.toString()
+    }
+
+    private static String commit(String login) {
+        """{"sha": "x", "commit": {"author": {"name": "whatever"}}, "author": {"login": "$login", "html_url": "https://github.com/$login"}}"""
+    }
+
+    private void respond(String path, int code, String content) {
+        server.respond(path, code, content)
+    }
+}
@@ -25,4 +25,20 @@ class ProjectContributorFetcherFunctionTest extends Specification {
         contributor.name
         contributor.name.contains('Erhard')
     }
+
+    def "uses cached user profile"() {
+        def cache = new GitHubUserCache(new File("not-saved.json"), 1000, 10)
+        cache.put(new JsonObject(login: "epeee", name: "Erhard Pointl"))
+        //there is no server, fetching would fail
+        def function = new ProjectContributorFetcherFunction(new GitHubObjectFetcher("token"), cache)
+
+        when:
+        ProjectContributor contributor = function.apply(new JsonObject(login: "epeee", url: "http://localhost:1/users/epeee",
+                html_url: "https://github.com/epeee", contributions: new BigDecimal(10)))
+
+        then:
+        contributor.login == "epeee"
+        contributor.name == "Erhard Pointl"
+        contributor.numberOfContributions == 10
+    }
 }
@@ -0,0 +1,70 @@
+package org.shipkit.internal.notes.contributors
+
+import org.junit.Rule
+import org.shipkit.internal.notes.vcs.DefaultContributionSet
+import org.shipkit.internal.notes.vcs.GitCommit
+import org.shipkit.internal.util.GitHubClient
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class ReleaseContributorsProviderTest extends Specification {
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+    def emailCache = new GitHubEmailCache(null, 100)
+
+    def setup() {
+        respond("/repos/mockito/shipkit/commits/c2", 200, commit("mstachniuk"))
+        respond("/repos/mockito/shipkit/commits/c3", 404, '{"message": "Not Found"}')
+    }
+
+    def "resolves only authors of given contributions"() {
+        emailCache.put("szczepiq@gmail.com", new DefaultContributor(null, "szczepiq", "https://github.com/szczepiq"))
+        def v1 = new DefaultContributionSet()
+                .add(new GitCommit("c5", "szczepiq@gmail.com", "Szczepan Faber", "fix"))
+                .add(new GitCommit("c4", "Szczepiq@gmail.com", "Szczepan", "fix"))
+        def v2 = new DefaultContributionSet()
+                .add(new GitCommit("c3", "new@company.com", "Not Pushed Yet", "fix"))
+                .add(new GitCommit("c2", "mstachniuk@gmail.com", "Marcin Stachniuk", "fix"))
+                .add(new GitCommit("c1", "szczepiq@gmail.com", "Szczepan Faber", "fix"))
+
+        when:
+        def contributors = provider().getContributors([v1, v2])
+
+        then:
+        //only emails not seen before
+        requests.sort() == ["/repos/mockito/shipkit/commits/c2", "/repos/mockito/shipkit/commits/c3"]
+
+        //every name of the author is present so that the release notes can link it
+        contributors.findByName("Szczepan Faber").login == "szczepiq"
+        contributors.findByName("Szczepan Faber").numberOfContributions == 2
+        contributors.findByName("Szczepan").login == "szczepiq"
+        contributors.findByName("Marcin Stachniuk").profileUrl == "https://github.com/mstachniuk"
+        contributors.size() == 3
+    }
+
+    def "no contributions"() {
+        expect:
+        provider().getContributors([]).size() == 0
+        requests.empty
+    }
+
+    private ReleaseContributorsProvider provider() {
+        new ReleaseContributorsProvider(new GitHubAuthorResolver(apiUrl(), "mockito/shipkit", "token", emailCache, GitHubClient.default))
+    }
+
+    private String apiUrl() {
+        server.url
+    }
+
+    private List<String> getRequests() {
+        server.requests*.path
+    }
+
+    private static String commit(String login) {
+        """{"sha": "x", "commit": {"author": {"name": "whatever"}}, "author": {"login": "$login", "html_url": "https://github.com/$login"}}"""
+    }
+
+    private void respond(String path, int code, String content) {
+        server.respond(path, code, content)
+    }
+}
@@ -1,12 +1,69 @@
 package org.shipkit.internal.notes.generator
 
+import org.shipkit.internal.notes.contributors.ContributorsProvider
 import org.shipkit.internal.notes.format.ReleaseNotesFormatters
+import org.shipkit.internal.notes.improvements.ImprovementsProvider
+import org.shipkit.internal.notes.internal.DefaultImprovement
+import org.shipkit.internal.notes.model.ContributionSet
+import org.shipkit.internal.notes.vcs.ContributionsProvider
 import org.shipkit.internal.notes.vcs.IgnoredCommit
+import org.shipkit.internal.notes.vcs.ReleasedVersion
+import org.shipkit.internal.notes.vcs.ReleasedVersionsProvider
 import spock.lang.Ignore
 import spock.lang.Specification
 
 class DefaultReleaseNotesGeneratorTest extends Specification {
 
+    def contributionsProvider = Mock(ContributionsProvider)
+    def improvementsProvider = Mock(ImprovementsProvider)
+    def releasedVersionsProvider = Mock(ReleasedVersionsProvider)
+    def gen = new DefaultReleaseNotesGenerator(contributionsProvider, improvementsProvider, releasedVersionsProvider, Mock(ContributorsProvider))
+
+    def "resolves improvements of all versions at once"() {
+        releasedVersionsProvider.getReleasedVersions("1.2", _, ["1.0"], "v") >> [version("1.2", "v1.1"), version("1.1", "v1.0"), version("1.0", null)]
+        contributionsProvider.getContributionsBetween(["v1.2", "v1.1", "v1.0"]) >> [contributions(["3", "2"]), contributions(["2", "1"])]
+
+        when:
+        def notes = gen.generateReleaseNotesData("1.2", ["1.0"], "v", ["bug"], false) as List
+
+        then:
+        1 * improvementsProvider.getImprovements(["3", "2", "1"] as Set, ["bug"], false) >> [improvement(3), improvement(1)]
+        0 * improvementsProvider._
+
+        notes*.version == ["1.2", "1.1"]
+        notes[0].improvements*.id == [3L]
+        notes[1].improvements*.id == [1L]
+    }
+
+    def "does not query improvements when no tickets are referenced"() {
+        releasedVersionsProvider.getReleasedVersions("1.1", _, [], "v") >> [version("1.1", "v1.0")]
+        contributionsProvider.getContributionsBetween(["v1.1", "v1.0"]) >> [contributions([])]
+
+        when:
+        def notes = gen.generateReleaseNotesData("1.1", [], "v", [], false)
+
+        then:
+        0 * improvementsProvider._
+        notes.size() == 1
+        notes[0].improvements.isEmpty()
+    }
+
+    def "gets contributions of every version separately when versions are not consecutive"() {
+        releasedVersionsProvider.getReleasedVersions("1.2", _, ["1.1"], "v") >> [version("1.2", "v1.0"), version("1.1", "v1.0")]
+
+        when:
+        def notes = gen.generateReleaseNotesData("1.2", ["1.1"], "v", [], false) as List
+
+        then:
+        1 * contributionsProvider.getContributionsBetween("v1.0", "v1.2") >> contributions(["2"])
+        1 * contributionsProvider.getContributionsBetween("v1.0", "v1.1") >> contributions(["1"])
+        0 * contributionsProvider._
+        1 * improvementsProvider.getImprovements(["2", "1"] as Set, [], false) >> []
+
+        and:
+        notes*.version == ["1.2", "1.1"]
+    }
+
     @Ignore //TODO make it a proper integ test
     def "gets release notes data"() {
         File rootDir = findRootDir()
@@ -42,6 +99,25 @@ Authors: [1](http://release-notes), commits: [61](https://github.com/mockito/shi
 """
     }
 
+    private ReleasedVersion version(String version, String previousRev) {
+        Stub(ReleasedVersion) {
+            getVersion() >> version
+            getRev() >> "v" + version
+            getPreviousRev() >> previousRev
+            getDate() >> new Date()
+        }
+    }
+
+    private ContributionSet contributions(List<String> tickets) {
+        Stub(ContributionSet) {
+            getAllTickets() >> tickets
+        }
+    }
+
+    private static DefaultImprovement improvement(long id) {
+        new DefaultImprovement(id, "issue " + id, "http://issues/" + id, [], false)
+    }
+
     private static File findRootDir() {
         def rootDir = new File(".")
         while (!new File(rootDir, ".git").isDirectory()) {
@@ -0,0 +1,60 @@
+package org.shipkit.internal.notes.improvements
+
+import org.junit.Rule
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class GitHubDirectTicketFetcherTest extends Specification {
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+    def fetcher = new GitHubDirectTicketFetcher()
+
+    def setup() {
+        respond("/repos/mockito/shipkit/issues/1", 200, '{"number": 1, "title": "bug", "state": "closed", "html_url": "http://issues/1", "labels": [{"name": "bug"}]}')
+        respond("/repos/mockito/shipkit/issues/2", 200, '{"number": 2, "title": "pr", "state": "closed", "html_url": "http://pulls/2", "labels": [], "pull_request": {}}')
+        respond("/repos/mockito/shipkit/issues/3", 200, '{"number": 3, "title": "open", "state": "open", "html_url": "http://issues/3", "labels": []}')
+        respond("/repos/mockito/shipkit/issues/4", 404, '{"message": "Not Found"}')
+    }
+
+    def "fetches closed tickets"() {
+        when:
+        def result = fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "2", "3", "4"], [], false)
+
+        then:
+        result*.id == [2L, 1L]
+        result*.title == ["pr", "bug"]
+        result[0].pullRequest
+        result[1].labels as List == ["bug"]
+    }
+
+    def "filters by labels and pull requests"() {
+        expect:
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "2"], ["bug"], false)*.id == [1L]
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "2"], [], true)*.id == [2L]
+    }
+
+    def "fails on unexpected errors"() {
+        respond("/repos/mockito/shipkit/issues/5", 500, '{"message": "Server Error"}')
+
+        when:
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "5"], [], false)
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    def "uses direct lookups for few tickets or tickets spread over many pages"() {
+        expect:
+        GitHubTicketFetcher.isDirectLookupCheaper(["1", "5000"])
+        GitHubTicketFetcher.isDirectLookupCheaper((1..11).collect { (it * 100).toString() })
+        !GitHubTicketFetcher.isDirectLookupCheaper((1..11)*.toString())
+    }
+
+    private String apiUrl() {
+        server.url
+    }
+
+    private void respond(String path, int code, String content) {
+        server.respond(path, code, content)
+    }
+}
@@ -0,0 +1,105 @@
+package org.shipkit.internal.notes.improvements
+
+import com.sun.net.httpserver.HttpExchange
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import org.junit.Rule
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class GitHubGraphQLTicketFetcherTest extends Specification {
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+    def requests = []
+    def fetcher = new GitHubGraphQLTicketFetcher()
+
+    //stand-in for GitHub data: number -> ticket
+    def tickets = [
+        1: [__typename: "Issue", number: 1, title: "closed bug", url: "http://issues/1", state: "CLOSED", labels: [nodes: [[name: "bug"]]]],
+        2: [__typename: "PullRequest", number: 2, title: "merged pr", url: "http://pulls/2", state: "MERGED", labels: [nodes: [[name: "bug"], [name: "notable"]]]],
+        3: [__typename: "Issue", number: 3, title: "open issue", url: "http://issues/3", state: "OPEN", labels: [nodes: []]]
+    ]
+
+    def "resolves closed tickets by number"() {
+        serveGraphQL()
+
+        when:
+        def result = fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "2", "3", "4"], [], false)
+
+        then:
+        result*.id == [2L, 1L]
+        result[0].title == "merged pr"
+        result[0].url == "http://pulls/2"
+        result[0].labels as List == ["bug", "notable"]
+        result[0].pullRequest
+        !result[1].pullRequest
+
+        requests.size() == 1
+        requests[0].auth == "bearer token"
+        requests[0].variables == [owner: "mockito", name: "shipkit"]
+    }
+
+    def "filters by labels and pull requests"() {
+        serveGraphQL()
+
+        expect:
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "2"], ["notable"], false)*.id == [2L]
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1", "2"], [], true)*.id == [2L]
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1"], ["bug", "notable"], false).empty
+    }
+
+    def "queries up to 100 tickets per request"() {
+        serveGraphQL()
+        def ids = (1..250).collect { it.toString() }
+
+        when:
+        def result = fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ids, [], false)
+
+        then:
+        result*.id == [2L, 1L]
+        requests*.numbers*.size() == [100, 100, 50]
+    }
+
+    def "fails when repository data is missing"() {
+        server.respond("/graphql", 200, '{"data": null, "errors": [{"message": "Could not resolve to a Repository"}]}')
+
+        when:
+        fetcher.fetchTickets(apiUrl(), "mockito/shipkit", "token", ["1"], [], false)
+
+        then:
+        def e = thrown(IOException)
+        e.message == "GitHub GraphQL query did not return repository data, errors: [Could not resolve to a Repository]"
+    }
+
+    def "ticket fetcher falls back to browsing closed issues"() {
+        server.respond("/graphql", 404, '{"message": "Not Found"}')
+        server.respond("/repos/mockito/shipkit/issues", 200, '[{"number": 2, "title": "rest", "html_url": "http://issues/2", "labels": []}]')
+
+        when:
+        def result = new GitHubTicketFetcher().fetchTickets(apiUrl(), "mockito/shipkit", "token", (1..11)*.toString(), [], false)
+
+        then:
+        result*.title == ["rest"]
+    }
+
+    def "uses GraphQL endpoint of GitHub Enterprise"() {
+        expect:
+        GitHubGraphQLTicketFetcher.graphQLEndpoint("https://api.github.com") == "https://api.github.com/graphql"
+        GitHubGraphQLTicketFetcher.graphQLEndpoint("https://github.acme.com/api/v3/") == "https://github.acme.com/api/graphql"
+    }
+
+    private String apiUrl() {
+        server.url
+    }
+
+    private void serveGraphQL() {
+        server.handle("/graphql") { HttpExchange e ->
+            def body = new JsonSlurper().parse(e.requestBody)
+            def numbers = (body.query =~ /t(\d+): issueOrPullRequest\(number: (\d+)\)/).collect { it[2] as int }
+            requests << [auth: e.requestHeaders.getFirst("Authorization"), variables: body.variables, numbers: numbers]
+            def repository = numbers.collectEntries { ["t" + it, tickets[it]] }
+            def errors = numbers.findAll { !tickets[it] }.collect { [message: "Could not resolve to an issue or pull request with the number of " + it] }
+            FakeGitHubServer.send(e, 200, JsonOutput.toJson([data: [repository: repository], errors: errors]))
+        }
+    }
+}
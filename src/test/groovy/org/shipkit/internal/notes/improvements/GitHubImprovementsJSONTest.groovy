@@ -2,6 +2,7 @@ package org.shipkit.internal.notes.improvements
 
 import org.json.simple.JsonArray
 import org.json.simple.JsonObject
+import org.shipkit.internal.notes.util.JsonReader
 import spock.lang.Specification
 
 class GitHubImprovementsJSONTest extends Specification {
@@ -36,4 +37,42 @@ class GitHubImprovementsJSONTest extends Specification {
         i.labels.isEmpty()
         i.pullRequest
     }
+
+    def "reads issue from stream"() {
+        def json = '''{"url": "https://api.github.com/repos/mockito/shipkit/issues/100", "number": 100,
+            "title": "Some \\"bugfix\\"", "user": {"login": "szczepiq", "id": 1},
+            "labels": [{"id": 1, "name": "bugfix", "default": true}, {"name": "notable", "color": "ff"}],
+            "html_url": "http://issues/100", "pull_request": null, "body": null}'''
+
+        when:
+        def i = GitHubImprovementsJSON.readImprovement(new JsonReader(new StringReader(json)), false)
+
+        then:
+        i.id == 100L
+        i.title == 'Some "bugfix"'
+        i.url == "http://issues/100"
+        i.labels.toString() == "[bugfix, notable]"
+        !i.pullRequest
+    }
+
+    def "reads pull request from stream"() {
+        def json = '{"number": 7, "title": "x", "html_url": "http://pulls/7", "labels": [], "pull_request": {"url": "http://x"}}'
+
+        when:
+        def i = GitHubImprovementsJSON.readImprovement(new JsonReader(new StringReader(json)), false)
+
+        then:
+        i.id == 7L
+        i.labels.isEmpty()
+        i.pullRequest
+    }
+
+    def "reads only closed issues"() {
+        def open = '{"number": 7, "title": "x", "state": "open", "labels": []}'
+        def closed = '{"number": 8, "title": "y", "state": "closed", "labels": []}'
+
+        expect:
+        GitHubImprovementsJSON.readImprovement(new JsonReader(new StringReader(open)), true) == null
+        GitHubImprovementsJSON.readImprovement(new JsonReader(new StringReader(closed)), true).id == 8L
+    }
 }
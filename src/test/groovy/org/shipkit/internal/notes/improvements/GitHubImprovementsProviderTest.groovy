@@ -0,0 +1,103 @@
+package org.shipkit.internal.notes.improvements
+
+import com.sun.net.httpserver.HttpExchange
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.util.GitHubClient
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class GitHubImprovementsProviderTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+
+    def setup() {
+        server.respond("/graphql", 404, '{"message": "Not Found"}')
+        server.handle("/repos/mockito/shipkit/issues") { HttpExchange e ->
+            def number = e.requestURI.path.tokenize("/").last()
+            if (number.isNumber()) {
+                FakeGitHubServer.send(e, 200, issue(number as int, "2017-01-01T10:00:00Z"))
+            } else {
+                FakeGitHubServer.send(e, 200, "[" + [100, 200, 300].collect { issue(it, "2017-01-0${it.intdiv(100)}T10:00:00Z") }.join(",") + "]")
+            }
+        }
+    }
+
+    def "fetches few tickets directly when the index is cold"() {
+        def index = newIndex()
+
+        when:
+        def result = provider(index).getImprovements(["1", "2", "3"], [], false)
+
+        then:
+        result*.id == [3L, 2L, 1L]
+        server.requests*.path.sort() == ["/repos/mockito/shipkit/issues/1", "/repos/mockito/shipkit/issues/2", "/repos/mockito/shipkit/issues/3"]
+        !index.warm
+    }
+
+    def "fetches many tickets directly and builds the cold index in the background"() {
+        def index = newIndex()
+        def tickets = (1..11).collect { (it * 100).toString() }
+
+        when:
+        def result = provider(index).getImprovements(tickets, [], false)
+
+        then:
+        result.size() == 11
+        waitUntil { index.warm }
+        index.find(tickets, [], false)*.id == [300L, 200L, 100L]
+    }
+
+    def "uses warm index for many tickets"() {
+        def index = newIndex()
+        index.sync(GitHubClient.default, server.url, "mockito/shipkit", "token")
+        server.requests.clear()
+        def tickets = (1..11).collect { (it * 100).toString() }
+
+        when:
+        def result = provider(index).getImprovements(tickets, [], false)
+
+        then:
+        result*.id == [300L, 200L, 100L]
+        server.requests.size() == 1
+        server.requests[0].query.contains("since=2017-01-03T10:00:00Z")
+    }
+
+    def "fetches few tickets directly even when the index is warm"() {
+        def index = newIndex()
+        index.sync(GitHubClient.default, server.url, "mockito/shipkit", "token")
+        server.requests.clear()
+
+        when:
+        def result = provider(index).getImprovements(["1"], [], false)
+
+        then:
+        result*.id == [1L]
+        server.requests*.path == ["/repos/mockito/shipkit/issues/1"]
+    }
+
+    private GitHubImprovementsProvider provider(GitHubIssueIndex index) {
+        new GitHubImprovementsProvider(server.url, "mockito/shipkit", "token", index, GitHubClient.default)
+    }
+
+    private GitHubIssueIndex newIndex() {
+        new GitHubIssueIndex(GitHubIssueIndex.indexFile(tmp.root, server.url, "mockito/shipkit"))
+    }
+
+    private static boolean waitUntil(Closure<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 10000
+        while (!condition.call()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false
+            }
+            Thread.sleep(10)
+        }
+        true
+    }
+
+    private static String issue(int number, String updatedAt) {
+        """{"number": $number, "title": "issue $number", "state": "closed", "updated_at": "$updatedAt",
+            "html_url": "http://issues/$number", "labels": []}"""
+    }
+}
@@ -0,0 +1,136 @@
+package org.shipkit.internal.notes.improvements
+
+import com.sun.net.httpserver.HttpExchange
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.util.GitHubClient
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class GitHubIssueIndexTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+    String issues = "[]"
+
+    def setup() {
+        server.handle("/repos/mockito/shipkit/issues") { HttpExchange e ->
+            FakeGitHubServer.send(e, 200, issues)
+        }
+    }
+
+    def "keeps closed issues"() {
+        def index = newIndex()
+        issues = """[${issue(1, "closed", "2017-01-01T10:00:00Z", "bug")},
+            ${issue(2, "open", "2017-01-02T10:00:00Z")},
+            ${pullRequest(3, "closed", "2017-01-03T10:00:00Z")}]"""
+
+        when:
+        index.sync(GitHubClient.default, apiUrl(), "mockito/shipkit", "token")
+
+        then:
+        queries.size() == 1
+        queries[0].contains("state=all")
+        queries[0].contains("sort=updated")
+        !queries[0].contains("since=")
+
+        index.find(["1", "2", "3", "4"], [], false)*.id == [3L, 1L]
+        index.find(["1", "2", "3"], ["bug"], false)*.id == [1L]
+        index.find(["1", "2", "3"], [], true)*.id == [3L]
+    }
+
+    def "syncs only issues updated since the last sync, across builds"() {
+        issues = """[${issue(1, "closed", "2017-01-01T10:00:00Z")}, ${issue(2, "closed", "2017-01-02T10:00:00Z")}]"""
+        newIndex().sync(GitHubClient.default, apiUrl(), "mockito/shipkit", "token")
+
+        def index = newIndex()
+        issues = """[${issue(2, "open", "2017-02-01T10:00:00Z")}, ${issue(5, "closed", "2017-02-02T10:00:00Z")}]"""
+
+        when:
+        index.sync(GitHubClient.default, apiUrl(), "mockito/shipkit", "token")
+
+        then:
+        queries[1].contains("since=2017-01-02T10:00:00Z")
+        index.find(["1", "2", "5"], [], false)*.id == [5L, 1L]
+
+        when:
+        issues = "[]"
+        def reloaded = newIndex()
+        reloaded.sync(GitHubClient.default, apiUrl(), "mockito/shipkit", "token")
+
+        then:
+        queries[2].contains("since=2017-02-02T10:00:00Z")
+        reloaded.find(["1", "2", "5"], [], false)*.title == ["issue 5", "issue 1"]
+    }
+
+    def "does not miss issues updated between page fetches"() {
+        //150 closed issues, sorted by update time, like GitHub does
+        List<Map> all = (1..150).collect { [number: it, state: "closed", updatedAt: String.format("2017-01-01T10:%02d:%02dZ", it.intdiv(60), it % 60)] }
+        server.handle("/repos/mockito/shipkit/issues") { HttpExchange e ->
+            Map params = e.requestURI.query.split("&").collectEntries { it.split("=", 2) as List }
+            def page = all.findAll { !params.since || it.updatedAt >= params.since }
+                    .sort { it.updatedAt }
+                    .drop((params.page as int - 1) * 100).take(100)
+            if (server.requests.size() == 1) {
+                //issue 1 is reopened right after the first page was read, it moves to the end of the list
+                all[0] = [number: 1, state: "open", updatedAt: "2017-01-02T10:00:00Z"]
+            }
+            FakeGitHubServer.send(e, 200, "[" + page.collect { issue(it.number, it.state, it.updatedAt) }.join(",") + "]")
+        }
+        def index = newIndex()
+
+        when:
+        index.sync(GitHubClient.default, apiUrl(), "mockito/shipkit", "token")
+
+        then:
+        queries.size() == 2
+        queries[1].contains("page=1&")
+        queries[1].contains("since=2017-01-01T10:01:40Z")
+        index.find(["1", "100", "101", "150"], [], false)*.id == [150L, 101L, 100L]
+    }
+
+    def "rebuilds corrupted index"() {
+        def file = GitHubIssueIndex.indexFile(tmp.root, apiUrl(), "mockito/shipkit")
+        file.parentFile.mkdirs()
+        file.text = '{"lastUpdate": "2017-01-01T10:00:00Z", "issues": [{"id": '
+        issues = """[${issue(1, "closed", "2017-01-01T10:00:00Z")}]"""
+
+        when:
+        def index = newIndex()
+        index.sync(GitHubClient.default, apiUrl(), "mockito/shipkit", "token")
+
+        then:
+        !queries[0].contains("since=")
+        index.find(["1"], [], false)*.id == [1L]
+    }
+
+    def "keeps index file per host and repository"() {
+        expect:
+        GitHubIssueIndex.indexFile(new File("cache"), "https://api.github.com", "mockito/shipkit") ==
+                new File("cache", "issues/api.github.com/mockito_shipkit.json")
+    }
+
+    private GitHubIssueIndex newIndex() {
+        new GitHubIssueIndex(GitHubIssueIndex.indexFile(tmp.root, apiUrl(), "mockito/shipkit"))
+    }
+
+    private String apiUrl() {
+        server.url
+    }
+
+    private List<String> getQueries() {
+        server.requests*.query
+    }
+
+    private static String issue(int number, String state, String updatedAt, String label = null) {
+        def labels = label ? "[{\"name\": \"$label\"}]" : "[]"
+        """{"number": $number, "title": "issue $number", "state": "$state", "updated_at": "$updatedAt",
+            "html_url": "http://issues/$number", "labels": $labels}"""
+    }
+
+    private static String pullRequest(int number, String state, String updatedAt) {
+        """{"number": $number, "title": "pr $number", "state": "$state", "updated_at": "$updatedAt",
+            "html_url": "http://pulls/$number", "labels": [], "pull_request": {}}"""
+    }
+}
@@ -0,0 +1,120 @@
+package org.shipkit.internal.notes.util
+
+import com.sun.net.httpserver.HttpExchange
+import org.junit.Rule
+import org.shipkit.internal.util.GitHubClient
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class GitHubListFetcherTest extends Specification {
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+    def numbers = new ProjectingJsonMapper("number")
+
+    def "fetches remaining pages concurrently and returns them in order"() {
+        servePages(6, true)
+        def fetcher = new GitHubListFetcher(GitHubClient.getDefault(), url(1), numbers, 3)
+
+        when:
+        def result = []
+        while (fetcher.hasNextPage()) {
+            result.addAll(fetcher.nextPage()*.get("number"))
+        }
+
+        then:
+        result*.toString() == ["1", "2", "3", "4", "5", "6"]
+        requestedPages.sort() == [1, 2, 3, 4, 5, 6]
+    }
+
+    def "follows next links when last page is unknown"() {
+        servePages(3, false)
+        def fetcher = new GitHubListFetcher(url(1), numbers)
+
+        when:
+        def result = []
+        while (fetcher.hasNextPage()) {
+            result.addAll(fetcher.nextPage()*.get("number"))
+        }
+
+        then:
+        result*.toString() == ["1", "2", "3"]
+    }
+
+    def "does not fetch pages beyond the window when closed early"() {
+        servePages(20, true)
+        def fetcher = new GitHubListFetcher(GitHubClient.getDefault(), url(1), numbers, 2)
+
+        when:
+        fetcher.nextPage()
+        fetcher.nextPage()
+        fetcher.close()
+
+        then:
+        !fetcher.hasNextPage()
+        requestedPages.size() <= 4
+    }
+
+    def "reads ahead more pages as more pages are read"() {
+        servePages(20, true)
+        def fetcher = new GitHubListFetcher(GitHubClient.getDefault(), url(1), numbers, 4)
+
+        when:
+        fetcher.nextPage()
+        fetcher.close()
+
+        then:
+        //the first page and at most one page ahead
+        requestedPages.size() <= 2
+
+        when:
+        fetcher = new GitHubListFetcher(GitHubClient.getDefault(), url(1), numbers, 4)
+        server.requests.clear()
+        3.times { fetcher.nextPage() }
+        fetcher.close()
+
+        then:
+        //three pages and at most three pages ahead
+        requestedPages.size() <= 6
+    }
+
+    def "fails when no more pages"() {
+        servePages(1, true)
+        def fetcher = new GitHubListFetcher(url(1), numbers)
+        fetcher.nextPage()
+
+        when:
+        fetcher.nextPage()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    private String url(int page) {
+        server.url("/items?per_page=1&page=" + page)
+    }
+
+    private List<Integer> getRequestedPages() {
+        server.requests.collect { pageOf(it) }
+    }
+
+    private static int pageOf(URI uri) {
+        (uri.query =~ /(?:^|&)page=(\d+)/)[0][1] as int
+    }
+
+    private void servePages(int last, boolean exposeLast) {
+        server.handle("/items") { HttpExchange e ->
+            def page = pageOf(e.requestURI)
+            def links = []
+            if (page < last) {
+                links << "<${url(page + 1)}>; rel=\"next\""
+                if (exposeLast) {
+                    links << "<${url(last)}>; rel=\"last\""
+                }
+            }
+            if (links) {
+                e.responseHeaders.add("Link", links.join(", "))
+            }
+            FakeGitHubServer.send(e, 200, "[{\"number\": $page}]")
+        }
+    }
+}
@@ -33,6 +33,41 @@ class IOUtilTest extends Specification {
         readFully(f) == "ala\nma"
     }
 
+    def "writes file atomically"() {
+        def f = new File(tmp.root, "x/y/z.txt")
+
+        when:
+        IOUtil.writeAtomically(f, "ala")
+        IOUtil.writeAtomically(f, "ma kota")
+
+        then:
+        readFully(f) == "ma kota"
+        f.parentFile.list() == ["z.txt"]
+    }
+
+    def "keeps the file when atomic write fails"() {
+        def f = tmp.newFile("z.txt")
+        f.text = "ala"
+
+        when:
+        IOUtil.writeAtomically(f, { out ->
+            out.write("ma".bytes)
+            throw new IOException("boom")
+        } as IOUtil.Content)
+
+        then:
+        thrown(IOException)
+        f.text == "ala"
+        tmp.root.list() == ["z.txt"]
+    }
+
+    def "makes file names"() {
+        expect:
+        IOUtil.toFileName("https://api.github.com") == "api.github.com"
+        IOUtil.toFileName("http://localhost:8080/api/v3") == "localhost_8080_api_v3"
+        IOUtil.toFileName("mockito/shipkit") == "mockito_shipkit"
+    }
+
     def "creates parent directories"() {
         when:
         IOUtil.createParentDirectory(new File(tmp.root.absolutePath + "/a/b/c"))
@@ -0,0 +1,93 @@
+package org.shipkit.internal.notes.util
+
+import spock.lang.Specification
+
+class JsonReaderTest extends Specification {
+
+    def "reads nested document"() {
+        def reader = reader('{"a": [1, -2.5e3, true, false, null], "b": {"c": "d"}, "e": "\\u0041\\n\\"x\\""}')
+
+        when:
+        reader.beginObject()
+        def a = reader.nextName()
+        reader.beginArray()
+        def numbers = [reader.nextLong(), reader.nextBigDecimal()]
+        def booleans = [reader.nextBoolean(), reader.nextBoolean()]
+        reader.nextNull()
+        reader.endArray()
+        def b = reader.nextName()
+        reader.beginObject()
+        def c = [reader.nextName(), reader.nextString()]
+        reader.endObject()
+        def e = [reader.nextName(), reader.nextString()]
+        reader.endObject()
+
+        then:
+        a == "a"
+        numbers == [1L, new BigDecimal("-2.5e3")]
+        booleans == [true, false]
+        b == "b"
+        c == ["c", "d"]
+        e == ["e", 'A\n"x"']
+        reader.peek() == JsonReader.Token.END_DOCUMENT
+    }
+
+    def "skips values"() {
+        def reader = reader('[{"skip": {"x": [1, {"y": "]}"}], "z": null}, "keep": "me"}, 3]')
+
+        when:
+        reader.beginArray()
+        reader.beginObject()
+        reader.nextName()
+        reader.skipValue()
+        def name = reader.nextName()
+        def value = reader.nextString()
+        reader.endObject()
+        reader.skipValue()
+        reader.endArray()
+
+        then:
+        name == "keep"
+        value == "me"
+        !reader.hasNext()
+    }
+
+    def "reads strings longer than the buffer"() {
+        def text = "x" * 20000 + "\\t" + "y" * 10000
+
+        when:
+        def result = reader('["' + text + '"]').with {
+            beginArray()
+            nextString()
+        }
+
+        then:
+        result == "x" * 20000 + "\t" + "y" * 10000
+    }
+
+    def "reads null as nullable string"() {
+        def reader = reader('[null, "a"]')
+        reader.beginArray()
+
+        expect:
+        reader.nextStringOrNull() == null
+        reader.nextStringOrNull() == "a"
+    }
+
+    def "reports malformed document"() {
+        def reader = reader('{"a" 1}')
+        reader.beginObject()
+        reader.nextName()
+
+        when:
+        reader.nextLong()
+
+        then:
+        def e = thrown(IOException)
+        e.message == "Expected ':' but was '1' at character 6 of JSON document"
+    }
+
+    private static JsonReader reader(String json) {
+        new JsonReader(new ByteArrayInputStream(json.getBytes("UTF-8")))
+    }
+}
@@ -0,0 +1,53 @@
+package org.shipkit.internal.notes.vcs
+
+import org.shipkit.internal.exec.ProcessRunner
+import org.shipkit.internal.notes.util.Function
+import spock.lang.Specification
+import spock.lang.Subject
+
+class CommandLineGitLogProviderTest extends Specification {
+
+    def runner = Mock(ProcessRunner)
+    @Subject provider = new CommandLineGitLogProvider(runner)
+
+    def "provides log"() {
+        def reader = Mock(Function)
+
+        when:
+        def log = provider.getLog("v1.10.10", "HEAD", reader)
+
+        then:
+        1 * runner.run("git", "fetch", "origin", "+refs/tags/v1.10.10:refs/tags/v1.10.10")
+        1 * runner.run(_ as Function, ["git", "log"] + GitLogParser.LOG_OPTIONS + ["v1.10.10..HEAD"]) >> { args ->
+            args[0].apply(new ByteArrayInputStream("a1\0a@b\0A\0message\0".getBytes("UTF-8")))
+        }
+        1 * reader.apply(_ as GitCommitReader) >> { GitCommitReader r -> r.next().commitId }
+        0 * _
+
+        and:
+        log == "a1"
+    }
+
+    def "provides whole history of the revision"() {
+        when:
+        provider.getLog(null, "HEAD", Mock(Function))
+
+        then:
+        1 * runner.run("git", "fetch", "origin", "HEAD")
+        1 * runner.run(_ as Function, ["git", "log"] + GitLogParser.LOG_OPTIONS + ["HEAD"])
+    }
+
+    def "fetches all tags at once and provides log of every range"() {
+        when:
+        def logs = provider.getLogs(["HEAD", "v1.1", "v1.0"], Mock(Function))
+
+        then:
+        1 * runner.run("git", "fetch", "origin", "+refs/tags/v1.1:refs/tags/v1.1", "+refs/tags/v1.0:refs/tags/v1.0")
+        1 * runner.run(_ as Function, ["git", "log"] + GitLogParser.LOG_OPTIONS + ["v1.1..HEAD"]) >> "log1"
+        1 * runner.run(_ as Function, ["git", "log"] + GitLogParser.LOG_OPTIONS + ["v1.0..v1.1"]) >> "log2"
+        0 * _
+
+        and:
+        logs == ["log1", "log2"]
+    }
+}
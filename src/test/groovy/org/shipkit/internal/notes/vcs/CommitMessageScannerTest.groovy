@@ -0,0 +1,37 @@
+package org.shipkit.internal.notes.vcs
+
+import spock.lang.Specification
+
+class CommitMessageScannerTest extends Specification {
+
+    def "matches all phrases in one pass"() {
+        def scanner = new CommitMessageScanner(["he", "she", "hers", "[ci skip]"])
+
+        expect:
+        scanner.matchesAny("ushers #5")
+        scanner.matchesAny("fix #1 [ci skip]")
+        scanner.matchesAny("shh she")
+        !scanner.matchesAny("h e r s")
+        !scanner.matchesAny("his")
+        !scanner.matchesAny("[ci skip-release]")
+    }
+
+    def "matches phrases that end other phrases"() {
+        def scanner = new CommitMessageScanner(["abcd", "bc"])
+
+        expect:
+        scanner.matchesAny("abce")
+        !scanner.matchesAny("abd")
+    }
+
+    def "empty phrase matches every message"() {
+        expect:
+        new CommitMessageScanner([""]).matchesAny("")
+        new CommitMessageScanner(["", "x"]).matchesAny("abc")
+    }
+
+    def "no phrases match no message"() {
+        expect:
+        !new CommitMessageScanner([]).matchesAny("fix #1")
+    }
+}
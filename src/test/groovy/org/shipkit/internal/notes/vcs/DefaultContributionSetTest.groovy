@@ -23,4 +23,67 @@ class DefaultContributionSetTest extends Specification {
         expect:
         contributions.allTickets == ["123", "100"] as Set
     }
+
+    def "groups commits by email or name"() {
+        contributions.add(new GitCommit("", "a@x", "A", "1"))
+        contributions.add(new GitCommit("", "b@x", "B", "2"))
+        contributions.add(new GitCommit("", "a@y", "A", "3"))
+        contributions.add(new GitCommit("", "b@x", "Bob", "4"))
+        contributions.add(new GitCommit("", "a@y", "A", "5"))
+
+        expect:
+        contributions.authorCount == 2
+        contributions.contributions*.authorName == ["A", "B"]
+        contributions.contributions*.commits*.message == [["1", "3", "5"], ["2", "4"]]
+    }
+
+    def "merges contributions linked by a commit"() {
+        contributions.add(new GitCommit("", "a@x", "A", "1"))
+        contributions.add(new GitCommit("", "b@x", "B", "2"))
+        contributions.add(new GitCommit("", "c@x", "C", "3"))
+        //email of B, name of A
+        contributions.add(new GitCommit("", "b@x", "A", "4"))
+        //name of B now belongs to A too
+        contributions.add(new GitCommit("", "d@x", "B", "5"))
+
+        expect:
+        contributions.authorCount == 2
+        contributions.contributions*.authorName == ["A", "C"]
+        contributions.contributions*.commits*.message == [["1", "2", "4", "5"], ["3"]]
+    }
+
+    def "keeps contributions sorted by commits count"() {
+        contributions.add(new GitCommit("", "b@x", "b", "1"))
+        contributions.add(new GitCommit("", "a@x", "A", "2"))
+        def view = contributions.contributions
+
+        expect:
+        view*.authorName == ["A", "b"]
+
+        when:
+        contributions.add(new GitCommit("", "b@x", "b", "3"))
+
+        then:
+        view*.authorName == ["b", "A"]
+    }
+
+    def "keeps different authors with the same name case and commits count"() {
+        contributions.add(new GitCommit("", "a@x", "john", "1"))
+        contributions.add(new GitCommit("", "b@x", "John", "2"))
+
+        expect:
+        contributions.authorCount == 2
+        contributions.contributions*.authorEmail == ["a@x", "b@x"]
+    }
+
+    def "commits of the same author share the name and email"() {
+        contributions.add(new GitCommit("1", new String("a@x"), new String("A"), "1"))
+        contributions.add(new GitCommit("2", new String("a@x"), new String("A"), "2"))
+
+        expect:
+        def commits = contributions.allCommits as List
+        commits[0].authorEmail.is(commits[1].authorEmail)
+        commits[0].authorName.is(commits[1].authorName)
+        commits*.commitId == ["1", "2"]
+    }
 }
@@ -31,9 +31,9 @@ class DefaultReleasedVersionsProviderTest extends Specification {
     }
 
     def "provides versions "() {
-        dateProvider.getDate("v2.0.0") >> DateUtil.parseUTCDate("2017-02-15")
-        dateProvider.getDate("v1.5.0") >> DateUtil.parseUTCDate("2017-01-30")
-        dateProvider.getDate("v1.0.0") >> DateUtil.parseUTCDate("2017-01-15")
+        dateProvider.getDate("v2.0.0", "v") >> DateUtil.parseUTCDate("2017-02-15")
+        dateProvider.getDate("v1.5.0", "v") >> DateUtil.parseUTCDate("2017-01-30")
+        dateProvider.getDate("v1.0.0", "v") >> DateUtil.parseUTCDate("2017-01-15")
 
         expect:
         //with head version
@@ -0,0 +1,124 @@
+package org.shipkit.internal.notes.vcs
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class GitCommitStoreTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def commit = """tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904
+parent a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9
+parent b9d694f4c25880d9dda21ac216053f2bd0f5673c
+author Szczepan Faber <szczepiq@gmail.com> 1485706449 -0800
+committer Szczepan Faber <szczepiq@gmail.com> 1491919199 +0000
+
+Fixed #10 and #20
+
+with details ${"x" * 70000}
+"""
+
+    def "keeps commits between builds"() {
+        def file = new File(tmp.root, "commits/mockito_shipkit.bin")
+        def store = new GitCommitStore(file)
+        def id = "c76924d41c219f3b71b50a28d80c23c9c81b7a8c"
+
+        when:
+        store.add(id, GitRawCommit.parse(commit.getBytes("UTF-8")))
+        def added = store.getCommit(id)
+        store.save()
+        def loadedStore = new GitCommitStore(file)
+        def loaded = loadedStore.get(id)
+
+        then:
+        loaded.commitTime == 1491919199L
+        loaded.parents == ["a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9", "b9d694f4c25880d9dda21ac216053f2bd0f5673c"]
+        loadedStore.getCommit(id) == added
+        loadedStore.getCommit(id).authorName == "Szczepan Faber"
+        loadedStore.getCommit(id).authorEmail == "szczepiq@gmail.com"
+        loadedStore.getCommit(id).tickets as List == ["10", "20"]
+        store.getCommit(id) == added
+        new GitCommitStore(file).get("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9") == null
+    }
+
+    def "appends only new commits"() {
+        def file = new File(tmp.root, "commits.bin")
+        def first = new GitCommitStore(file)
+        first.add("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        first.save()
+        byte[] saved = file.bytes
+
+        when:
+        def second = new GitCommitStore(file)
+        second.add("c76924d41c219f3b71b50a28d80c23c9c81b7a8c", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        second.save()
+
+        then:
+        file.length() > saved.length
+        Arrays.copyOf(file.bytes, saved.length) == saved
+        def loaded = new GitCommitStore(file)
+        loaded.getCommit("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9").tickets as List == ["10", "20"]
+        loaded.getCommit("c76924d41c219f3b71b50a28d80c23c9c81b7a8c").tickets as List == ["10", "20"]
+        second.getCommit("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9").tickets as List == ["10", "20"]
+        second.getCommit("c76924d41c219f3b71b50a28d80c23c9c81b7a8c").tickets as List == ["10", "20"]
+    }
+
+    def "keeps commits stored before incomplete record"() {
+        def file = new File(tmp.root, "commits.bin")
+        def store = new GitCommitStore(file)
+        store.add("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        store.add("c76924d41c219f3b71b50a28d80c23c9c81b7a8c", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        store.save()
+        file.bytes = Arrays.copyOf(file.bytes, file.bytes.length - 10)
+
+        when:
+        def loaded = new GitCommitStore(file)
+        def kept = ["a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9", "c76924d41c219f3b71b50a28d80c23c9c81b7a8c"].findAll { loaded.get(it) }
+
+        then:
+        kept.size() == 1
+
+        when:
+        loaded.add("b9d694f4c25880d9dda21ac216053f2bd0f5673c", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        loaded.save()
+
+        then: "the file is rewritten without the incomplete record"
+        new GitCommitStore(file).getCommit("b9d694f4c25880d9dda21ac216053f2bd0f5673c").message.startsWith("Fixed #10 and #20")
+        new GitCommitStore(file).getCommit(kept[0]).message.startsWith("Fixed #10 and #20")
+        loaded.getCommit(kept[0]).message.startsWith("Fixed #10 and #20")
+    }
+
+    def "does not read commits from a file rewritten by another build"() {
+        def file = new File(tmp.root, "commits.bin")
+        def store = new GitCommitStore(file)
+        store.add("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        store.save()
+        def loaded = new GitCommitStore(file)
+        loaded.get("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9")
+
+        when:
+        file.delete()
+        def other = new GitCommitStore(file)
+        other.add("c76924d41c219f3b71b50a28d80c23c9c81b7a8c", GitRawCommit.parse(commit.getBytes("UTF-8")))
+        other.save()
+
+        then:
+        loaded.get("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9").commitTime == 1491919199L
+        loaded.getCommit("a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9") == null
+    }
+
+    def "starts from scratch when the file cannot be read"() {
+        def file = tmp.newFile("commits.bin")
+        file.bytes = [0, 0, 0, 1, 0, 0, 0, 5, 1, 2] as byte[]
+
+        expect:
+        new GitCommitStore(file).get("c76924d41c219f3b71b50a28d80c23c9c81b7a8c") == null
+    }
+
+    def "stores commits of every repository in separate file"() {
+        expect:
+        GitCommitStore.storeFile(new File("cache"), "mockito/shipkit") == new File("cache/commits/mockito_shipkit.bin")
+        GitCommitStore.forRepository(tmp.root, "mockito/shipkit").is(GitCommitStore.forRepository(tmp.root, "mockito/shipkit"))
+    }
+}
@@ -0,0 +1,49 @@
+package org.shipkit.internal.notes.vcs
+
+import spock.lang.Specification
+
+class GitCommitTest extends Specification {
+
+    def "parses tickets when the commit is built"() {
+        def commit = new GitCommit("1", "a@b", "A", "Zażółć #10\n\nbody")
+
+        expect:
+        commit.message == "Zażółć #10\n\nbody"
+        commit.tickets.is(commit.tickets)
+        commit == new GitCommit("1", "a@b", "A", "Zażółć #10\n\nbody", ["10"] as Set)
+    }
+
+    def "tickets are read-only"() {
+        when:
+        new GitCommit("1", "a@b", "A", "fixes #10").tickets.add("11")
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "provides tickets"() {
+        expect:
+        new GitCommit("1", "a@b", "A", message).tickets as List == tickets
+        new GitCommit("1", "a@b", "A", "", tickets as LinkedHashSet).tickets as List == tickets
+
+        where:
+        message                                    | tickets
+        "no tickets"                               | []
+        "fixes #20 and #10, see #20"               | ["20", "10"]
+        "leading zeros #007 and #7"                | ["007", "7"]
+        "too long #12345678901234567890 and #1"    | ["12345678901234567890", "1"]
+    }
+
+    def "changes author"() {
+        def commit = new GitCommit("1", "a@b", "A", "fixes #10", ["10"] as Set)
+
+        when:
+        def changed = commit.withAuthor("x@y", "X")
+
+        then:
+        changed.authorEmail == "x@y"
+        changed.authorName == "X"
+        changed.message == "fixes #10"
+        changed.tickets as List == ["10"]
+    }
+}
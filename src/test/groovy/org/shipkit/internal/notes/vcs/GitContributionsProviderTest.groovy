@@ -8,16 +8,14 @@ class GitContributionsProviderTest extends Specification {
     def logProvider = Mock(GitLogProvider)
     @Subject provider = new GitContributionsProvider(logProvider, new IgnoredCommit(["[ci skip]"]))
 
-    def log = """a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9@@info@@szczepiq@gmail.com@@info@@Szczepan Faber@@info@@Tidy-up in buildSrc
+    def log = """a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9\0szczepiq@gmail.com\0Szczepan Faber\0Tidy-up in buildSrc
 next line
-@@commit@@
-b9d694f4c25880d9dda21ac216053f2bd0f5673c@@info@@szczepiq@gmail.com@@info@@Szczepan Faber@@info@@Tidy-up in buildSrc - started using an interface where possible
-@@commit@@
-c76924d41c219f3b71b50a28d80c23c9c81b7a8c@@info@@john@doe@@info@@John R. Doe@@info@@dummy commit
-@@commit@@"""
+\0b9d694f4c25880d9dda21ac216053f2bd0f5673c\0szczepiq@gmail.com\0Szczepan Faber\0Tidy-up in buildSrc - started using an interface where possible
+\0c76924d41c219f3b71b50a28d80c23c9c81b7a8c\0john@doe\0John R. Doe\0dummy commit
+\0"""
 
     def "provides contributions"() {
-        logProvider.getLog("v1.10.10", "HEAD", "--pretty=format:%H@@info@@%ae@@info@@%an@@info@@%B%N@@commit@@") >> log
+        logProvider.getLog("v1.10.10", "HEAD", _) >> { args -> args[2].apply(logReader(log)) }
 
         when:
         def c = provider.getContributionsBetween("v1.10.10", "HEAD")
@@ -31,7 +29,7 @@ c76924d41c219f3b71b50a28d80c23c9c81b7a8c@@info@@john@doe@@info@@John R. Doe@@inf
     }
 
     def "has basic handling of garbage in log"() {
-        logProvider.getLog(_, _, _) >> (log + " some garbage \n@@commit@@\n more garbage")
+        logProvider.getLog(_, _, _) >> { args -> args[2].apply(logReader(log + " some garbage \n\0\n more garbage")) }
 
         when:
         def c = provider.getContributionsBetween("v1.10.10", "HEAD")
@@ -41,7 +39,7 @@ c76924d41c219f3b71b50a28d80c23c9c81b7a8c@@info@@john@doe@@info@@John R. Doe@@inf
     }
 
     def "handles empty log"() {
-        logProvider.getLog(_, _, _) >> ""
+        logProvider.getLog(_, _, _) >> { args -> args[2].apply(logReader("")) }
 
         when:
         def c = provider.getContributionsBetween("v1.10.10", "HEAD")
@@ -51,10 +49,10 @@ c76924d41c219f3b71b50a28d80c23c9c81b7a8c@@info@@john@doe@@info@@John R. Doe@@inf
     }
 
     def "should skip ci commits"() {
-        def logWithSkipCiCommits = log + """11197f9e6cfc06e2fa70ed12ee6c9571af8a7fc9@@info@@szczepiq@gmail.com@@info@@Szczepan Faber@@info@@[ci skip]sample message
+        def logWithSkipCiCommits = log + """11197f9e6cfc06e2fa70ed12ee6c9571af8a7fc9\0szczepiq@gmail.com\0Szczepan Faber\0[ci skip]sample message
 second line
-@@commit@@"""
-        logProvider.getLog(_, _, _) >> logWithSkipCiCommits
+\0"""
+        logProvider.getLog(_, _, _) >> { args -> args[2].apply(logReader(logWithSkipCiCommits)) }
 
         when:
         def c = provider.getContributionsBetween("v1.10.10", "HEAD")
@@ -62,4 +60,48 @@ second line
         then:
         c.allCommits.size() == 3
     }
+
+    def "finds tickets of commits that are not ignored"() {
+        def ticketLog = """a5797f9e6cfc06e2fa70ed12ee6c9571af8a7fc9\0szczepiq@gmail.com\0Szczepan Faber\0Fixed #10 and #11
+\0b9d694f4c25880d9dda21ac216053f2bd0f5673c\0szczepiq@gmail.com\0Szczepan Faber\0Fixed #12 [ci skip]
+\0"""
+        logProvider.getLog(_, _, _) >> { args -> args[2].apply(logReader(ticketLog)) }
+
+        when:
+        def c = provider.getContributionsBetween("v1.10.10", "HEAD")
+
+        then:
+        c.allCommits*.tickets == [["10", "11"] as Set]
+        c.allTickets as List == ["10", "11"]
+    }
+
+    def "maps commit authors"() {
+        provider = new GitContributionsProvider(logProvider, new IgnoredCommit([]), Mailmap.parse("Szczepan Faber <sf@mockito.org> <szczepiq@gmail.com>"))
+        logProvider.getLog("v1.10.10", "HEAD", _) >> { args -> args[2].apply(logReader(log)) }
+
+        when:
+        def c = provider.getContributionsBetween("v1.10.10", "HEAD")
+
+        then:
+        c.allCommits*.authorEmail == ["sf@mockito.org", "sf@mockito.org", "john@doe"]
+        c.contributions*.authorEmail == ["sf@mockito.org", "john@doe"]
+    }
+
+    def "provides contributions of many ranges"() {
+        logProvider.getLogs(["HEAD", "v1.10.10", "v1.10.9"], _) >> { args ->
+            [args[1].apply(logReader(log)), args[1].apply(logReader(""))]
+        }
+
+        when:
+        def c = provider.getContributionsBetween(["HEAD", "v1.10.10", "v1.10.9"])
+
+        then:
+        c.size() == 2
+        c[0].allCommits.size() == 3
+        c[1].allCommits.isEmpty()
+    }
+
+    private static GitCommitReader logReader(String log) {
+        new GitLogParser(new StringReader(log))
+    }
 }
@@ -0,0 +1,129 @@
+package org.shipkit.internal.notes.vcs
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class GitDirectoryTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def c1 = "a50097feb454d8d7d9a87253d22f79c548f7145a"
+    def c2 = "aa22d0606ec0079de57bef7df37b3cebcbefe6bd"
+    def t1 = "2f3e1a8c2d0e0b6f7a9f5e4d3c2b1a0f9e8d7c6b"
+
+    File git
+
+    def setup() {
+        git = tmp.newFolder(".git")
+        write("HEAD", "ref: refs/heads/master\n")
+        write("refs/heads/master", c2 + "\n")
+        write("refs/tags/loose", t1 + "\n")
+        write("refs/remotes/origin/HEAD", "ref: refs/remotes/origin/master\n")
+        write("packed-refs", """# pack-refs with: peeled fully-peeled sorted 
+$c1 refs/heads/feature
+$c1 refs/remotes/origin/master
+$t1 refs/tags/v1.0
+^$c1
+$c2 refs/tags/v1.1
+""")
+        write("config", """[core]
+\tbare = false
+[remote "upstream"]
+\turl = https://github.com/mockito/mockito.git
+[remote "origin"]
+\turl = git@github.com:mockito/shipkit.git ; comment
+\tfetch = +refs/heads/*:refs/remotes/origin/*
+""")
+    }
+
+    def "finds git dir of nested work dir"() {
+        expect:
+        GitDirectory.find(tmp.newFolder("a", "b")) != null
+    }
+
+    def "does not support worktrees and reftable"() {
+        when:
+        git.deleteDir()
+        tmp.newFile(".git") << "gitdir: /somewhere/else"
+
+        then:
+        GitDirectory.find(tmp.root) == null
+
+        when:
+        new File(tmp.root, ".git").delete()
+        git.mkdirs()
+        new File(git, "reftable").mkdirs()
+
+        then:
+        GitDirectory.find(tmp.root) == null
+    }
+
+    def "provides current branch"() {
+        def dir = GitDirectory.find(tmp.root)
+
+        expect:
+        dir.currentBranch == "master"
+
+        when:
+        write("HEAD", c1 + "\n")
+
+        then:
+        dir.currentBranch == "HEAD"
+
+        when: "branch without commits"
+        write("HEAD", "ref: refs/heads/new\n")
+
+        then:
+        dir.currentBranch == null
+    }
+
+    def "provides commits of refs"() {
+        def dir = GitDirectory.find(tmp.root)
+
+        expect:
+        dir.getCommit("HEAD") == c2
+        dir.getCommit("master") == c2
+        dir.getCommit("refs/heads/master") == c2
+        dir.getCommit("feature") == c1
+        dir.getCommit("origin/master") == c1
+        dir.getCommit("origin") == c1
+        dir.getCommit("v1.0") == c1
+        dir.getCommit("v1.1") == c2
+    }
+
+    def "leaves to git what the files cannot answer"() {
+        def dir = GitDirectory.find(tmp.root)
+
+        expect:
+        dir.getCommit("loose") == null
+        dir.getCommit("HEAD~1") == null
+        dir.getCommit("v1.0^{commit}") == null
+        dir.getCommit(c1) == null
+        dir.getCommit("missing") == null
+    }
+
+    def "provides remote url"() {
+        def dir = GitDirectory.find(tmp.root)
+
+        expect:
+        dir.getRemoteUrl("origin") == "git@github.com:mockito/shipkit.git"
+        dir.getRemoteUrl("upstream") == "https://github.com/mockito/mockito.git"
+        dir.getRemoteUrl("missing") == null
+    }
+
+    def "does not support url rewriting"() {
+        new File(git, "config") << """[url "git@github.com:"]
+\tinsteadOf = gh:
+"""
+
+        expect:
+        GitDirectory.find(tmp.root) == null
+    }
+
+    private void write(String path, String content) {
+        def f = new File(git, path)
+        f.parentFile.mkdirs()
+        f.text = content
+    }
+}
@@ -0,0 +1,50 @@
+package org.shipkit.internal.notes.vcs
+
+import spock.lang.Specification
+
+class GitLogParserTest extends Specification {
+
+    def "reads commits one by one"() {
+        def parser = new GitLogParser(new StringReader("""a1\0szczepiq@gmail.com\0Szczepan Faber\0Fixed #10
+with @@info@@ and @@commit@@ in the message
+\0b2\0john@doe\0John R. Doe\0dummy commit\n\0"""))
+
+        when:
+        def first = parser.next()
+        def second = parser.next()
+
+        then:
+        first.commitId == "a1"
+        first.authorEmail == "szczepiq@gmail.com"
+        first.authorName == "Szczepan Faber"
+        first.message == "Fixed #10\nwith @@info@@ and @@commit@@ in the message"
+        first.tickets == ["10"] as Set
+
+        second.commitId == "b2"
+        second.message == "dummy commit"
+
+        parser.next() == null
+    }
+
+    def "reads fields longer than the buffer"() {
+        def message = "x" * 20000
+        def parser = new GitLogParser(new StringReader("a1\0a@b\0A\0$message\0"))
+
+        expect:
+        parser.next().message == message
+        parser.next() == null
+    }
+
+    def "ignores incomplete commit"() {
+        def parser = new GitLogParser(new StringReader("a1\0a@b\0A\0message\0b2\0b@c"))
+
+        expect:
+        parser.next().commitId == "a1"
+        parser.next() == null
+    }
+
+    def "empty log"() {
+        expect:
+        new GitLogParser(new StringReader("")).next() == null
+    }
+}
@@ -0,0 +1,46 @@
+package org.shipkit.internal.notes.vcs
+
+import spock.lang.Specification
+
+class GitObjectDatabaseTest extends Specification {
+
+    def "applies delta"() {
+        //base size 3, result size 5, copy 2 bytes from offset 1, insert "xyz"
+        def delta = bytes(0x03, 0x05, 0x91, 0x01, 0x02, 0x03) + ("xyz".bytes as List)
+
+        expect:
+        new String(GitObjectDatabase.applyDelta("abc".bytes, delta as byte[])) == "bcxyz"
+    }
+
+    def "rejects corrupted delta"() {
+        when:
+        GitObjectDatabase.applyDelta("abc".bytes, delta as byte[])
+
+        then:
+        thrown(IOException)
+
+        where:
+        delta << [
+                //copy outside of the base
+                bytes(0x03, 0x02, 0x91, 0x02, 0x02),
+                //copy of 64K, more than the result
+                bytes(0x03, 0x02, 0x80),
+                //insert longer than the delta
+                bytes(0x03, 0x05, 0x05, 0x61),
+                //truncated copy instruction
+                bytes(0x03, 0x02, 0x91, 0x01),
+                //truncated size
+                bytes(0x03, 0x82),
+                //size too large
+                bytes(0x03, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0x01),
+                //base of different size
+                bytes(0x04, 0x01, 0x01, 0x61),
+                //fewer bytes than declared
+                bytes(0x03, 0x02, 0x01, 0x61)
+        ]
+    }
+
+    private static List<Byte> bytes(int... values) {
+        values.collect { it as byte }
+    }
+}
@@ -28,4 +28,18 @@ class GitOriginRepoProviderTest extends Specification {
         expect:
         underTest.originGitRepo == "mockito/mockito"
     }
+
+    def "should read git remote from git config" (){
+        given:
+        def gitDirectory = Mock(GitDirectory)
+        gitDirectory.getRemoteUrl("origin") >> "https://github.com/mockito/mockito.git"
+        underTest = new GitOriginRepoProvider(runner, gitDirectory)
+
+        when:
+        def repo = underTest.originGitRepo
+
+        then:
+        repo == "mockito/mockito"
+        0 * runner._
+    }
 }
@@ -9,7 +9,18 @@ class GitRevisionProviderTest extends Specification {
     def runner = Mock(ProcessRunner)
     @Subject provider = new GitRevisionProvider(runner)
 
+    def "provides commits of tags"() {
+        provider = new GitRevisionProvider(runner, new GitTagIndex(runner), null, "v")
+        runner.run("git", "for-each-ref", _, "refs/tags/v*") >> "refs/tags/v1.0\u0000c1\u0000\u00002017-01-29 08:14:09 -0800\u0000\n" +
+                "refs/tags/v1.1\u0000t2\u0000c2\u0000\u00002017-01-30 10:14:09 -0400\n"
+
+        expect:
+        provider.getRevisionForTagOrRevision("v1.0") == "c1"
+        provider.getRevisionForTagOrRevision("v1.1") == "c2"
+    }
+
     def "should trim new lines from git command output"() {
+        runner.run("git", "for-each-ref", _, "refs/tags") >> ""
         runner.run("git", "rev-list", "-n", "1", "v1.1") >> "1234\n"
 
         when:
@@ -18,4 +29,29 @@ class GitRevisionProviderTest extends Specification {
         then:
         result == "1234"
     }
+
+    def "resolves branches from git directory"() {
+        def gitDirectory = Mock(GitDirectory)
+        def provider = new GitRevisionProvider(runner, new GitTagIndex(runner), gitDirectory, "")
+
+        when:
+        def result = provider.getRevisionForTagOrRevision("master")
+
+        then:
+        1 * gitDirectory.getCommit("master") >> "1234"
+        0 * runner._
+        result == "1234"
+    }
+
+    def "falls back to the tag index and git when the git directory does not know the revision"() {
+        def gitDirectory = Mock(GitDirectory)
+        def provider = new GitRevisionProvider(runner, new GitTagIndex(runner), gitDirectory, "v")
+        gitDirectory.getCommit(_) >> null
+        runner.run("git", "for-each-ref", _, "refs/tags/v*") >> "refs/tags/v1.0\u0000t1\u0000c1\u0000\u00002017-01-29 08:14:09 -0800\n"
+        runner.run("git", "rev-list", "-n", "1", "HEAD~1") >> "5678\n"
+
+        expect:
+        provider.getRevisionForTagOrRevision("v1.0") == "c1"
+        provider.getRevisionForTagOrRevision("HEAD~1") == "5678"
+    }
 }
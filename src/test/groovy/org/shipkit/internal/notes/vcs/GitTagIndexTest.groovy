@@ -0,0 +1,69 @@
+package org.shipkit.internal.notes.vcs
+
+import org.shipkit.internal.exec.ProcessRunner
+import org.shipkit.internal.util.DateUtil
+import spock.lang.Specification
+
+class GitTagIndexTest extends Specification {
+
+    int runs
+    String pattern = "refs/tags"
+    String output = """refs/tags/v1.0\u0000c1\u0000\u00002017-01-29 08:14:09 -0800\u0000
+refs/tags/v1.1\u0000t2\u0000c2\u0000\u00002017-01-30 10:14:09 -0400
+refs/tags/tree\u0000t3\u0000\u0000\u0000
+refs/tags/release/2.0\u0000c4\u0000\u00002017-04-11 13:59:59 +0000\u0000
+"""
+
+    def runner = [run: { String... args ->
+        assert args as List == ["git", "for-each-ref",
+                "--format=%(refname)%00%(objectname)%00%(*objectname)%00%(authordate:iso)%00%(*authordate:iso)", pattern]
+        runs++
+        output
+    }] as ProcessRunner
+
+    def index = new GitTagIndex(runner)
+
+    def "indexes lightweight and annotated tags"() {
+        expect:
+        index.getTag("", "v1.0").revision == "c1"
+        DateUtil.formatDate(index.getTag("", "v1.0").date) == "2017-01-29"
+
+        index.getTag("", "v1.1").revision == "c2"
+        DateUtil.formatDate(index.getTag("", "v1.1").date) == "2017-01-30"
+
+        index.getTag("", "release/2.0").revision == "c4"
+    }
+
+    def "reads tags only once"() {
+        when:
+        index.getTag("", "v1.0")
+        index.getTag("", "v1.1")
+        index.getTag("", "HEAD")
+
+        then:
+        runs == 1
+    }
+
+    def "does not index tags that don't point to commits"() {
+        expect:
+        index.getTag("", "tree") == null
+        index.getTag("", "v3.0") == null
+    }
+
+    def "reads only tags with the prefix"() {
+        pattern = "refs/tags/v*"
+        output = "refs/tags/v1.0\u0000c1\u0000\u00002017-01-29 08:14:09 -0800\u0000\n"
+
+        expect:
+        index.getTag("v", "v1.0").revision == "c1"
+        index.getTag("v", "release/2.0") == null
+        runs == 1
+    }
+
+    def "makes ref pattern of the prefix"() {
+        expect:
+        GitTagIndex.refPattern("") == "refs/tags"
+        GitTagIndex.refPattern("release/") == "refs/tags/release/*"
+        GitTagIndex.refPattern("v") == "refs/tags/v*"
+    }
+}
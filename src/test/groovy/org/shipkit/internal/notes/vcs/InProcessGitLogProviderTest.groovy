@@ -0,0 +1,177 @@
+package org.shipkit.internal.notes.vcs
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.shipkit.internal.exec.DefaultProcessRunner
+import org.shipkit.internal.notes.util.Function
+import spock.lang.Specification
+
+class InProcessGitLogProviderTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    File origin
+    File work
+
+    def setup() {
+        origin = tmp.newFolder("origin")
+        git(origin, "init")
+        git(origin, "symbolic-ref", "HEAD", "refs/heads/master")
+        commit(origin, "first", "Szczepan Faber", "szczepiq@gmail.com", 1500001000)
+        git(origin, "tag", "-a", "-m", "annotated", "v1.0")
+        git(origin, "checkout", "-b", "feature")
+        //dates out of order, like with clock skew
+        commit(origin, "Fixed #10\n\nwith details", "Marcin Stachniuk", "mstachniuk@gmail.com", 1500003000)
+        commit(origin, "feature work", "Ćelina Żółć", "c@z", 1500002000)
+        git(origin, "checkout", "master")
+        commit(origin, "second", "Szczepan Faber", "szczepiq@gmail.com", 1500002500)
+        git(origin, "merge", "--no-ff", "-m", "Merge feature", "feature")
+        git(origin, "tag", "v2.0")
+        git(origin, "gc", "-q")
+        commit(origin, "loose commit [ci skip]", "John R. Doe", "john@doe", 1500005000)
+
+        work = new File(tmp.root, "work")
+        new DefaultProcessRunner(tmp.root).run("git", "clone", origin.absolutePath, work.absolutePath)
+        //cloned commits are in a pack file, local commits are loose objects
+        commit(work, "local change", "John R. Doe", "john@doe", 1500006000)
+    }
+
+    def "reads the same commits as git log"() {
+        def commandLine = new CommandLineGitLogProvider(new DefaultProcessRunner(work))
+        def inProcess = new InProcessGitLogProvider(work, commandLine)
+
+        expect:
+        log(inProcess, from, to) == log(commandLine, from, to)
+
+        where:
+        from   | to
+        null   | "HEAD"
+        "v1.0" | "HEAD"
+        "v1.0" | "v2.0"
+        "v2.0" | "master"
+    }
+
+    def "provides commit details"() {
+        def inProcess = new InProcessGitLogProvider(work, new CommandLineGitLogProvider(new DefaultProcessRunner(work)))
+
+        when:
+        def commits = log(inProcess, "v1.0", "v2.0")
+
+        then:
+        commits*.message == ["Merge feature", "second", "feature work", "Fixed #10\n\nwith details"]
+        commits[3].authorName == "Marcin Stachniuk"
+        commits[3].authorEmail == "mstachniuk@gmail.com"
+        commits[3].tickets == ["10"] as Set
+        commits[2].authorName == "Ćelina Żółć"
+    }
+
+    def "falls back to git log for revision expressions"() {
+        def commandLine = Spy(CommandLineGitLogProvider, constructorArgs: [new DefaultProcessRunner(work)])
+        commandLine.fetch(_) >> {}
+        def inProcess = new InProcessGitLogProvider(work, commandLine)
+
+        when:
+        def commits = log(inProcess, "HEAD~1", "HEAD")
+
+        then:
+        commits*.message == ["local change"]
+        1 * commandLine.log("HEAD~1", "HEAD", _)
+    }
+
+    def "falls back to git log when the pack file is truncated"() {
+        def commandLine = Spy(CommandLineGitLogProvider, constructorArgs: [new DefaultProcessRunner(work)])
+        commandLine.fetch(_) >> {}
+        def inProcess = new InProcessGitLogProvider(work, commandLine)
+        def pack = new File(work, ".git/objects/pack").listFiles().find { it.name.endsWith(".pack") }
+        pack.writable = true
+        def file = new RandomAccessFile(pack, "rw")
+        //only the header is left, the objects are outside of the file
+        file.length = 12
+        file.close()
+
+        when:
+        def result = inProcess.getLog("v1.0", "HEAD", { "in process" } as Function)
+
+        then:
+        1 * commandLine.logs(["HEAD", "v1.0"], _) >> ["git log"]
+        result == "git log"
+    }
+
+    def "reads consecutive ranges in one walk"() {
+        def commandLine = new CommandLineGitLogProvider(new DefaultProcessRunner(work))
+        def inProcess = new InProcessGitLogProvider(work, commandLine)
+
+        expect:
+        logs(inProcess, revisions) == logs(commandLine, revisions)
+
+        where:
+        revisions << [
+                ["HEAD", "v2.0", "v1.0"],
+                ["HEAD", "v2.0", "v1.0", null],
+                ["HEAD", "v2.0", "v2.0", "v1.0"],
+                //not ancestors of each other, ranges are walked separately
+                ["v2.0", "HEAD", "v1.0"],
+                ["HEAD", "feature", "v2.0"]
+        ]
+    }
+
+    def "splits commits of consecutive ranges"() {
+        def inProcess = new InProcessGitLogProvider(work, new CommandLineGitLogProvider(new DefaultProcessRunner(work)))
+
+        when:
+        def logs = logs(inProcess, ["HEAD", "v2.0", "v1.0", null])
+
+        then:
+        logs*.message == [["local change", "loose commit [ci skip]"],
+                          ["Merge feature", "second", "feature work", "Fixed #10\n\nwith details"],
+                          ["first"]]
+    }
+
+    def "keeps commits in the store"() {
+        def commandLine = new CommandLineGitLogProvider(new DefaultProcessRunner(work))
+        def file = new File(tmp.root, "commits.bin")
+        new InProcessGitLogProvider(work, commandLine, new GitCommitStore(file)).getLog("v1.0", "HEAD", { it } as Function)
+
+        when:
+        def store = new GitCommitStore(file)
+        def commits = log(new InProcessGitLogProvider(work, commandLine, store), "v1.0", "HEAD")
+
+        then:
+        commits == log(commandLine, "v1.0", "HEAD")
+        commits.every { store.getCommit(it.commitId) == it }
+    }
+
+    private static List<List<GitCommit>> logs(GitLogProvider provider, List<String> revisions) {
+        provider.getLogs(revisions, { GitCommitReader reader -> readAll(reader) } as Function)
+    }
+
+    private static List<GitCommit> log(GitLogProvider provider, String from, String to) {
+        provider.getLog(from, to, { GitCommitReader reader -> readAll(reader) } as Function)
+    }
+
+    private static List<GitCommit> readAll(GitCommitReader reader) {
+        def result = []
+        def c
+        while ((c = reader.next()) != null) {
+            result << c
+        }
+        result
+    }
+
+    private static void commit(File dir, String message, String name, String email, long time) {
+        //a file per author, so that merging branches does not conflict
+        new File(dir, email + ".txt") << message
+        git(dir, "add", email + ".txt")
+        git(dir, "-c", "user.name=$name", "-c", "user.email=$email", "commit", "-m", message, "--date=$time +0000")
+    }
+
+    private static String git(File dir, String... args) {
+        def runner = new DefaultProcessRunner(dir)
+        //committer date is what git log orders by, the author date follows it in these tests
+        def date = args.find { it.startsWith("--date=") }
+        if (date) {
+            return runner.run(["env", "GIT_COMMITTER_DATE=" + date.substring(7), "git"] + (args as List))
+        }
+        runner.run(["git", "-c", "user.name=A", "-c", "user.email=a@b"] + (args as List))
+    }
+}
@@ -0,0 +1,57 @@
+package org.shipkit.internal.notes.vcs
+
+import spock.lang.Specification
+
+class MailmapTest extends Specification {
+
+    def mailmap = Mailmap.parse("""# comment
+Proper Name <commit@email>
+<proper@email> <other@email>
+Joe Developer <joe@proper> <JOE@old>
+Jane <jane@proper> jane <jane@old>
+Jane D. <jane.d@proper> Jane Doe <jane@old>
+invalid line
+""")
+
+    def "maps author"() {
+        expect:
+        def commit = mailmap.map(new GitCommit("1", email, name, "msg"))
+        commit.authorEmail == expectedEmail
+        commit.authorName == expectedName
+        commit.commitId == "1"
+        commit.message == "msg"
+
+        where:
+        email          | name       | expectedEmail | expectedName
+        "commit@email" | "Foo"      | "commit@email"  | "Proper Name"
+        "other@email"  | "Bar"      | "proper@email"  | "Bar"
+        "joe@old"      | "joe"      | "joe@proper"    | "Joe Developer"
+        "jane@old"     | "JANE"     | "jane@proper"   | "Jane"
+        "jane@old"     | "Jane Doe" | "jane.d@proper" | "Jane D."
+        "jane@old"     | "Someone"  | "jane@old"      | "Someone"
+        "unknown@x"    | "Foo"      | "unknown@x"     | "Foo"
+    }
+
+    def "does not change commits without mapping"() {
+        def commit = new GitCommit("1", "a@b", "A", "msg")
+
+        expect:
+        Mailmap.EMPTY.map(commit).is(commit)
+        mailmap.map(commit).is(commit)
+    }
+
+    def "loads the file from the root of the repository"() {
+        def root = File.createTempDir()
+        new File(root, ".git").mkdirs()
+        new File(root, ".mailmap") << "Proper Name <commit@email>"
+        def subproject = new File(root, "subproject")
+        subproject.mkdirs()
+
+        expect:
+        Mailmap.load(subproject).map(new GitCommit("1", "commit@email", "x", "msg")).authorName == "Proper Name"
+        Mailmap.load(File.createTempDir()).is(Mailmap.EMPTY)
+
+        cleanup:
+        root.deleteDir()
+    }
+}
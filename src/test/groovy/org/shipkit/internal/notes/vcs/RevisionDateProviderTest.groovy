@@ -9,22 +9,33 @@ class RevisionDateProviderTest extends Specification {
     def runner = Mock(ProcessRunner)
     def provider = new RevisionDateProvider(runner)
 
+    def "provides dates of tags without running git for each tag"() {
+        1 * runner.run("git", "for-each-ref", _, "refs/tags/v*") >> "refs/tags/v1.0.0\u0000c1\u0000\u00002017-01-29 08:14:09 -0800\u0000\n" +
+                "refs/tags/v2.0.0\u0000t2\u0000c2\u0000\u00002017-01-30 10:14:09 -0400\n"
+
+        expect:
+        DateUtil.formatDate(provider.getDate("v1.0.0", "v")) == "2017-01-29"
+        DateUtil.formatDate(provider.getDate("v2.0.0", "v")) == "2017-01-30"
+    }
+
     def "provides revision dates"() {
+        runner.run("git", "for-each-ref", _, "refs/tags") >> ""
         runner.run("git", "log", "--pretty=%ad", "--date=iso", "v1.0.0", "-n", "1") >> "\n2017-01-29 08:14:09 -0800\n"
         runner.run("git", "log", "--pretty=%ad", "--date=iso", "v2.0.0", "-n", "1") >> "\n2017-01-30 10:14:09 -0400\n"
         runner.run("git", "log", "--pretty=%ad", "--date=iso", "v3.0.0", "-n", "1") >> "2017-04-11 13:59:59 +0000"
 
         expect:
-        DateUtil.formatDate(provider.getDate("v1.0.0")) == "2017-01-29"
-        DateUtil.formatDate(provider.getDate("v2.0.0")) == "2017-01-30"
-        DateUtil.formatDate(provider.getDate("v3.0.0")) == "2017-04-11"
+        DateUtil.formatDate(provider.getDate("v1.0.0", "")) == "2017-01-29"
+        DateUtil.formatDate(provider.getDate("v2.0.0", "")) == "2017-01-30"
+        DateUtil.formatDate(provider.getDate("v3.0.0", "")) == "2017-04-11"
     }
 
     def "fails if revision number is incorrect what causes git call to fail"() {
+        runner.run("git", "for-each-ref", _, "refs/tags") >> ""
         runner.run("git", "log", "--pretty=%ad", "--date=iso", "v1.0.0", "-n", "1") >> "fatal: ambiguous argument 'v1.0.0'"
 
         when:
-        provider.getDate("v1.0.0")
+        provider.getDate("v1.0.0", "")
 
         then:
         def ex = thrown(IllegalArgumentException)
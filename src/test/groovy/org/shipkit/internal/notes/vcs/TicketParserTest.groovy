@@ -19,4 +19,16 @@ class TicketParserTest extends Specification {
         parseTickets("stuff 12 #133 44") == ['133'] as Set
         parseTickets("line\n a #12 x \n b #13 z \n  ") == ['12', '13'] as Set
     }
+
+    def "keeps tickets in the order of appearance"() {
+        expect:
+        parseTickets(message) as List == tickets
+
+        where:
+        message                        | tickets
+        "#"                            | []
+        "#12#13 ##14 #007 #12"         | ["12", "13", "14", "007"]
+        "Fixed #10\n\nsee #11."        | ["10", "11"]
+        "#-1 # 2 12 #x3"               | []
+    }
 }
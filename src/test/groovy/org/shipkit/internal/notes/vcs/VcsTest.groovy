@@ -0,0 +1,31 @@
+package org.shipkit.internal.notes.vcs
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class VcsTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def setup() {
+        tmp.newFolder(".git")
+        tmp.newFile(".mailmap") << "Proper Name <commit@email>"
+    }
+
+    def cleanup() {
+        System.clearProperty(Vcs.MAILMAP_PROPERTY)
+    }
+
+    def "does not map authors by default"() {
+        expect:
+        Vcs.getMailmap(tmp.root).is(Mailmap.EMPTY)
+    }
+
+    def "maps authors with .mailmap when enabled"() {
+        System.setProperty(Vcs.MAILMAP_PROPERTY, "true")
+
+        expect:
+        Vcs.getMailmap(tmp.root).map(new GitCommit("1", "commit@email", "x", "msg")).authorName == "Proper Name"
+    }
+}
@@ -0,0 +1,106 @@
+package org.shipkit.internal.util
+
+import com.sun.net.httpserver.HttpExchange
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+import testutil.FakeGitHubServer
+
+class GitHubClientTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    @Rule FakeGitHubServer server = new FakeGitHubServer()
+    def client = new GitHubClient(1000, 1000)
+
+    def "decodes gzipped response"() {
+        server.respond("/issues", 200, '[{"number": 1}]', ["Link": '<http://next>; rel="next"'], true)
+
+        when:
+        def response = client.get(url("/issues?access_token=secret"))
+
+        then:
+        response.statusCode == 200
+        response.getHeader("link") == '<http://next>; rel="next"'
+        response.content == '[{"number": 1}]'
+    }
+
+    def "posts body"() {
+        def received = null
+        server.handle("/pulls") { HttpExchange e ->
+            received = e.requestBody.text
+            FakeGitHubServer.send(e, 201, "{}")
+        }
+
+        when:
+        def content = client.post(url("/pulls"), '{"title": "x"}').content
+
+        then:
+        content == "{}"
+        received == '{"title": "x"}'
+    }
+
+    def "serves not modified response from cache"() {
+        def cache = new GitHubResponseCache(tmp.root, 1000)
+        def cached = client.withResponseCache(cache)
+        server.handle("/issues") { HttpExchange e ->
+            if (e.requestHeaders.getFirst("If-None-Match") == '"v1"') {
+                e.responseHeaders.add("X-RateLimit-Remaining", "42")
+                e.sendResponseHeaders(304, -1)
+                e.close()
+                return
+            }
+            e.responseHeaders.add("ETag", '"v1"')
+            e.responseHeaders.add("Link", '<http://next>; rel="next"')
+            FakeGitHubServer.send(e, 200, '[{"number": 1}]')
+        }
+
+        when:
+        def first = cached.get(url("/issues?page=1")).content
+        def second = cached.get(url("/issues?page=1"))
+
+        then:
+        first == '[{"number": 1}]'
+        second.content == '[{"number": 1}]'
+        second.getHeader("Link") == '<http://next>; rel="next"'
+        second.getHeader("X-RateLimit-Remaining") == "42"
+        cache.stats.hits == 1
+        cache.stats.requests == 2
+        client.responseCache == null
+    }
+
+    def "retries request rejected because of secondary rate limit"() {
+        int requests = 0
+        server.handle("/issues") { HttpExchange e ->
+            if (++requests == 1) {
+                e.responseHeaders.add("Retry-After", "0")
+                FakeGitHubServer.send(e, 403, '{"message": "You have exceeded a secondary rate limit"}')
+            } else {
+                FakeGitHubServer.send(e, 200, '[]')
+            }
+        }
+
+        when:
+        def content = client.get(url("/issues")).content
+
+        then:
+        content == "[]"
+        requests == 2
+    }
+
+    def "masks access token in error message"() {
+        server.respond("/repos", 404, '{"message": "Not Found"}')
+
+        when:
+        client.get(url("/repos?access_token=secret&page=1"))
+
+        then:
+        def ex = thrown(IOException)
+        ex.message == "GET " + url("/repos?access_token=[SECRET]&page=1") + " failed, response code = 404, response body:\n" +
+            '{"message": "Not Found"}'
+    }
+
+    private String url(String path) {
+        server.url(path)
+    }
+}
@@ -0,0 +1,76 @@
+package org.shipkit.internal.util
+
+import spock.lang.Specification
+
+class GitHubRateLimiterTest extends Specification {
+
+    //fake clock, advanced by waiting
+    long now = 1000000
+    long waited = 0
+
+    def limiter = new GitHubRateLimiter(2, 2) {
+        long now() {
+            GitHubRateLimiterTest.this.now
+        }
+
+        void waitFor(long millis) {
+            GitHubRateLimiterTest.this.now += millis
+            waited += millis
+        }
+    }
+
+    def "paces requests exceeding the burst"() {
+        when:
+        4.times { limiter.acquire() }
+
+        then:
+        waited == 1000
+    }
+
+    def "waits for reset when the budget is exhausted"() {
+        limiter.update("0", String.valueOf((now + 30000) / 1000 as long))
+
+        when:
+        limiter.acquire()
+
+        then:
+        waited == 31000
+    }
+
+    def "does not wait while there is budget left"() {
+        limiter.update("1", String.valueOf((now + 30000) / 1000 as long))
+
+        when:
+        limiter.acquire()
+
+        then:
+        waited == 0
+    }
+
+    def "pauses requests on secondary rate limit"() {
+        when:
+        def retry = limiter.backOff(403, "20", "", 1)
+        limiter.acquire()
+
+        then:
+        retry
+        waited == 20000
+    }
+
+    def "backs off exponentially when GitHub does not say how long to wait"() {
+        expect:
+        limiter.backOff(403, null, "You have exceeded a secondary rate limit", 2)
+
+        when:
+        limiter.acquire()
+
+        then:
+        waited == 120000
+    }
+
+    def "does not retry other errors"() {
+        expect:
+        !limiter.backOff(403, null, "Resource not accessible by integration", 1)
+        !limiter.backOff(404, null, "Not Found", 1)
+    }
+}
@@ -0,0 +1,73 @@
+package org.shipkit.internal.util
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class GitHubResponseCacheTest extends Specification {
+
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def "stores fully read responses"() {
+        def cache = new GitHubResponseCache(tmp.root, 1000)
+
+        when:
+        cache.store("http://api/issues?access_token=secret", ["ETag": ['"v1"']], stream("[1, 2]")).text
+
+        then:
+        def entry = cache.get("http://api/issues?access_token=secret")
+        entry.getHeader("etag") == '"v1"'
+        entry.openBody().text == "[1, 2]"
+        !tmp.root.list().any { it.contains("secret") }
+    }
+
+    def "does not store partially read responses"() {
+        def cache = new GitHubResponseCache(tmp.root, 1000)
+
+        when:
+        def body = cache.store("http://api/issues", ["ETag": ['"v1"']], stream("[1, 2]"))
+        body.read()
+        body.close()
+
+        then:
+        cache.get("http://api/issues") == null
+        tmp.root.list().length == 0
+    }
+
+    def "evicts least recently used entries"() {
+        def cache = new GitHubResponseCache(tmp.root, 10)
+        cache.store("http://api/1", ["ETag": ['"1"']], stream("1111")).text
+        cache.store("http://api/2", ["ETag": ['"2"']], stream("2222")).text
+        cache.get("http://api/1")
+
+        when:
+        cache.store("http://api/3", ["ETag": ['"3"']], stream("3333")).text
+
+        then:
+        cache.get("http://api/1")
+        !cache.get("http://api/2")
+        cache.get("http://api/3")
+    }
+
+    def "reloads index from disk"() {
+        new GitHubResponseCache(tmp.root, 1000).store("http://api/1", ["ETag": ['"1"']], stream("1111")).text
+
+        expect:
+        new GitHubResponseCache(tmp.root, 1000).get("http://api/1").getHeader("ETag") == '"1"'
+    }
+
+    def "reports hit rate"() {
+        def cache = new GitHubResponseCache(tmp.root, 1000)
+        def snapshot = cache.stats
+        cache.recordHit()
+        cache.recordHit()
+        cache.recordMiss()
+
+        expect:
+        cache.stats.since(snapshot).toString() == "3 cacheable request(s), 2 not modified (66% hit rate)"
+    }
+
+    private static InputStream stream(String content) {
+        new ByteArrayInputStream(content.bytes)
+    }
+}
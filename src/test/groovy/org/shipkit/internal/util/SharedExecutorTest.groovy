@@ -0,0 +1,44 @@
+package org.shipkit.internal.util
+
+import spock.lang.Specification
+
+class SharedExecutorTest extends Specification {
+
+    def cleanup() {
+        System.clearProperty(SharedExecutor.PARALLELISM_PROPERTY)
+        SharedExecutor.shutdown()
+    }
+
+    def "shares executor until shut down"() {
+        def executor = SharedExecutor.getDefault()
+
+        expect:
+        SharedExecutor.getDefault().is(executor)
+
+        when:
+        SharedExecutor.shutdown()
+
+        then:
+        executor.isShutdown()
+        !SharedExecutor.getDefault().is(executor)
+        !SharedExecutor.getDefault().isShutdown()
+    }
+
+    def "parallelism is configurable"() {
+        expect:
+        SharedExecutor.getParallelism() == 8
+
+        when:
+        System.setProperty(SharedExecutor.PARALLELISM_PROPERTY, "3")
+
+        then:
+        SharedExecutor.getParallelism() == 3
+        SharedExecutor.getDefault().maximumPoolSize == 3
+
+        when:
+        System.setProperty(SharedExecutor.PARALLELISM_PROPERTY, "0")
+
+        then:
+        SharedExecutor.getParallelism() == 8
+    }
+}
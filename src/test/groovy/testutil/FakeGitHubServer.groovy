@@ -0,0 +1,84 @@
+package testutil
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import com.sun.net.httpserver.HttpServer
+import org.junit.rules.ExternalResource
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Local HTTP server that stands in for GitHub API in tests:
+ *  - started before and stopped after every test, use it as a JUnit rule
+ *  - canned responses per path, see {@link #respond}, or custom handlers, see {@link #handle}
+ *  - keeps the uris of all requests, in the order they were received
+ */
+class FakeGitHubServer extends ExternalResource {
+
+    private HttpServer server
+    final List<URI> requests = new CopyOnWriteArrayList<URI>()
+
+    @Override
+    protected void before() {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+        server.start()
+    }
+
+    @Override
+    protected void after() {
+        server.stop(0)
+    }
+
+    /**
+     * For example: http://localhost:12345
+     */
+    String getUrl() {
+        "http://localhost:" + server.address.port
+    }
+
+    String url(String path) {
+        getUrl() + path
+    }
+
+    /**
+     * Responds to requests of given path with given body, replaces previous response of the path
+     */
+    void respond(String path, int code, String body, Map<String, String> headers = [:], boolean gzip = false) {
+        handle(path) { HttpExchange e ->
+            headers.each { k, v -> e.responseHeaders.add(k, v) }
+            byte[] bytes = body.getBytes("UTF-8")
+            if (gzip) {
+                def out = new ByteArrayOutputStream()
+                new GZIPOutputStream(out).withStream { it.write(bytes) }
+                bytes = out.toByteArray()
+                e.responseHeaders.add("Content-Encoding", "gzip")
+            }
+            send(e, code, bytes)
+        }
+    }
+
+    /**
+     * Handles requests of given path with the closure, replaces previous handler of the path
+     */
+    void handle(String path, Closure handler) {
+        try {
+            server.removeContext(path)
+        } catch (IllegalArgumentException e) {
+            //no handler yet
+        }
+        server.createContext(path, { HttpExchange e ->
+            requests << e.requestURI
+            handler.call(e)
+        } as HttpHandler)
+    }
+
+    static void send(HttpExchange e, int code, String body) {
+        send(e, code, body.getBytes("UTF-8"))
+    }
+
+    static void send(HttpExchange e, int code, byte[] body) {
+        e.sendResponseHeaders(code, body.length)
+        e.responseBody.withStream { it.write(body) }
+    }
+}